@@ -0,0 +1,108 @@
+package com.localcode.config;
+
+import com.localcode.exception.JudgeSaturatedException;
+import com.localcode.services.JudgePriority;
+import com.localcode.services.JudgeScheduler;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Interceptor that sheds new runs and submissions while the judge is backed up.
+ *
+ * Watches the jobs queued ahead of each lane and the estimated wait from recent
+ * run times. Once either crosses its threshold the lane starts rejecting new
+ * requests with 503 and a Retry-After, and keeps doing so until the backlog
+ * drains below the resume ratio of both thresholds, so admission doesn't flap
+ * at the boundary.
+ */
+@Component
+public class AdmissionControlInterceptor implements HandlerInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdmissionControlInterceptor.class);
+
+    private final JudgeScheduler judgeScheduler;
+    private final JudgeConfig judgeConfig;
+
+    // Shedding state per lane, indexed by JudgePriority ordinal
+    private final boolean[] shedding = new boolean[JudgePriority.values().length];
+    private final Counter[] rejectedCounters = new Counter[JudgePriority.values().length];
+
+    public AdmissionControlInterceptor(JudgeScheduler judgeScheduler,
+                                       JudgeConfig judgeConfig,
+                                       MeterRegistry meterRegistry) {
+        this.judgeScheduler = judgeScheduler;
+        this.judgeConfig = judgeConfig;
+
+        for (JudgePriority priority : JudgePriority.values()) {
+            String lane = priority.name().toLowerCase();
+            rejectedCounters[priority.ordinal()] = Counter.builder("judge.admission.rejected")
+                .tag("lane", lane)
+                .description("Requests shed by admission control")
+                .register(meterRegistry);
+            Gauge.builder("judge.admission.shedding", this, self -> self.isShedding(priority) ? 1 : 0)
+                .tag("lane", lane)
+                .description("1 while admission control is shedding the lane")
+                .register(meterRegistry);
+        }
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!judgeConfig.getAdmissionEnabled() || !"POST".equals(request.getMethod())) {
+            return true;
+        }
+
+        JudgePriority priority = request.getRequestURI().endsWith("/run")
+            ? JudgePriority.INTERACTIVE
+            : JudgePriority.SUBMISSION;
+
+        int depthAhead = judgeScheduler.getQueueDepthAhead(priority);
+        long waitMs = judgeScheduler.estimateWaitMs(priority);
+
+        if (!admit(priority, depthAhead, waitMs)) {
+            rejectedCounters[priority.ordinal()].increment();
+            long retryAfter = Math.max(judgeConfig.getMinRetryAfterSeconds(), (long) Math.ceil(waitMs / 1000.0));
+            throw new JudgeSaturatedException(
+                "The judge is busy right now. Please try again in " + retryAfter + " seconds.", retryAfter);
+        }
+        return true;
+    }
+
+    /**
+     * Whether a lane is currently shedding new requests.
+     *
+     * @param priority the lane
+     * @return true while shedding
+     */
+    public synchronized boolean isShedding(JudgePriority priority) {
+        return shedding[priority.ordinal()];
+    }
+
+    /**
+     * Update the lane's shedding state and decide on one request.
+     */
+    private synchronized boolean admit(JudgePriority priority, int depthAhead, long waitMs) {
+        int maxDepth = judgeConfig.getAdmissionMaxQueueDepth();
+        long maxWaitMs = judgeConfig.getAdmissionMaxWaitMs();
+        double resumeRatio = judgeConfig.getAdmissionResumeRatio();
+        int lane = priority.ordinal();
+
+        if (!shedding[lane] && (depthAhead >= maxDepth || waitMs >= maxWaitMs)) {
+            shedding[lane] = true;
+            logger.warn("Admission control shedding {} requests ({} queued ahead, ~{}ms wait)",
+                priority, depthAhead, waitMs);
+        } else if (shedding[lane] && depthAhead <= maxDepth * resumeRatio && waitMs <= maxWaitMs * resumeRatio) {
+            shedding[lane] = false;
+            logger.info("Admission control accepting {} requests again ({} queued ahead, ~{}ms wait)",
+                priority, depthAhead, waitMs);
+        }
+        return !shedding[lane];
+    }
+}
@@ -0,0 +1,116 @@
+package com.localcode.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuration for the warm container pool.
+ * Controls how many pre-started containers are kept per runtime image
+ * and what happens to a container after it has been used.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "execution.pool")
+public class ContainerPoolConfig {
+
+    /**
+     * What to do with a container once an execution has finished.
+     */
+    public enum ReusePolicy {
+        DESTROY,  // Remove the container and let the refill task replace it
+        SCRUB     // Kill leftover processes, wipe /tmp/code, /tmp and /dev/shm and return it to the pool
+    }
+
+    private boolean enabled = true;
+    private List<String> images = new ArrayList<>(List.of(
+        "localcode-java:latest",
+        "localcode-python:latest",
+        "localcode-javascript:latest"
+    ));
+    private Integer minIdle = 2;  // Warm containers kept ready per image
+    private Integer maxSize = 8;  // Max containers per image (idle + in use)
+    private ReusePolicy reusePolicy = ReusePolicy.DESTROY;
+    private Integer maxReuses = 20;  // Executions before a scrubbed container is retired
+    private Integer maxContainerAgeSeconds = 600;  // Idle containers older than this are replaced
+    private Long refillIntervalMs = 1000L;  // Background refill period
+    private Long acquireTimeoutMs = 10000L;  // Max wait for a container when the pool is exhausted
+
+    // Constructors
+    public ContainerPoolConfig() {
+    }
+
+    // Getters and Setters
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public List<String> getImages() {
+        return images;
+    }
+
+    public void setImages(List<String> images) {
+        this.images = images;
+    }
+
+    public Integer getMinIdle() {
+        return minIdle;
+    }
+
+    public void setMinIdle(Integer minIdle) {
+        this.minIdle = minIdle;
+    }
+
+    public Integer getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(Integer maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public ReusePolicy getReusePolicy() {
+        return reusePolicy;
+    }
+
+    public void setReusePolicy(ReusePolicy reusePolicy) {
+        this.reusePolicy = reusePolicy;
+    }
+
+    public Integer getMaxReuses() {
+        return maxReuses;
+    }
+
+    public void setMaxReuses(Integer maxReuses) {
+        this.maxReuses = maxReuses;
+    }
+
+    public Integer getMaxContainerAgeSeconds() {
+        return maxContainerAgeSeconds;
+    }
+
+    public void setMaxContainerAgeSeconds(Integer maxContainerAgeSeconds) {
+        this.maxContainerAgeSeconds = maxContainerAgeSeconds;
+    }
+
+    public Long getRefillIntervalMs() {
+        return refillIntervalMs;
+    }
+
+    public void setRefillIntervalMs(Long refillIntervalMs) {
+        this.refillIntervalMs = refillIntervalMs;
+    }
+
+    public Long getAcquireTimeoutMs() {
+        return acquireTimeoutMs;
+    }
+
+    public void setAcquireTimeoutMs(Long acquireTimeoutMs) {
+        this.acquireTimeoutMs = acquireTimeoutMs;
+    }
+}
@@ -0,0 +1,61 @@
+package com.localcode.config;
+
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.core.DefaultDockerClientConfig;
+import com.github.dockerjava.core.DockerClientConfig;
+import com.github.dockerjava.core.DockerClientImpl;
+import com.github.dockerjava.httpclient5.ApacheDockerHttpClient;
+import com.github.dockerjava.transport.DockerHttpClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Configuration for the shared Docker client.
+ * The client is used by both the executor and the warm container pool.
+ */
+@Configuration
+@ConditionalOnProperty(name = "execution.backend", havingValue = "docker", matchIfMissing = true)
+public class DockerConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(DockerConfig.class);
+
+    /**
+     * Create the Docker client and verify the daemon is reachable.
+     *
+     * @return connected Docker client
+     */
+    @Bean(destroyMethod = "close")
+    public DockerClient dockerClient() {
+        try {
+            DockerClientConfig config = DefaultDockerClientConfig.createDefaultConfigBuilder()
+                .withDockerHost("unix:///var/run/docker.sock")
+                .withDockerTlsVerify(false)
+                .withApiVersion("1.41")
+                .build();
+
+            DockerHttpClient httpClient = new ApacheDockerHttpClient.Builder()
+                .dockerHost(config.getDockerHost())
+                .sslConfig(null)
+                .maxConnections(100)
+                .connectionTimeout(Duration.ofSeconds(30))
+                .responseTimeout(Duration.ofSeconds(45))
+                .build();
+
+            DockerClient dockerClient = DockerClientImpl.getInstance(config, httpClient);
+
+            // Test connection by pinging Docker daemon
+            dockerClient.pingCmd().exec();
+            logger.info("Docker daemon is reachable at: {}", config.getDockerHost());
+
+            return dockerClient;
+        } catch (Exception e) {
+            logger.error("Failed to initialize Docker client: {}", e.getMessage(), e);
+            throw new RuntimeException("Failed to initialize Docker client: " + e.getMessage(), e);
+        }
+    }
+}
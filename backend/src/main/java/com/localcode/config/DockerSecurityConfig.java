@@ -2,8 +2,13 @@ package com.localcode.config;
 
 import com.github.dockerjava.api.model.Capability;
 import com.github.dockerjava.api.model.HostConfig;
+import com.github.dockerjava.api.model.Mount;
+import com.github.dockerjava.api.model.MountType;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.List;
+import java.util.Map;
+
 /**
  * Configuration for Docker container security settings.
  * Implements security measures for isolated code execution.
@@ -11,6 +16,12 @@ import org.springframework.context.annotation.Configuration;
 @Configuration
 public class DockerSecurityConfig {
     
+    // Working directory the code and inputs are copied to; a volume, since the archive API can't write into a tmpfs
+    public static final String WORKING_DIR = "/tmp/code";
+    
+    // Writable mounts besides the working directory, wiped when a container is scrubbed for reuse
+    public static final List<String> SCRATCH_DIRS = List.of("/tmp", "/dev/shm");
+    
     private final ResourceLimits resourceLimits;
     
     public DockerSecurityConfig(ResourceLimits resourceLimits) {
@@ -22,7 +33,7 @@ public class DockerSecurityConfig {
      * 
      * Security measures:
      * - No network access (networkMode = "none")
-     * - Read-only root filesystem (except /tmp)
+     * - Read-only root filesystem; only /tmp (tmpfs), /dev/shm and the /tmp/code volume are writable
      * - CPU and memory limits
      * - Process limit (max 50 processes)
      * - All Linux capabilities dropped
@@ -45,7 +56,9 @@ public class DockerSecurityConfig {
             
             // Security settings
             .withNetworkMode("none")  // No network access
-            .withReadonlyRootfs(false)  // Need write access to /tmp
+            .withReadonlyRootfs(true)  // Everything a run can write is in the mounts below, so a scrub can wipe it
+            .withTmpFs(Map.of("/tmp", "rw,nosuid,nodev,size=64m"))
+            .withMounts(List.of(new Mount().withType(MountType.VOLUME).withTarget(WORKING_DIR)))  // Anonymous volume
             
             // Additional security
             .withPrivileged(false)  // Not privileged
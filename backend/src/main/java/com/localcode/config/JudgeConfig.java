@@ -0,0 +1,100 @@
+package com.localcode.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration for the judge scheduler.
+ * Controls how many evaluations run at once and how much work may queue up.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "judge")
+public class JudgeConfig {
+    
+    private Integer concurrency = 0;  // 0 = derive from host cores and memory
+    private Integer memoryPerSlotMb = 512;  // Host memory budgeted per concurrent evaluation
+    private Integer queueCapacity = 100;  // Max queued (not yet running) jobs across all lanes
+    private Long minRetryAfterSeconds = 1L;  // Lower bound for Retry-After when saturated
+    private Boolean virtualThreads = false;  // Run judge workers on virtual threads (Java 21+, ignored otherwise)
+    private Boolean admissionEnabled = true;  // Shed new runs/submissions while the judge is backed up
+    private Integer admissionMaxQueueDepth = 50;  // Jobs ahead of a new request before shedding starts
+    private Long admissionMaxWaitMs = 30000L;  // Estimated queue wait before shedding starts
+    private Double admissionResumeRatio = 0.5;  // Fraction of both thresholds the backlog must drain to before accepting again
+    
+    // Constructors
+    public JudgeConfig() {
+    }
+    
+    // Getters and Setters
+    public Integer getConcurrency() {
+        return concurrency;
+    }
+    
+    public void setConcurrency(Integer concurrency) {
+        this.concurrency = concurrency;
+    }
+    
+    public Integer getMemoryPerSlotMb() {
+        return memoryPerSlotMb;
+    }
+    
+    public void setMemoryPerSlotMb(Integer memoryPerSlotMb) {
+        this.memoryPerSlotMb = memoryPerSlotMb;
+    }
+    
+    public Integer getQueueCapacity() {
+        return queueCapacity;
+    }
+    
+    public void setQueueCapacity(Integer queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+    
+    public Long getMinRetryAfterSeconds() {
+        return minRetryAfterSeconds;
+    }
+    
+    public void setMinRetryAfterSeconds(Long minRetryAfterSeconds) {
+        this.minRetryAfterSeconds = minRetryAfterSeconds;
+    }
+    
+    public Boolean getVirtualThreads() {
+        return virtualThreads;
+    }
+    
+    public void setVirtualThreads(Boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+    }
+    
+    public Boolean getAdmissionEnabled() {
+        return admissionEnabled;
+    }
+    
+    public void setAdmissionEnabled(Boolean admissionEnabled) {
+        this.admissionEnabled = admissionEnabled;
+    }
+    
+    public Integer getAdmissionMaxQueueDepth() {
+        return admissionMaxQueueDepth;
+    }
+    
+    public void setAdmissionMaxQueueDepth(Integer admissionMaxQueueDepth) {
+        this.admissionMaxQueueDepth = admissionMaxQueueDepth;
+    }
+    
+    public Long getAdmissionMaxWaitMs() {
+        return admissionMaxWaitMs;
+    }
+    
+    public void setAdmissionMaxWaitMs(Long admissionMaxWaitMs) {
+        this.admissionMaxWaitMs = admissionMaxWaitMs;
+    }
+    
+    public Double getAdmissionResumeRatio() {
+        return admissionResumeRatio;
+    }
+    
+    public void setAdmissionResumeRatio(Double admissionResumeRatio) {
+        this.admissionResumeRatio = admissionResumeRatio;
+    }
+}
@@ -0,0 +1,103 @@
+package com.localcode.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+/**
+ * Configuration for the local-process execution backend.
+ * Only used when execution.backend=local.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "execution.local")
+public class LocalSandboxConfig {
+    
+    private String scratchDir = "/dev/shm/localcode";  // Parent of the per-sandbox working directories (tmpfs)
+    private Boolean namespaces = true;  // Run code in new user, network, mount and PID namespaces (unshare)
+    private String cgroupRoot = "";  // Delegated cgroup v2 directory for per-sandbox limits, empty = no cgroups
+    private Integer maxProcesses = 64;  // pids.max of each sandbox cgroup
+    private Integer maxOutputKb = 10240;  // Largest file (and captured output) a program may write
+    private Integer maxOpenFiles = 256;  // Open file descriptors per process
+    private Integer addressSpaceHeadroomMb = 2048;  // Address space allowed on top of the memory limit (JVM reservations)
+    private List<String> runtimePaths = List.of(  // Host paths mounted read-only into the sandbox root
+        "/usr", "/bin", "/lib", "/lib64", "/etc/alternatives", "/etc/ld.so.cache", "/etc/localtime", "/opt");
+    private Boolean allowUnconfined = false;  // Start without namespaces or cgroups (tests only)
+    
+    // Constructors
+    public LocalSandboxConfig() {
+    }
+    
+    // Getters and Setters
+    public String getScratchDir() {
+        return scratchDir;
+    }
+    
+    public void setScratchDir(String scratchDir) {
+        this.scratchDir = scratchDir;
+    }
+    
+    public Boolean getNamespaces() {
+        return namespaces;
+    }
+    
+    public void setNamespaces(Boolean namespaces) {
+        this.namespaces = namespaces;
+    }
+    
+    public String getCgroupRoot() {
+        return cgroupRoot;
+    }
+    
+    public void setCgroupRoot(String cgroupRoot) {
+        this.cgroupRoot = cgroupRoot;
+    }
+    
+    public Integer getMaxProcesses() {
+        return maxProcesses;
+    }
+    
+    public void setMaxProcesses(Integer maxProcesses) {
+        this.maxProcesses = maxProcesses;
+    }
+    
+    public Integer getMaxOutputKb() {
+        return maxOutputKb;
+    }
+    
+    public void setMaxOutputKb(Integer maxOutputKb) {
+        this.maxOutputKb = maxOutputKb;
+    }
+    
+    public Integer getMaxOpenFiles() {
+        return maxOpenFiles;
+    }
+    
+    public void setMaxOpenFiles(Integer maxOpenFiles) {
+        this.maxOpenFiles = maxOpenFiles;
+    }
+    
+    public Integer getAddressSpaceHeadroomMb() {
+        return addressSpaceHeadroomMb;
+    }
+    
+    public void setAddressSpaceHeadroomMb(Integer addressSpaceHeadroomMb) {
+        this.addressSpaceHeadroomMb = addressSpaceHeadroomMb;
+    }
+    
+    public List<String> getRuntimePaths() {
+        return runtimePaths;
+    }
+    
+    public void setRuntimePaths(List<String> runtimePaths) {
+        this.runtimePaths = runtimePaths;
+    }
+    
+    public Boolean getAllowUnconfined() {
+        return allowUnconfined;
+    }
+    
+    public void setAllowUnconfined(Boolean allowUnconfined) {
+        this.allowUnconfined = allowUnconfined;
+    }
+}
@@ -1,56 +1,109 @@
 package com.localcode.config;
 
+import com.localcode.services.BoundedCache;
 import io.github.bucket4j.Bandwidth;
 import io.github.bucket4j.Bucket;
 import io.github.bucket4j.Refill;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 
 import java.time.Duration;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
 /**
  * Configuration for rate limiting.
  * Uses token bucket algorithm to limit API requests per user.
+ *
+ * Submission and API buckets are kept in separate stores keyed by user ID.
+ * Each store is bounded in size and drops buckets of users who have been idle
+ * longer than the idle timeout, so memory does not grow with every user seen.
  */
 @Configuration
 public class RateLimitConfig {
-    
-    private final Map<String, Bucket> cache = new ConcurrentHashMap<>();
-    
+
+    // A bucket idle for a full refill period is back at capacity, so dropping it earlier would reset a quota
+    private static final Duration REFILL_PERIOD = Duration.ofMinutes(1);
+
+    private final BucketStore submissionBuckets;
+    private final BucketStore apiBuckets;
+
+    public RateLimitConfig(MeterRegistry meterRegistry,
+                           @Value("${rate-limit.max-buckets:100000}") int maxBuckets,
+                           @Value("${rate-limit.idle-timeout-minutes:10}") long idleTimeoutMinutes) {
+        long idleTimeoutMs = Math.max(Duration.ofMinutes(idleTimeoutMinutes).toMillis(), REFILL_PERIOD.toMillis());
+        this.submissionBuckets = new BucketStore(maxBuckets, idleTimeoutMs, RateLimitConfig::createSubmissionBucket);
+        this.apiBuckets = new BucketStore(maxBuckets, idleTimeoutMs, RateLimitConfig::createApiBucket);
+
+        Gauge.builder("ratelimit.buckets", submissionBuckets, BucketStore::size)
+            .tag("type", "submission")
+            .description("Rate limit buckets currently held")
+            .register(meterRegistry);
+        Gauge.builder("ratelimit.buckets", apiBuckets, BucketStore::size)
+            .tag("type", "api")
+            .description("Rate limit buckets currently held")
+            .register(meterRegistry);
+    }
+
     /**
      * Get or create a bucket for submission rate limiting.
      * Limit: 10 submissions per minute per user.
      *
-     * @param key the user identifier
+     * @param userId the user ID
      * @return the bucket for rate limiting
      */
-    public Bucket resolveSubmissionBucket(String key) {
-        return cache.computeIfAbsent(key, k -> createSubmissionBucket());
+    public Bucket resolveSubmissionBucket(Long userId) {
+        return submissionBuckets.resolve(userId);
     }
-    
+
     /**
      * Get or create a bucket for general API rate limiting.
      * Limit: 100 requests per minute per user.
      *
-     * @param key the user identifier
+     * @param userId the user ID
      * @return the bucket for rate limiting
      */
-    public Bucket resolveApiBucket(String key) {
-        return cache.computeIfAbsent(key + "_api", k -> createApiBucket());
+    public Bucket resolveApiBucket(Long userId) {
+        return apiBuckets.resolve(userId);
     }
-    
-    private Bucket createSubmissionBucket() {
-        Bandwidth limit = Bandwidth.classic(10, Refill.intervally(10, Duration.ofMinutes(1)));
+
+    private static Bucket createSubmissionBucket() {
+        Bandwidth limit = Bandwidth.classic(10, Refill.intervally(10, REFILL_PERIOD));
         return Bucket.builder()
                 .addLimit(limit)
                 .build();
     }
-    
-    private Bucket createApiBucket() {
-        Bandwidth limit = Bandwidth.classic(100, Refill.intervally(100, Duration.ofMinutes(1)));
+
+    private static Bucket createApiBucket() {
+        Bandwidth limit = Bandwidth.classic(100, Refill.intervally(100, REFILL_PERIOD));
         return Bucket.builder()
                 .addLimit(limit)
                 .build();
     }
+
+    /**
+     * Buckets of one type, bounded by count and idle time.
+     * Resolving a bucket is lock-free; buckets idle longer than the timeout are
+     * swept out periodically, and the least recently used go first when full.
+     */
+    private static class BucketStore {
+        private final long idleTimeoutMs;
+        private final Supplier<Bucket> factory;
+        private final BoundedCache<Long, Bucket> entries;
+
+        BucketStore(int maxSize, long idleTimeoutMs, Supplier<Bucket> factory) {
+            this.idleTimeoutMs = idleTimeoutMs;
+            this.factory = factory;
+            this.entries = new BoundedCache<>(maxSize);
+        }
+
+        Bucket resolve(Long userId) {
+            return entries.getOrCreate(userId, factory, idleTimeoutMs);
+        }
+
+        int size() {
+            return entries.size();
+        }
+    }
 }
@@ -1,7 +1,10 @@
 package com.localcode.config;
 
+import com.localcode.security.AuthenticatedUser;
 import io.github.bucket4j.Bucket;
 import io.github.bucket4j.ConsumptionProbe;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.http.HttpStatus;
@@ -17,9 +20,19 @@ import org.springframework.web.servlet.HandlerInterceptor;
 public class RateLimitInterceptor implements HandlerInterceptor {
     
     private final RateLimitConfig rateLimitConfig;
+    private final Counter submissionRejectedCounter;
+    private final Counter apiRejectedCounter;
     
-    public RateLimitInterceptor(RateLimitConfig rateLimitConfig) {
+    public RateLimitInterceptor(RateLimitConfig rateLimitConfig, MeterRegistry meterRegistry) {
         this.rateLimitConfig = rateLimitConfig;
+        this.submissionRejectedCounter = Counter.builder("ratelimit.rejected")
+            .tag("type", "submission")
+            .description("Requests rejected by a rate limit bucket")
+            .register(meterRegistry);
+        this.apiRejectedCounter = Counter.builder("ratelimit.rejected")
+            .tag("type", "api")
+            .description("Requests rejected by a rate limit bucket")
+            .register(meterRegistry);
     }
     
     @Override
@@ -27,21 +40,22 @@ public class RateLimitInterceptor implements HandlerInterceptor {
         String path = request.getRequestURI();
         
         // Get user identifier
-        String userKey = getUserKey();
-        if (userKey == null) {
+        Long userId = getUserId();
+        if (userId == null) {
             // Allow unauthenticated requests (auth endpoints)
             return true;
         }
         
         // Apply stricter rate limit for submission endpoints
         if (path.startsWith("/api/submissions") && "POST".equals(request.getMethod())) {
-            Bucket bucket = rateLimitConfig.resolveSubmissionBucket(userKey);
+            Bucket bucket = rateLimitConfig.resolveSubmissionBucket(userId);
             ConsumptionProbe probe = bucket.tryConsumeAndReturnRemaining(1);
             
             if (probe.isConsumed()) {
                 response.addHeader("X-Rate-Limit-Remaining", String.valueOf(probe.getRemainingTokens()));
                 return true;
             } else {
+                submissionRejectedCounter.increment();
                 long waitForRefill = probe.getNanosToWaitForRefill() / 1_000_000_000;
                 response.addHeader("X-Rate-Limit-Retry-After-Seconds", String.valueOf(waitForRefill));
                 response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(), 
@@ -51,13 +65,14 @@ public class RateLimitInterceptor implements HandlerInterceptor {
         }
         
         // Apply general rate limit for all other API endpoints
-        Bucket bucket = rateLimitConfig.resolveApiBucket(userKey);
+        Bucket bucket = rateLimitConfig.resolveApiBucket(userId);
         ConsumptionProbe probe = bucket.tryConsumeAndReturnRemaining(1);
         
         if (probe.isConsumed()) {
             response.addHeader("X-Rate-Limit-Remaining", String.valueOf(probe.getRemainingTokens()));
             return true;
         } else {
+            apiRejectedCounter.increment();
             long waitForRefill = probe.getNanosToWaitForRefill() / 1_000_000_000;
             response.addHeader("X-Rate-Limit-Retry-After-Seconds", String.valueOf(waitForRefill));
             response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(), 
@@ -66,14 +81,14 @@ public class RateLimitInterceptor implements HandlerInterceptor {
         }
     }
     
-    private String getUserKey() {
+    private Long getUserId() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         
         if (authentication == null || !authentication.isAuthenticated() || 
-            "anonymousUser".equals(authentication.getPrincipal())) {
+            !(authentication.getPrincipal() instanceof AuthenticatedUser user)) {
             return null;
         }
         
-        return authentication.getName();
+        return user.getId();
     }
 }
@@ -17,6 +17,7 @@ public class ResourceLimits {
     private Long cpuPeriod = 100000L;  // 100ms period
     private Integer maxCodeSizeKb = 50;  // 50 KB max code size
     private Integer maxTestCaseSizeKb = 10;  // 10 KB max test case size
+    private Integer wallTimeGraceMs = 1000;  // Wall-clock allowance past the time limit before the program is killed
     
     // Constructors
     public ResourceLimits() {
@@ -78,4 +79,12 @@ public class ResourceLimits {
     public void setMaxTestCaseSizeKb(Integer maxTestCaseSizeKb) {
         this.maxTestCaseSizeKb = maxTestCaseSizeKb;
     }
+    
+    public Integer getWallTimeGraceMs() {
+        return wallTimeGraceMs;
+    }
+    
+    public void setWallTimeGraceMs(Integer wallTimeGraceMs) {
+        this.wallTimeGraceMs = wallTimeGraceMs;
+    }
 }
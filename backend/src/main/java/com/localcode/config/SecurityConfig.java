@@ -1,6 +1,7 @@
 package com.localcode.config;
 
 import com.localcode.security.JwtAuthenticationFilter;
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -71,6 +72,9 @@ public class SecurityConfig {
                 .requestMatchers("/actuator/health").permitAll()
                 .requestMatchers("/error").permitAll()
                 
+                // Async dispatches (SSE completion) belong to an already authorized request
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+                
                 // All other endpoints require authentication
                 .anyRequest().authenticated()
             )
@@ -0,0 +1,59 @@
+package com.localcode.config;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.util.Map;
+
+/**
+ * Startup check that the test result id sequence is ahead of every existing row.
+ *
+ * Test results take their ids from test_results_seq in blocks of 50. ddl-auto
+ * creates that sequence starting at 1 on a database whose test_results table
+ * already has IDENTITY ids, and the first evaluation would then collide with old
+ * rows. Startup fails instead until db/migration/test_results_sequence.sql has
+ * been run by hand (see the JPA section of application.properties). An empty table passes, and only PostgreSQL, which production uses,
+ * is checked.
+ */
+@Component
+@DependsOn("entityManagerFactory")  // Runs after Hibernate has created or updated the schema
+public class SequenceCheck {
+
+    private static final Logger logger = LoggerFactory.getLogger(SequenceCheck.class);
+
+    // Must match the allocationSize of TestResult's @SequenceGenerator
+    private static final long ALLOCATION_SIZE = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SequenceCheck(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void checkTestResultSequence() {
+        String database = jdbcTemplate.execute((Connection connection) -> connection.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equals(database)) {
+            logger.debug("Skipping test_results_seq check on {}", database);
+            return;
+        }
+
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM test_results", Long.class);
+        Map<String, Object> sequence = jdbcTemplate.queryForMap("SELECT last_value, is_called FROM test_results_seq");
+        long lastValue = ((Number) sequence.get("last_value")).longValue();
+        boolean called = Boolean.TRUE.equals(sequence.get("is_called"));
+
+        // The pooled optimizer hands out (hi - 50, hi] for each nextval; hi is last_value + 50 once called
+        long lowestNextId = (called ? lastValue + ALLOCATION_SIZE : lastValue) - ALLOCATION_SIZE + 1;
+        if (maxId > 0 && lowestNextId <= maxId) {
+            throw new IllegalStateException("test_results_seq would hand out id " + lowestNextId
+                + " but test_results already has ids up to " + maxId
+                + "; run db/migration/test_results_sequence.sql before starting the backend");
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.localcode.config;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Access to virtual threads without requiring a Java 21 compiler.
+ *
+ * The backend is built for Java 17, so {@code Thread.ofVirtual()} is looked up
+ * reflectively. On older runtimes {@link #factory(String)} returns null and
+ * callers keep their platform-thread factory.
+ */
+public final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * Whether the running JVM supports virtual threads.
+     *
+     * @return true on Java 21 or later
+     */
+    public static boolean isSupported() {
+        return Runtime.version().feature() >= 21;
+    }
+
+    /**
+     * Create a factory for virtual threads named {@code <prefix>1}, {@code <prefix>2}, ...
+     *
+     * @param namePrefix thread name prefix
+     * @return the factory, or null if virtual threads are not available
+     */
+    public static ThreadFactory factory(String namePrefix) {
+        if (!isSupported()) {
+            return null;
+        }
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Method name = builderClass.getMethod("name", String.class, long.class);
+            builder = name.invoke(builder, namePrefix, 1L);
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+}
@@ -1,5 +1,9 @@
 package com.localcode.config;
 
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
@@ -10,10 +14,29 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
     
+    private static final Logger logger = LoggerFactory.getLogger(WebConfig.class);
+    
     private final RateLimitInterceptor rateLimitInterceptor;
+    private final AdmissionControlInterceptor admissionControlInterceptor;
+    private final boolean virtualThreadsEnabled;
     
-    public WebConfig(RateLimitInterceptor rateLimitInterceptor) {
+    public WebConfig(RateLimitInterceptor rateLimitInterceptor,
+                     AdmissionControlInterceptor admissionControlInterceptor,
+                     @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreadsEnabled) {
         this.rateLimitInterceptor = rateLimitInterceptor;
+        this.admissionControlInterceptor = admissionControlInterceptor;
+        this.virtualThreadsEnabled = virtualThreadsEnabled;
+    }
+    
+    /**
+     * Spring Boot silently ignores spring.threads.virtual.enabled below Java 21, so say so.
+     */
+    @PostConstruct
+    public void checkVirtualThreads() {
+        if (virtualThreadsEnabled && !VirtualThreads.isSupported()) {
+            logger.warn("spring.threads.virtual.enabled is set but this JVM has no virtual threads, "
+                + "Tomcat keeps its platform thread pool");
+        }
     }
     
     @Override
@@ -21,5 +44,9 @@ public class WebConfig implements WebMvcConfigurer {
         registry.addInterceptor(rateLimitInterceptor)
                 .addPathPatterns("/api/**")
                 .excludePathPatterns("/api/auth/register", "/api/auth/login");
+        
+        // Runs after the per-user rate limit, only on endpoints that queue judge work
+        registry.addInterceptor(admissionControlInterceptor)
+                .addPathPatterns("/api/submissions", "/api/submissions/run");
     }
 }
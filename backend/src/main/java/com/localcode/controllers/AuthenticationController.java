@@ -5,6 +5,7 @@ import com.localcode.dto.LoginRequest;
 import com.localcode.dto.RegisterRequest;
 import com.localcode.dto.UserDTO;
 import com.localcode.persistence.entity.User;
+import com.localcode.security.AuthenticatedUser;
 import com.localcode.services.AuthenticationService;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
@@ -77,13 +78,14 @@ public class AuthenticationController {
         try {
             Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
             
-            if (authentication == null || !authentication.isAuthenticated()) {
+            if (authentication == null || !authentication.isAuthenticated()
+                    || !(authentication.getPrincipal() instanceof AuthenticatedUser principal)) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                         .body(new ErrorResponse("Not authenticated"));
             }
             
-            String username = authentication.getName();
-            User user = authenticationService.getUserByUsername(username);
+            // Served from the user cache; createdAt is not part of the token
+            User user = authenticationService.getUserById(principal.getId());
             UserDTO userDTO = UserDTO.fromEntity(user);
             
             return ResponseEntity.ok(userDTO);
@@ -4,8 +4,7 @@ import com.localcode.dto.CreateProblemRequest;
 import com.localcode.dto.ProblemDTO;
 import com.localcode.dto.ProblemDetailDTO;
 import com.localcode.dto.TestCaseDTO;
-import com.localcode.persistence.entity.User;
-import com.localcode.services.AuthenticationService;
+import com.localcode.security.AuthenticatedUser;
 import com.localcode.services.ProblemService;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
@@ -24,11 +23,9 @@ import java.util.List;
 public class ProblemController {
     
     private final ProblemService problemService;
-    private final AuthenticationService authenticationService;
     
-    public ProblemController(ProblemService problemService, AuthenticationService authenticationService) {
+    public ProblemController(ProblemService problemService) {
         this.problemService = problemService;
-        this.authenticationService = authenticationService;
     }
     
     /**
@@ -45,7 +42,7 @@ public class ProblemController {
             @RequestParam(required = false) String tags,
             @RequestParam(required = false) String search) {
         try {
-            User currentUser = getCurrentUser();
+            AuthenticatedUser currentUser = getCurrentUser();
             
             List<ProblemDTO> problems;
             
@@ -85,7 +82,7 @@ public class ProblemController {
     @GetMapping("/{id}")
     public ResponseEntity<?> getProblemById(@PathVariable Long id) {
         try {
-            User currentUser = getCurrentUser();
+            AuthenticatedUser currentUser = getCurrentUser();
             ProblemDetailDTO problem = problemService.getProblemById(id, currentUser.getId());
             return ResponseEntity.ok(problem);
         } catch (RuntimeException e) {
@@ -150,15 +147,15 @@ public class ProblemController {
      * @return the current user
      * @throws RuntimeException if user is not authenticated
      */
-    private User getCurrentUser() {
+    private AuthenticatedUser getCurrentUser() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         
-        if (authentication == null || !authentication.isAuthenticated()) {
+        if (authentication == null || !authentication.isAuthenticated()
+                || !(authentication.getPrincipal() instanceof AuthenticatedUser user)) {
             throw new RuntimeException("User not authenticated");
         }
         
-        String username = authentication.getName();
-        return authenticationService.getUserByUsername(username);
+        return user;
     }
     
     /**
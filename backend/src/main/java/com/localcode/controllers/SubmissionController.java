@@ -1,22 +1,33 @@
 package com.localcode.controllers;
 
 import com.localcode.dto.*;
+import com.localcode.exception.JudgeSaturatedException;
+import com.localcode.exception.ResourceNotFoundException;
+import com.localcode.exception.UnauthorizedException;
 import com.localcode.persistence.entity.SubmissionStatus;
-import com.localcode.persistence.entity.User;
-import com.localcode.services.AuthenticationService;
+import com.localcode.security.AuthenticatedUser;
 import com.localcode.services.EvaluationService;
+import com.localcode.services.JudgePriority;
+import com.localcode.services.JudgeScheduler;
+import com.localcode.services.RunJobStore;
+import com.localcode.services.SubmissionEventPublisher;
 import com.localcode.services.SubmissionService;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 /**
  * REST controller for submission management endpoints.
@@ -29,43 +40,88 @@ public class SubmissionController {
     
     private final SubmissionService submissionService;
     private final EvaluationService evaluationService;
-    private final AuthenticationService authenticationService;
+    private final JudgeScheduler judgeScheduler;
+    private final SubmissionEventPublisher submissionEventPublisher;
+    private final RunJobStore runJobStore;
+    private final long maxRunPollWaitMs;
     
     public SubmissionController(SubmissionService submissionService,
                                EvaluationService evaluationService,
-                               AuthenticationService authenticationService) {
+                               JudgeScheduler judgeScheduler,
+                               SubmissionEventPublisher submissionEventPublisher,
+                               RunJobStore runJobStore,
+                               @Value("${run.jobs.max-poll-wait-ms:20000}") long maxRunPollWaitMs) {
         this.submissionService = submissionService;
         this.evaluationService = evaluationService;
-        this.authenticationService = authenticationService;
+        this.judgeScheduler = judgeScheduler;
+        this.submissionEventPublisher = submissionEventPublisher;
+        this.runJobStore = runJobStore;
+        this.maxRunPollWaitMs = maxRunPollWaitMs;
     }
     
     /**
      * Run code against sample test cases only (no submission created).
      * This is for testing/debugging before submitting.
+     * With async=true the run is queued and a job handle is returned right away;
+     * the result is fetched from GET /api/submissions/run/{jobId}.
      *
      * @param request the run request (same as submission request)
-     * @return ResponseEntity with test results for sample cases only
+     * @param async whether to return a job handle instead of waiting for the result
+     * @return ResponseEntity with test results for sample cases only, or the run job (202)
      */
     @PostMapping("/run")
-    public ResponseEntity<?> runCode(@Valid @RequestBody SubmissionRequest request) {
+    public ResponseEntity<?> runCode(@Valid @RequestBody SubmissionRequest request,
+                                     @RequestParam(defaultValue = "false") boolean async) {
         try {
-            User currentUser = getCurrentUser();
+            AuthenticatedUser currentUser = getCurrentUser();
             
             logger.info("Running code for problem {} by user {}", request.getProblemId(), currentUser.getUsername());
             
-            // Run against sample test cases only (no submission created)
-            RunResult result = evaluationService.runAgainstSampleCases(
-                request.getProblemId(),
-                request.getCode(),
-                request.getLanguage(),
-                currentUser.getId()
-            );
+            // Run against sample test cases only (no submission created).
+            // Runs on the interactive lane so it is picked ahead of queued submissions.
+            // An identical recent run is answered from the run cache without queueing.
+            Long userId = currentUser.getId();
+            RunResult cachedRun = evaluationService.getCachedRun(
+                request.getProblemId(), request.getCode(), request.getLanguage());
+            CompletableFuture<RunResult> future = cachedRun != null
+                ? CompletableFuture.completedFuture(cachedRun)
+                : judgeScheduler.submit(JudgePriority.INTERACTIVE, () ->
+                    evaluationService.runAgainstSampleCases(
+                        request.getProblemId(),
+                        request.getCode(),
+                        request.getLanguage(),
+                        userId
+                    )
+                );
+            
+            if (async) {
+                RunJobStore.RunJob job = runJobStore.create(userId, future);
+                logger.info("Run queued for problem {}: job {}", request.getProblemId(), job.getId());
+                return ResponseEntity.status(HttpStatus.ACCEPTED).body(job.toDTO());
+            }
+            
+            RunResult result = future.get();
             
             logger.info("Run completed for problem {}: {}/{} passed", 
                 request.getProblemId(), result.getPassedCount(), result.getTotalCount());
             
             return ResponseEntity.ok(result);
             
+        } catch (JudgeSaturatedException e) {
+            return saturatedResponse(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IllegalArgumentException) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                        .body(new ErrorResponse(cause.getMessage()));
+            }
+            logger.error("Error running code", cause);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ErrorResponse("Failed to run code: " + cause.getMessage()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(new ErrorResponse("Run was interrupted"));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .body(new ErrorResponse(e.getMessage()));
@@ -76,6 +132,38 @@ public class SubmissionController {
         }
     }
     
+    /**
+     * Get the state of an asynchronous run job (long-poll).
+     * While the job is pending the request is held, without a worker thread, for up
+     * to waitMs; it answers as soon as the job finishes, or with status PENDING on timeout.
+     *
+     * @param jobId the run job ID
+     * @param waitMs how long to wait for the job to finish (0 returns immediately)
+     * @return the run job, or 404 if unknown or expired
+     */
+    @GetMapping("/run/{jobId}")
+    public CompletableFuture<ResponseEntity<?>> getRunJob(@PathVariable String jobId,
+                                                          @RequestParam(defaultValue = "0") long waitMs) {
+        AuthenticatedUser currentUser = getCurrentUser();
+        
+        RunJobStore.RunJob job = runJobStore.get(jobId, currentUser.getId());
+        if (job == null) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(new ErrorResponse("Run job not found: " + jobId)));
+        }
+        
+        long wait = Math.min(Math.max(waitMs, 0), maxRunPollWaitMs);
+        if (wait == 0 || job.getFuture().isDone()) {
+            return CompletableFuture.completedFuture(ResponseEntity.ok(job.toDTO()));
+        }
+        
+        // Derived future, so a poll timing out never touches the run itself
+        return job.getFuture()
+                .handle((result, error) -> job.toDTO())
+                .completeOnTimeout(job.toDTO(), wait, TimeUnit.MILLISECONDS)
+                .thenApply(ResponseEntity::ok);
+    }
+    
     /**
      * Submit a solution for evaluation.
      * Creates a submission and triggers asynchronous evaluation against ALL test cases.
@@ -86,24 +174,40 @@ public class SubmissionController {
     @PostMapping
     public ResponseEntity<?> submitSolution(@Valid @RequestBody SubmissionRequest request) {
         try {
-            User currentUser = getCurrentUser();
+            AuthenticatedUser currentUser = getCurrentUser();
+            
+            // Reserve a judge slot first so a full queue doesn't leave a PENDING submission behind
+            JudgeScheduler.Reservation reservation = judgeScheduler.reserve(JudgePriority.SUBMISSION);
             
             // Create submission
-            SubmissionDTO submission = submissionService.createSubmission(request, currentUser.getId());
+            SubmissionDTO submission;
+            try {
+                submission = submissionService.createSubmission(request, currentUser.getId());
+            } catch (RuntimeException e) {
+                reservation.cancel();
+                throw e;
+            }
             
-            // Trigger evaluation asynchronously
-            CompletableFuture.runAsync(() -> {
+            // Trigger evaluation asynchronously on the judge scheduler
+            reservation.submit(() -> {
                 try {
                     evaluationService.evaluate(submission.getId());
                 } catch (Exception e) {
                     logger.error("Error evaluating submission: {}", submission.getId(), e);
+                    submissionEventPublisher.publishError(submission.getId(), e.getMessage());
                 }
+                return null;
             });
             
-            logger.info("Submission created and evaluation triggered: {}", submission.getId());
+            logger.info("Submission created and evaluation queued: {}", submission.getId());
             
             return ResponseEntity.status(HttpStatus.CREATED).body(submission);
             
+        } catch (JudgeSaturatedException e) {
+            return saturatedResponse(e);
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(new ErrorResponse(e.getMessage()));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .body(new ErrorResponse(e.getMessage()));
@@ -123,7 +227,7 @@ public class SubmissionController {
     @GetMapping
     public ResponseEntity<?> getUserSubmissions(@RequestParam(required = false) String status) {
         try {
-            User currentUser = getCurrentUser();
+            AuthenticatedUser currentUser = getCurrentUser();
             
             SubmissionStatus statusEnum = null;
             if (status != null && !status.isEmpty()) {
@@ -158,7 +262,7 @@ public class SubmissionController {
     @GetMapping("/{id}")
     public ResponseEntity<?> getSubmissionById(@PathVariable Long id) {
         try {
-            User currentUser = getCurrentUser();
+            AuthenticatedUser currentUser = getCurrentUser();
             
             SubmissionDetailDTO submission = submissionService.getSubmissionById(id, currentUser.getId());
             
@@ -178,6 +282,41 @@ public class SubmissionController {
         }
     }
     
+    /**
+     * Stream live progress of a submission as Server-Sent Events.
+     * Sends a "progress" event per finished test case and a final "verdict" event
+     * with the same body as GET /api/submissions/{id}, then closes the stream.
+     * If the submission is already evaluated the verdict is sent right away.
+     *
+     * @param id the submission ID
+     * @return ResponseEntity with the event stream
+     */
+    @GetMapping("/{id}/events")
+    public ResponseEntity<?> streamSubmissionEvents(@PathVariable Long id) {
+        try {
+            AuthenticatedUser currentUser = getCurrentUser();
+            
+            // Ownership check before opening the stream
+            submissionService.getSubmissionStatus(id, currentUser.getId());
+            
+            // Subscribe first, then re-check, so a verdict published in between is not missed
+            SseEmitter emitter = submissionEventPublisher.subscribe(id);
+            if (submissionService.getSubmissionStatus(id, currentUser.getId()) != SubmissionStatus.PENDING) {
+                submissionEventPublisher.publishVerdict(id, submissionService.getSubmissionById(id, currentUser.getId()));
+            }
+            
+            return ResponseEntity.ok(emitter);
+            
+        } catch (UnauthorizedException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(new ErrorResponse(e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error opening event stream for submission: {}", id, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ErrorResponse("Failed to open event stream: " + e.getMessage()));
+        }
+    }
+    
     /**
      * Get user statistics including solved and attempted problems.
      *
@@ -186,7 +325,7 @@ public class SubmissionController {
     @GetMapping("/stats")
     public ResponseEntity<?> getUserStats() {
         try {
-            User currentUser = getCurrentUser();
+            AuthenticatedUser currentUser = getCurrentUser();
             
             UserStatsDTO stats = submissionService.getUserStats(currentUser.getId());
             
@@ -199,21 +338,33 @@ public class SubmissionController {
         }
     }
     
+    /**
+     * Build a 503 response telling the client when to retry.
+     *
+     * @param e the saturation exception
+     * @return ResponseEntity with Retry-After header
+     */
+    private ResponseEntity<?> saturatedResponse(JudgeSaturatedException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(new ErrorResponse(e.getMessage()));
+    }
+    
     /**
      * Get the current authenticated user.
      *
      * @return the current user
      * @throws RuntimeException if user is not authenticated
      */
-    private User getCurrentUser() {
+    private AuthenticatedUser getCurrentUser() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         
-        if (authentication == null || !authentication.isAuthenticated()) {
+        if (authentication == null || !authentication.isAuthenticated()
+                || !(authentication.getPrincipal() instanceof AuthenticatedUser user)) {
             throw new RuntimeException("User not authenticated");
         }
         
-        String username = authentication.getName();
-        return authenticationService.getUserByUsername(username);
+        return user;
     }
     
     /**
@@ -2,8 +2,7 @@ package com.localcode.controllers;
 
 import com.localcode.dto.CustomTestCaseDTO;
 import com.localcode.dto.CustomTestCaseRequest;
-import com.localcode.persistence.entity.User;
-import com.localcode.services.AuthenticationService;
+import com.localcode.security.AuthenticatedUser;
 import com.localcode.services.TestCaseService;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
@@ -22,11 +21,9 @@ import java.util.List;
 public class TestCaseController {
     
     private final TestCaseService testCaseService;
-    private final AuthenticationService authenticationService;
     
-    public TestCaseController(TestCaseService testCaseService, AuthenticationService authenticationService) {
+    public TestCaseController(TestCaseService testCaseService) {
         this.testCaseService = testCaseService;
-        this.authenticationService = authenticationService;
     }
     
     /**
@@ -41,7 +38,7 @@ public class TestCaseController {
             @PathVariable Long problemId,
             @Valid @RequestBody CustomTestCaseRequest request) {
         try {
-            User currentUser = getCurrentUser();
+            AuthenticatedUser currentUser = getCurrentUser();
             CustomTestCaseDTO testCase = testCaseService.addCustomTestCase(problemId, currentUser.getId(), request);
             return ResponseEntity.status(HttpStatus.CREATED).body(testCase);
         } catch (RuntimeException e) {
@@ -67,7 +64,7 @@ public class TestCaseController {
     @GetMapping("/problems/{problemId}/testcases/custom")
     public ResponseEntity<?> getCustomTestCases(@PathVariable Long problemId) {
         try {
-            User currentUser = getCurrentUser();
+            AuthenticatedUser currentUser = getCurrentUser();
             List<CustomTestCaseDTO> testCases = testCaseService.getCustomTestCases(problemId, currentUser.getId());
             return ResponseEntity.ok(testCases);
         } catch (RuntimeException e) {
@@ -92,7 +89,7 @@ public class TestCaseController {
             @PathVariable Long id,
             @Valid @RequestBody CustomTestCaseRequest request) {
         try {
-            User currentUser = getCurrentUser();
+            AuthenticatedUser currentUser = getCurrentUser();
             CustomTestCaseDTO testCase = testCaseService.updateCustomTestCase(id, currentUser.getId(), request);
             return ResponseEntity.ok(testCase);
         } catch (RuntimeException e) {
@@ -118,7 +115,7 @@ public class TestCaseController {
     @DeleteMapping("/testcases/{id}")
     public ResponseEntity<?> deleteCustomTestCase(@PathVariable Long id) {
         try {
-            User currentUser = getCurrentUser();
+            AuthenticatedUser currentUser = getCurrentUser();
             testCaseService.deleteCustomTestCase(id, currentUser.getId());
             return ResponseEntity.noContent().build();
         } catch (RuntimeException e) {
@@ -137,15 +134,15 @@ public class TestCaseController {
      * @return the current user
      * @throws RuntimeException if user is not authenticated
      */
-    private User getCurrentUser() {
+    private AuthenticatedUser getCurrentUser() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         
-        if (authentication == null || !authentication.isAuthenticated()) {
+        if (authentication == null || !authentication.isAuthenticated()
+                || !(authentication.getPrincipal() instanceof AuthenticatedUser user)) {
             throw new RuntimeException("User not authenticated");
         }
         
-        String username = authentication.getName();
-        return authenticationService.getUserByUsername(username);
+        return user;
     }
     
     /**
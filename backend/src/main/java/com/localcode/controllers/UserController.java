@@ -1,8 +1,7 @@
 package com.localcode.controllers;
 
 import com.localcode.dto.UserStatsDTO;
-import com.localcode.persistence.entity.User;
-import com.localcode.services.AuthenticationService;
+import com.localcode.security.AuthenticatedUser;
 import com.localcode.services.UserStatsService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -21,12 +20,9 @@ public class UserController {
     private static final Logger logger = LoggerFactory.getLogger(UserController.class);
     
     private final UserStatsService userStatsService;
-    private final AuthenticationService authenticationService;
     
-    public UserController(UserStatsService userStatsService,
-                         AuthenticationService authenticationService) {
+    public UserController(UserStatsService userStatsService) {
         this.userStatsService = userStatsService;
-        this.authenticationService = authenticationService;
     }
     
     /**
@@ -36,7 +32,7 @@ public class UserController {
      */
     @GetMapping("/stats")
     public ResponseEntity<UserStatsDTO> getUserStats() {
-        User currentUser = getCurrentUser();
+        AuthenticatedUser currentUser = getCurrentUser();
         logger.info("Fetching stats for user: {}", currentUser.getId());
         
         UserStatsDTO stats = userStatsService.getUserStats(currentUser.getId());
@@ -48,9 +44,8 @@ public class UserController {
      *
      * @return the current user
      */
-    private User getCurrentUser() {
+    private AuthenticatedUser getCurrentUser() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String username = authentication.getName();
-        return authenticationService.getUserByUsername(username);
+        return (AuthenticatedUser) authentication.getPrincipal();
     }
 }
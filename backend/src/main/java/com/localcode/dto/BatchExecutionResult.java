@@ -0,0 +1,38 @@
+package com.localcode.dto;
+
+import java.util.List;
+
+/**
+ * DTO for the result of running one piece of code against several inputs
+ * inside a single container.
+ */
+public class BatchExecutionResult {
+    private List<ExecutionResult> results;
+    private Long totalTimeMs;
+    
+    // Constructors
+    public BatchExecutionResult() {
+    }
+    
+    public BatchExecutionResult(List<ExecutionResult> results, Long totalTimeMs) {
+        this.results = results;
+        this.totalTimeMs = totalTimeMs;
+    }
+    
+    // Getters and Setters
+    public List<ExecutionResult> getResults() {
+        return results;
+    }
+    
+    public void setResults(List<ExecutionResult> results) {
+        this.results = results;
+    }
+    
+    public Long getTotalTimeMs() {
+        return totalTimeMs;
+    }
+    
+    public void setTotalTimeMs(Long totalTimeMs) {
+        this.totalTimeMs = totalTimeMs;
+    }
+}
@@ -8,6 +8,8 @@ public class ExecutionResult {
     private String output;
     private String errorMessage;
     private ResourceMetrics metrics;
+    private Integer exitCode;
+    private String stderr;
     
     // Constructors
     public ExecutionResult() {
@@ -52,4 +54,20 @@ public class ExecutionResult {
     public void setMetrics(ResourceMetrics metrics) {
         this.metrics = metrics;
     }
+    
+    public Integer getExitCode() {
+        return exitCode;
+    }
+    
+    public void setExitCode(Integer exitCode) {
+        this.exitCode = exitCode;
+    }
+    
+    public String getStderr() {
+        return stderr;
+    }
+    
+    public void setStderr(String stderr) {
+        this.stderr = stderr;
+    }
 }
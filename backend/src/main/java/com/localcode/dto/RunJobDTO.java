@@ -0,0 +1,61 @@
+package com.localcode.dto;
+
+/**
+ * DTO for an asynchronous run job.
+ * Status is PENDING until the run finishes, then COMPLETED (with result) or FAILED (with errorMessage).
+ */
+public class RunJobDTO {
+
+    public static final String PENDING = "PENDING";
+    public static final String COMPLETED = "COMPLETED";
+    public static final String FAILED = "FAILED";
+
+    private String jobId;
+    private String status;
+    private RunResult result;
+    private String errorMessage;
+
+    // Constructors
+    public RunJobDTO() {
+    }
+
+    public RunJobDTO(String jobId, String status, RunResult result, String errorMessage) {
+        this.jobId = jobId;
+        this.status = status;
+        this.result = result;
+        this.errorMessage = errorMessage;
+    }
+
+    // Getters and Setters
+    public String getJobId() {
+        return jobId;
+    }
+
+    public void setJobId(String jobId) {
+        this.jobId = jobId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public RunResult getResult() {
+        return result;
+    }
+
+    public void setResult(RunResult result) {
+        this.result = result;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public void setErrorMessage(String errorMessage) {
+        this.errorMessage = errorMessage;
+    }
+}
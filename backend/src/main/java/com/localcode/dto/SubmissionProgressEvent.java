@@ -0,0 +1,56 @@
+package com.localcode.dto;
+
+/**
+ * DTO for a live progress event of a submission being evaluated.
+ * Sent once per finished test case, before the final verdict.
+ */
+public class SubmissionProgressEvent {
+    private Long submissionId;
+    private Integer index;
+    private Integer totalTests;
+    private TestResultDTO testResult;
+    
+    // Constructors
+    public SubmissionProgressEvent() {
+    }
+    
+    public SubmissionProgressEvent(Long submissionId, Integer index, Integer totalTests, TestResultDTO testResult) {
+        this.submissionId = submissionId;
+        this.index = index;
+        this.totalTests = totalTests;
+        this.testResult = testResult;
+    }
+    
+    // Getters and Setters
+    public Long getSubmissionId() {
+        return submissionId;
+    }
+    
+    public void setSubmissionId(Long submissionId) {
+        this.submissionId = submissionId;
+    }
+    
+    public Integer getIndex() {
+        return index;
+    }
+    
+    public void setIndex(Integer index) {
+        this.index = index;
+    }
+    
+    public Integer getTotalTests() {
+        return totalTests;
+    }
+    
+    public void setTotalTests(Integer totalTests) {
+        this.totalTests = totalTests;
+    }
+    
+    public TestResultDTO getTestResult() {
+        return testResult;
+    }
+    
+    public void setTestResult(TestResultDTO testResult) {
+        this.testResult = testResult;
+    }
+}
@@ -3,6 +3,7 @@ package com.localcode.exception;
 import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -110,6 +111,27 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorResponse, HttpStatus.INTERNAL_SERVER_ERROR);
     }
     
+    /**
+     * Handle JudgeSaturatedException (503)
+     */
+    @ExceptionHandler(JudgeSaturatedException.class)
+    public ResponseEntity<ErrorResponse> handleJudgeSaturatedException(
+            JudgeSaturatedException ex, HttpServletRequest request) {
+        
+        logger.warn("Judge saturated: {} - Path: {}", ex.getMessage(), request.getRequestURI());
+        
+        ErrorResponse errorResponse = new ErrorResponse(
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                "Service Unavailable",
+                ex.getMessage(),
+                request.getRequestURI()
+        );
+        
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(errorResponse);
+    }
+    
     /**
      * Handle Spring Security AuthenticationException (401)
      */
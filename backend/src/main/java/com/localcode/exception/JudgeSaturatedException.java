@@ -0,0 +1,19 @@
+package com.localcode.exception;
+
+/**
+ * Exception thrown when the judge cannot accept more work right now.
+ * This typically results in a 503 HTTP status code with a Retry-After header.
+ */
+public class JudgeSaturatedException extends RuntimeException {
+    
+    private final long retryAfterSeconds;
+    
+    public JudgeSaturatedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+    
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -9,8 +9,10 @@ import jakarta.persistence.*;
 @Table(name = "test_results")
 public class TestResult {
     
+    // Sequence ids (fetched 50 at a time) let Hibernate batch the inserts of one evaluation
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "test_results_seq")
+    @SequenceGenerator(name = "test_results_seq", sequenceName = "test_results_seq", allocationSize = 50)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
@@ -86,6 +86,24 @@ public interface SubmissionRepository extends JpaRepository<Submission, Long> {
     @Query("SELECT DISTINCT s.problem.id FROM Submission s WHERE s.user.id = :userId")
     List<Long> findAttemptedProblemIdsByUserId(@Param("userId") Long userId);
     
+    /**
+     * Count a user's submissions per problem in one grouped query.
+     *
+     * @param userId the user ID
+     * @return rows of [problem ID, submission count], one per attempted problem
+     */
+    @Query("SELECT s.problem.id, COUNT(s) FROM Submission s WHERE s.user.id = :userId GROUP BY s.problem.id")
+    List<Object[]> countSubmissionsPerProblemByUserId(@Param("userId") Long userId);
+    
+    /**
+     * Count a user's submissions for a specific problem.
+     *
+     * @param userId the user ID
+     * @param problemId the problem ID
+     * @return number of submissions
+     */
+    long countByUserIdAndProblemId(Long userId, Long problemId);
+    
     /**
      * Check if a user has an accepted submission for a specific problem.
      *
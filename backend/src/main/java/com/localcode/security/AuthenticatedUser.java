@@ -0,0 +1,43 @@
+package com.localcode.security;
+
+import java.security.Principal;
+
+/**
+ * Principal for a request authenticated with a JWT.
+ * Carries the user ID and username from the token claims, so controllers
+ * don't need to load the user from the database to know who is calling.
+ */
+public class AuthenticatedUser implements Principal {
+
+    private final Long id;
+    private final String username;
+    private final String email;
+
+    public AuthenticatedUser(Long id, String username, String email) {
+        this.id = id;
+        this.username = username;
+        this.email = email;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    @Override
+    public String getName() {
+        return username;
+    }
+
+    @Override
+    public String toString() {
+        return username;
+    }
+}
@@ -9,14 +9,14 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.ArrayList;
+import java.util.Collections;
 
 /**
  * JWT authentication filter that validates tokens on each request.
@@ -39,29 +39,22 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             String jwt = getJwtFromRequest(request);
             
             if (StringUtils.hasText(jwt)) {
-                // Validate token and extract username
-                String username = authenticationService.getUsernameFromToken(jwt);
-                
-                // Load user details
-                UserDetails userDetails = new org.springframework.security.core.userdetails.User(
-                    username, 
-                    "", 
-                    new ArrayList<>()
-                );
+                // Validate token and build the principal from its claims (no user lookup)
+                AuthenticatedUser principal = authenticationService.authenticate(jwt);
                 
                 // Create authentication token
                 UsernamePasswordAuthenticationToken authentication = 
                     new UsernamePasswordAuthenticationToken(
-                        userDetails, 
+                        principal, 
                         null, 
-                        userDetails.getAuthorities()
+                        Collections.emptyList()
                     );
                 authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 
                 // Set authentication in security context
                 SecurityContextHolder.getContext().setAuthentication(authentication);
             }
-        } catch (JwtException ex) {
+        } catch (JwtException | UsernameNotFoundException ex) {
             logger.error("Could not set user authentication in security context", ex);
         }
         
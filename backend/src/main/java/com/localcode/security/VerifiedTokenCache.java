@@ -0,0 +1,62 @@
+package com.localcode.security;
+
+import com.localcode.services.BoundedCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Bounded cache of already verified JWTs.
+ *
+ * Maps the SHA-256 digest of a token to the principal built from its claims, so
+ * a client resending the same token skips signature verification and JSON
+ * parsing. An entry is only returned until the token's own expiry, and least
+ * recently used entries are evicted once the cache is full.
+ *
+ * Tokens are stateless and the application has no logout or revocation, so a
+ * cached token stays valid exactly as long as its signature would: until its
+ * expiry. Adding revocation means removing the token's entry here as well.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private final BoundedCache<String, AuthenticatedUser> entries;
+
+    public VerifiedTokenCache(@Value("${jwt.cache.max-size:10000}") int maxSize) {
+        this.entries = new BoundedCache<>(maxSize);
+    }
+
+    /**
+     * Get the principal of a token verified earlier.
+     *
+     * @param token the raw JWT
+     * @return the principal, or null if the token is not cached or has expired
+     */
+    public AuthenticatedUser get(String token) {
+        return entries.get(digest(token));
+    }
+
+    /**
+     * Remember a verified token until it expires.
+     *
+     * @param token the raw JWT
+     * @param principal the principal built from its claims
+     * @param expiresAt token expiry in epoch milliseconds
+     */
+    public void put(String token, AuthenticatedUser principal, long expiresAt) {
+        entries.putUntil(digest(token), principal, expiresAt);
+    }
+
+    private static String digest(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
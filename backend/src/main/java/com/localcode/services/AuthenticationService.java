@@ -7,7 +7,10 @@ import com.localcode.dto.UserDTO;
 import com.localcode.exception.ValidationException;
 import com.localcode.persistence.entity.User;
 import com.localcode.persistence.repository.UserRepository;
+import com.localcode.security.AuthenticatedUser;
+import com.localcode.security.VerifiedTokenCache;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
@@ -29,18 +32,27 @@ import java.util.Date;
 public class AuthenticationService {
     
     private final UserRepository userRepository;
+    private final UserCache userCache;
     private final PasswordEncoder passwordEncoder;
+    private final VerifiedTokenCache verifiedTokenCache;
     private final SecretKey jwtSecretKey;
+    private final JwtParser jwtParser;
     private final long jwtExpiration;
     
     public AuthenticationService(
             UserRepository userRepository,
+            UserCache userCache,
+            VerifiedTokenCache verifiedTokenCache,
             PasswordEncoder passwordEncoder,
             @Value("${jwt.secret}") String jwtSecret,
             @Value("${jwt.expiration}") long jwtExpiration) {
         this.userRepository = userRepository;
+        this.userCache = userCache;
         this.passwordEncoder = passwordEncoder;
+        this.verifiedTokenCache = verifiedTokenCache;
         this.jwtSecretKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        // The parser is immutable and thread-safe, so build it once
+        this.jwtParser = Jwts.parser().verifyWith(jwtSecretKey).build();
         this.jwtExpiration = jwtExpiration;
     }
     
@@ -93,6 +105,7 @@ public class AuthenticationService {
         
         // Generate JWT token
         String token = generateToken(user);
+        userCache.put(user);
         
         // Create response
         UserDTO userDTO = UserDTO.fromEntity(user);
@@ -127,11 +140,7 @@ public class AuthenticationService {
      * @throws io.jsonwebtoken.JwtException if token is invalid or expired
      */
     public Claims validateToken(String token) {
-        return Jwts.parser()
-                .verifyWith(jwtSecretKey)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return jwtParser.parseSignedClaims(token).getPayload();
     }
     
     /**
@@ -156,6 +165,39 @@ public class AuthenticationService {
         return claims.get("userId", Long.class);
     }
     
+    /**
+     * Validate JWT token and build the request principal from its claims.
+     * Tokens verified before are served from the verified-token cache until they expire.
+     * Tokens without a userId claim fall back to looking the user up by username.
+     *
+     * @param token the JWT token
+     * @return the authenticated user
+     * @throws io.jsonwebtoken.JwtException if token is invalid or expired
+     */
+    public AuthenticatedUser authenticate(String token) {
+        AuthenticatedUser cached = verifiedTokenCache.get(token);
+        if (cached != null) {
+            return cached;
+        }
+        
+        Claims claims = validateToken(token);
+        AuthenticatedUser principal;
+        Long userId = claims.get("userId", Long.class);
+        if (userId == null) {
+            User user = getUserByUsername(claims.getSubject());
+            userCache.put(user);
+            principal = new AuthenticatedUser(user.getId(), user.getUsername(), user.getEmail());
+        } else {
+            principal = new AuthenticatedUser(userId, claims.getSubject(), claims.get("email", String.class));
+        }
+        
+        // Tokens without an expiry are verified every time rather than cached forever
+        if (claims.getExpiration() != null) {
+            verifiedTokenCache.put(token, principal, claims.getExpiration().getTime());
+        }
+        return principal;
+    }
+    
     /**
      * Get user by username.
      *
@@ -170,15 +212,14 @@ public class AuthenticationService {
     }
     
     /**
-     * Get user by ID.
+     * Get user by ID, served from the user cache when possible.
      *
      * @param userId the user ID
      * @return User entity
      * @throws UsernameNotFoundException if user not found
      */
-    @Transactional(readOnly = true)
     public User getUserById(Long userId) {
-        return userRepository.findById(userId)
+        return userCache.get(userId)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with ID: " + userId));
     }
 }
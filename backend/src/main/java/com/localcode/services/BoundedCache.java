@@ -0,0 +1,310 @@
+package com.localcode.services;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Concurrent in-memory cache bounded by entry count and total weight, shared by the
+ * application's caches instead of each keeping its own synchronized LRU map.
+ *
+ * Reads and writes go straight to a {@link ConcurrentHashMap} and never take a lock.
+ * Every entry carries an expiry time and the time it was last read. Once a write takes
+ * the cache over a bound, one thread evicts expired entries first and then the least
+ * recently read ones, down to slightly below the bound so the next writes don't evict
+ * again right away. Expired entries are also swept out periodically, on the first write
+ * after the sweep interval has passed, so a cache that never fills up still frees them.
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+public class BoundedCache<K, V> {
+
+    /** Expiry of entries that only leave the cache through eviction or removal */
+    public static final long NO_EXPIRY = Long.MAX_VALUE;
+
+    private static final long SWEEP_INTERVAL_MS = 60_000;
+
+    private final int maxEntries;
+    private final long maxWeight;
+    private final ToLongFunction<? super V> weigher;
+
+    private final ConcurrentHashMap<K, Node<V>> entries = new ConcurrentHashMap<>();
+    private final AtomicLong totalWeight = new AtomicLong();
+    private final ReentrantLock maintenanceLock = new ReentrantLock();
+    private volatile long nextSweepAt = System.currentTimeMillis() + SWEEP_INTERVAL_MS;
+
+    /**
+     * Cache bounded by entry count only.
+     *
+     * @param maxEntries maximum number of entries
+     */
+    public BoundedCache(int maxEntries) {
+        this(maxEntries, Long.MAX_VALUE, value -> 0);
+    }
+
+    /**
+     * Cache bounded by entry count and total weight.
+     *
+     * @param maxEntries maximum number of entries
+     * @param maxWeight maximum total weight; a single value heavier than this is never stored
+     * @param weigher weight of a value, e.g. its estimated size in bytes
+     */
+    public BoundedCache(int maxEntries, long maxWeight, ToLongFunction<? super V> weigher) {
+        this.maxEntries = maxEntries;
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+    }
+
+    /**
+     * Get a value.
+     *
+     * @param key the key
+     * @return the value, or null if it is absent or has expired
+     */
+    public V get(K key) {
+        Node<V> node = entries.get(key);
+        if (node == null) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        if (node.expiresAt <= now) {
+            removeNode(key, node);
+            return null;
+        }
+        node.lastAccess = System.nanoTime();
+        return node.value;
+    }
+
+    /**
+     * Get a value, creating it if it is absent or has expired, and push its expiry back
+     * by the idle timeout. Values read this way expire after being idle that long.
+     *
+     * @param key the key
+     * @param factory creates the value on a miss
+     * @param idleTimeoutMs how long the value is kept without being read
+     * @return the current value
+     */
+    public V getOrCreate(K key, Supplier<? extends V> factory, long idleTimeoutMs) {
+        long now = System.currentTimeMillis();
+        Node<V> node = entries.get(key);
+        if (node == null || node.expiresAt <= now) {
+            boolean[] created = new boolean[1];
+            node = entries.compute(key, (k, current) -> {
+                if (current != null && current.expiresAt > now) {
+                    return current;
+                }
+                if (current != null) {
+                    totalWeight.addAndGet(-current.weight);
+                }
+                V value = factory.get();
+                Node<V> fresh = new Node<>(value, weigher.applyAsLong(value), expiresAt(now, idleTimeoutMs));
+                totalWeight.addAndGet(fresh.weight);
+                created[0] = true;
+                return fresh;
+            });
+            if (created[0]) {
+                maintain(now);
+            }
+        }
+        node.expiresAt = expiresAt(now, idleTimeoutMs);
+        node.lastAccess = System.nanoTime();
+        return node.value;
+    }
+
+    /**
+     * Store a value that expires a fixed time after being written.
+     *
+     * @param key the key
+     * @param value the value
+     * @param ttlMs time to live, or {@link #NO_EXPIRY}
+     */
+    public void put(K key, V value, long ttlMs) {
+        long now = System.currentTimeMillis();
+        putUntil(key, value, expiresAt(now, ttlMs));
+    }
+
+    /**
+     * Store a value that expires at a given time.
+     *
+     * @param key the key
+     * @param value the value
+     * @param expiresAt expiry in epoch milliseconds
+     */
+    public void putUntil(K key, V value, long expiresAt) {
+        Node<V> node = new Node<>(value, weigher.applyAsLong(value), expiresAt);
+        if (node.weight > maxWeight) {
+            return;
+        }
+        Node<V> previous = entries.put(key, node);
+        totalWeight.addAndGet(node.weight - (previous != null ? previous.weight : 0));
+        maintain(System.currentTimeMillis());
+    }
+
+    /**
+     * Store a value unless a live one is already present.
+     *
+     * @param key the key
+     * @param value the value
+     * @param ttlMs time to live, or {@link #NO_EXPIRY}
+     * @return the value now in the cache
+     */
+    public V putIfAbsent(K key, V value, long ttlMs) {
+        long now = System.currentTimeMillis();
+        Node<V> node = new Node<>(value, weigher.applyAsLong(value), expiresAt(now, ttlMs));
+        if (node.weight > maxWeight) {
+            return value;
+        }
+        Node<V> current = entries.compute(key, (k, existing) -> {
+            if (existing != null && existing.expiresAt > now) {
+                return existing;
+            }
+            totalWeight.addAndGet(node.weight - (existing != null ? existing.weight : 0));
+            return node;
+        });
+        if (current == node) {
+            maintain(now);
+        }
+        return current.value;
+    }
+
+    /**
+     * Remove a value.
+     *
+     * @param key the key
+     */
+    public void remove(K key) {
+        Node<V> node = entries.remove(key);
+        if (node != null) {
+            totalWeight.addAndGet(-node.weight);
+        }
+    }
+
+    /**
+     * Remove every value whose key matches.
+     *
+     * @param filter selects the keys to remove
+     * @return number of values removed
+     */
+    public int removeIf(Predicate<? super K> filter) {
+        int removed = 0;
+        for (Map.Entry<K, Node<V>> entry : entries.entrySet()) {
+            if (filter.test(entry.getKey()) && removeNode(entry.getKey(), entry.getValue())) {
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Drop expired values now instead of waiting for the next periodic sweep.
+     */
+    public void cleanUp() {
+        maintenanceLock.lock();
+        try {
+            sweep(System.currentTimeMillis());
+        } finally {
+            maintenanceLock.unlock();
+        }
+    }
+
+    /**
+     * Number of values held, including expired ones not yet swept.
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Total weight of the values held.
+     */
+    public long weight() {
+        return totalWeight.get();
+    }
+
+    private boolean overBounds() {
+        return entries.size() > maxEntries || totalWeight.get() > maxWeight;
+    }
+
+    /**
+     * Sweep and evict after a write; skipped when another thread is already doing it.
+     */
+    private void maintain(long now) {
+        boolean sweepDue = now >= nextSweepAt;
+        if (!sweepDue && !overBounds()) {
+            return;
+        }
+        if (!maintenanceLock.tryLock()) {
+            return;
+        }
+        try {
+            if (sweepDue) {
+                nextSweepAt = now + SWEEP_INTERVAL_MS;
+                sweep(now);
+            }
+            if (overBounds()) {
+                evict(now);
+            }
+        } finally {
+            maintenanceLock.unlock();
+        }
+    }
+
+    private void sweep(long now) {
+        for (Map.Entry<K, Node<V>> entry : entries.entrySet()) {
+            if (entry.getValue().expiresAt <= now) {
+                removeNode(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    private void evict(long now) {
+        // Evict a little past the bound so a full cache doesn't evict on every write
+        long entryTarget = maxEntries - maxEntries / 16;
+        long weightTarget = maxWeight - maxWeight / 16;
+
+        List<Map.Entry<K, Node<V>>> candidates = new ArrayList<>(entries.entrySet());
+        candidates.sort(Comparator.comparingLong(entry -> {
+            Node<V> node = entry.getValue();
+            return node.expiresAt <= now ? Long.MIN_VALUE : node.lastAccess;
+        }));
+        for (Map.Entry<K, Node<V>> candidate : candidates) {
+            if (entries.size() <= entryTarget && totalWeight.get() <= weightTarget) {
+                break;
+            }
+            removeNode(candidate.getKey(), candidate.getValue());
+        }
+    }
+
+    private boolean removeNode(K key, Node<V> node) {
+        if (entries.remove(key, node)) {
+            totalWeight.addAndGet(-node.weight);
+            return true;
+        }
+        return false;
+    }
+
+    private static long expiresAt(long now, long ttlMs) {
+        return ttlMs >= NO_EXPIRY - now ? NO_EXPIRY : now + ttlMs;
+    }
+
+    private static class Node<V> {
+        private final V value;
+        private final long weight;
+        private volatile long expiresAt;
+        private volatile long lastAccess = System.nanoTime();
+
+        Node(V value, long weight, long expiresAt) {
+            this.value = value;
+            this.weight = weight;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
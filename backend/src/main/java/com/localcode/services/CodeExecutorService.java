@@ -1,42 +1,42 @@
 package com.localcode.services;
 
-import com.github.dockerjava.api.DockerClient;
-import com.github.dockerjava.api.command.CreateContainerResponse;
-import com.github.dockerjava.api.command.ExecCreateCmdResponse;
-import com.github.dockerjava.api.command.InspectContainerResponse;
-import com.github.dockerjava.api.model.*;
-import com.github.dockerjava.core.DefaultDockerClientConfig;
-import com.github.dockerjava.core.DockerClientConfig;
-import com.github.dockerjava.core.DockerClientImpl;
-import com.github.dockerjava.core.command.ExecStartResultCallback;
-import com.github.dockerjava.httpclient5.ApacheDockerHttpClient;
-import com.github.dockerjava.transport.DockerHttpClient;
 import com.localcode.config.DockerSecurityConfig;
+import com.localcode.config.JudgeConfig;
 import com.localcode.config.ResourceLimits;
+import com.localcode.config.VirtualThreads;
+import com.localcode.dto.BatchExecutionResult;
 import com.localcode.dto.ExecutionRequest;
 import com.localcode.dto.ExecutionResult;
 import com.localcode.dto.ExecutionStatus;
 import com.localcode.dto.ResourceMetrics;
 import com.localcode.exception.ExecutionException;
 import com.localcode.exception.ValidationException;
+import com.localcode.services.ExecutionBackend.ExecOutput;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.io.ByteArrayOutputStream;
-import java.io.File;
-import java.io.FileWriter;
+import java.io.EOFException;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.time.Duration;
-import java.util.Arrays;
-import java.util.UUID;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.ObjIntConsumer;
+import java.util.function.Predicate;
 
 /**
- * Service for executing code in isolated Docker containers.
+ * Service for executing code in isolated sandboxes, Docker containers by default (see {@link ExecutionBackend}).
  */
 
 // TODO: Handle cases where input is empty. - DONE
@@ -46,283 +46,703 @@ public class CodeExecutorService {
     
     private static final Logger logger = LoggerFactory.getLogger(CodeExecutorService.class);
     
-    private final DockerClient dockerClient;
+    // Prefix of the line /usr/bin/time appends to stderr with CPU time, peak memory and elapsed time
+    private static final String METRICS_MARKER = "__LOCALCODE_METRICS__";
+    
+    // How long the host waits past the in-sandbox watchdog before killing processes itself
+    private static final long EXEC_AWAIT_BUFFER_MS = 2000;
+    
+    // Exit code of a SIGKILLed process (128 + 9)
+    private static final int SIGKILL_EXIT_CODE = 137;
+    
+    // Smaller class space and code cache reservations (1 GB and 240 MB by default), so JVMs
+    // fit under an address space limit (the local backend's prlimit --as)
+    private static final String JVM_RESERVATION_OPTIONS = "-XX:CompressedClassSpaceSize=64m -XX:ReservedCodeCacheSize=64m";
+    
+    // JVM options for running submissions, the same for the worker and for a java process per input,
+    // so the JIT (default tiered C1+C2) and the collector don't depend on which path ran a test case
+    private static final String JAVA_RUN_OPTIONS = "-XX:+UseSerialGC -XX:-UsePerfData " + JVM_RESERVATION_OPTIONS;
+    
+    private final ExecutionBackend executionBackend;
     private final ResourceLimits resourceLimits;
     private final DockerSecurityConfig securityConfig;
 
     private final CodeHarness codeHarness;
     
-    public CodeExecutorService(ResourceLimits resourceLimits, DockerSecurityConfig securityConfig, CodeHarness codeHarness) {
+    private final CompilationCache compilationCache;
+    
+    // Threads for the extra slots of parallel runs, bounded in practice by judge workers times slots
+    private final ExecutorService slotExecutor;
+    
+    // Persistent workers (see SandboxWorker); runtimes where one could not start are not tried again
+    private final boolean javaWorkerEnabled;
+    private final String javaWorkerClasspath;
+    private final boolean pythonZygoteEnabled;
+    private final String pythonZygotePath;
+    private final Set<String> workerUnavailable = ConcurrentHashMap.newKeySet();
+    
+    public CodeExecutorService(ExecutionBackend executionBackend, ResourceLimits resourceLimits,
+                               DockerSecurityConfig securityConfig, CodeHarness codeHarness,
+                               CompilationCache compilationCache, JudgeConfig judgeConfig,
+                               @Value("${execution.java-worker.enabled:true}") boolean javaWorkerEnabled,
+                               @Value("${execution.java-worker.classpath:/opt/localcode-worker}") String javaWorkerClasspath,
+                               @Value("${execution.python-zygote.enabled:true}") boolean pythonZygoteEnabled,
+                               @Value("${execution.python-zygote.path:/opt/localcode-worker/zygote.py}") String pythonZygotePath) {
+        this.executionBackend = executionBackend;
         this.resourceLimits = resourceLimits;
         this.securityConfig = securityConfig;
         this.codeHarness = codeHarness;
-        
-        try {
-            DockerClientConfig config = DefaultDockerClientConfig.createDefaultConfigBuilder()
-                .withDockerHost("unix:///var/run/docker.sock")
-                .withDockerTlsVerify(false)
-                .withApiVersion("1.41")
-                .build();
-
-            DockerHttpClient httpClient = new ApacheDockerHttpClient.Builder()
-                .dockerHost(config.getDockerHost())
-                .sslConfig(null)
-                .maxConnections(100)
-                .connectionTimeout(Duration.ofSeconds(30))
-                .responseTimeout(Duration.ofSeconds(45))
-                .build();
-
-            this.dockerClient = DockerClientImpl.getInstance(config, httpClient);
-            
-            // Test connection by pinging Docker daemon
-            dockerClient.pingCmd().exec();
-            logger.info("CodeExecutorService initialized - Docker daemon is reachable at: {}", config.getDockerHost());
-            
-            // List available images for debugging
-            dockerClient.listImagesCmd().exec().forEach(image -> 
-                logger.debug("Available image: {}", Arrays.toString(image.getRepoTags()))
-            );
-        } catch (Exception e) {
-            logger.error("Failed to initialize Docker client: {}", e.getMessage(), e);
-            throw new RuntimeException("Failed to initialize Docker client: " + e.getMessage(), e);
-        }
+        this.compilationCache = compilationCache;
+        this.slotExecutor = Executors.newCachedThreadPool(slotThreadFactory(judgeConfig));
+        this.javaWorkerEnabled = javaWorkerEnabled;
+        this.javaWorkerClasspath = javaWorkerClasspath;
+        this.pythonZygoteEnabled = pythonZygoteEnabled;
+        this.pythonZygotePath = pythonZygotePath;
+        logger.info("CodeExecutorService initialized");
     }
     
     /**
-     * Execute code in a Docker container with resource limits.
+     * Execute code in a sandbox with resource limits.
      *
      * @param request the execution request
      * @return execution result with output and metrics
      */
     public ExecutionResult runInContainer(ExecutionRequest request) {
-        String containerId = null;
+        BatchExecutionResult batchResult = runBatchInContainer(
+            request,
+            Collections.singletonList(request.getInput()),
+            result -> false
+        );
+        return batchResult.getResults().get(0);
+    }
+    
+    /**
+     * Execute code against several inputs inside a single sandbox.
+     * The code and all inputs are shipped together, the code is compiled once
+     * (for compiled languages) and then run once per input.
+     *
+     * @param request the execution request (its input is ignored)
+     * @param inputs the test inputs, in execution order
+     * @param stopCondition remaining inputs are skipped once this returns true for a result
+     * @return batch result with one execution result per executed input
+     */
+    public BatchExecutionResult runBatchInContainer(ExecutionRequest request, List<String> inputs,
+                                                    Predicate<ExecutionResult> stopCondition) {
+        return runBatchInContainer(request, inputs, stopCondition, (result, index) -> { });
+    }
+    
+    /**
+     * Execute code against several inputs inside a single sandbox,
+     * reporting each result as soon as its input has finished.
+     *
+     * @param request the execution request (its input is ignored)
+     * @param inputs the test inputs, in execution order
+     * @param stopCondition remaining inputs are skipped once this returns true for a result
+     * @param resultListener called with each result and its input index as the input finishes
+     * @return batch result with one execution result per executed input
+     */
+    public BatchExecutionResult runBatchInContainer(ExecutionRequest request, List<String> inputs,
+                                                    Predicate<ExecutionResult> stopCondition,
+                                                    ObjIntConsumer<ExecutionResult> resultListener) {
+        ExecutionSlot slot = new ExecutionSlot();
         long startTime = System.currentTimeMillis();
+        List<ExecutionResult> results = new ArrayList<>();
         
         try {
             // Validate request
             validateRequest(request);
+            validateInputs(inputs);
 
             logger.info("Request validated!");
             
-            // Get image name based on language
-            String imageName = getImageName(request.getLanguage());
-
-            logger.info("Image selected!");
-            
-            // Create container with security and resource limits
-            containerId = createContainer(imageName, request);
-
-            logger.info("Container created!");
+            String language = request.getLanguage().toLowerCase();
             
-            // Start container
-            dockerClient.startContainerCmd(containerId).exec();
-            logger.info("Started container: {}", containerId);
+            // Build source from harness and code
+            String harness = codeHarness.generate(request);
+            logger.info(harness);
+            String source = harness + request.getCode();
+            String fileName = sourceFileName(language, source);
+            String cacheKey = compilationCache.isCacheable(language)
+                ? compilationCache.key(request.getCode(), harness, executionBackend.runtimeId(language))
+                : null;
             
-            // Write code and input to container
-            writeCodeToContainer(containerId, request);
+            // Get a sandbox with the code compiled and all inputs in place
+            ExecutionResult compileError = prepareSlot(slot, request, inputs, fileName, source, cacheKey);
+            if (compileError != null) {
+                results.add(compileError);
+                return new BatchExecutionResult(results, System.currentTimeMillis() - startTime);
+            }
             
-            // Execute code with timeout
-            ExecutionResult result = executeCodeInContainer(containerId, request, startTime);
+            // Run each input
+            for (int i = 0; i < inputs.size(); i++) {
+                ExecutionResult result = executeCode(slot, request, fileName, i);
+                results.add(result);
+                resultListener.accept(result, i);
+                
+                if (stopCondition.test(result)) {
+                    logger.info("Stopping batch after input {} with status: {}", i, result.getStatus());
+                    break;
+                }
+            }
             
-            return result;
+            slot.reusable = !slot.tainted;
+            return new BatchExecutionResult(results, System.currentTimeMillis() - startTime);
             
-        } catch (TimeoutException e) {
-            logger.warn("Execution timeout for container: {}", containerId);
-            long runtime = System.currentTimeMillis() - startTime;
-            return new ExecutionResult(
-                ExecutionStatus.TLE,
-                "",
-                "Time limit exceeded",
-                new ResourceMetrics(runtime, 0L)
-            );
         } catch (Exception e) {
-            logger.error("Error executing code in container: {}", containerId, e);
+            logger.error("Error executing code in sandbox: {}", slot.sandbox != null ? slot.sandbox.getId() : null, e);
             long runtime = System.currentTimeMillis() - startTime;
-            return new ExecutionResult(
-                ExecutionStatus.RUNTIME_ERROR,
-                "",
-                "Execution error: " + e.getMessage(),
-                new ResourceMetrics(runtime, 0L)
-            );
+            results.add(executionErrorResult(e, runtime));
+            return new BatchExecutionResult(results, runtime);
         } finally {
-            // Cleanup container
-            if (containerId != null) {
-                cleanupContainer(containerId);
-            }
+            releaseSandbox(slot);
         }
     }
     
     /**
-     * Create a Docker container with security and resource limits.
+     * Execute code against several inputs spread over parallel execution slots.
+     * Each slot is its own sandbox holding the code and every input, and slots
+     * pull the next input index from a shared counter, so inputs start in order.
+     * Once an input matches the stop condition, later inputs are not started and
+     * the ones still running on other slots are killed. Results are returned in
+     * input order, up to and including the input that stopped the run.
+     *
+     * @param request the execution request (its input is ignored)
+     * @param inputs the test inputs, in execution order
+     * @param stopCondition inputs after the first result matching this are cancelled
+     * @param slots the maximum number of sandboxes to run at once
+     * @return batch result with one execution result per executed input
+     */
+    public BatchExecutionResult runParallelInContainers(ExecutionRequest request, List<String> inputs,
+                                                        Predicate<ExecutionResult> stopCondition, int slots) {
+        return runParallelInContainers(request, inputs, stopCondition, slots, (result, index) -> { });
+    }
+    
+    /**
+     * Execute code against several inputs spread over parallel execution slots,
+     * reporting each result as soon as its input has finished.
+     * The listener is called from the slot threads, possibly concurrently and out of input order.
+     *
+     * @param request the execution request (its input is ignored)
+     * @param inputs the test inputs, in execution order
+     * @param stopCondition inputs after the first result matching this are cancelled
+     * @param slots the maximum number of sandboxes to run at once
+     * @param resultListener called with each result and its input index as the input finishes
+     * @return batch result with one execution result per executed input
      */
-    private String createContainer(String imageName, ExecutionRequest request) {
-        logger.info("Creating container with image: {}", imageName);
+    public BatchExecutionResult runParallelInContainers(ExecutionRequest request, List<String> inputs,
+                                                        Predicate<ExecutionResult> stopCondition, int slots,
+                                                        ObjIntConsumer<ExecutionResult> resultListener) {
+        int slotCount = inputs != null ? Math.min(slots, inputs.size()) : 0;
+        if (slotCount <= 1) {
+            return runBatchInContainer(request, inputs, stopCondition, resultListener);
+        }
+        
+        long startTime = System.currentTimeMillis();
+        ParallelRun run = new ParallelRun(inputs.size());
+        List<ExecutionSlot> executionSlots = new CopyOnWriteArrayList<>();
+        List<Future<?>> workers = new ArrayList<>();
         
-        // First, check if image exists
         try {
-            dockerClient.inspectImageCmd(imageName).exec();
-            logger.info("Image {} found", imageName);
+            validateRequest(request);
+            validateInputs(inputs);
+            
+            String language = request.getLanguage().toLowerCase();
+            String harness = codeHarness.generate(request);
+            String source = harness + request.getCode();
+            String fileName = sourceFileName(language, source);
+            String cacheKey = compilationCache.isCacheable(language)
+                ? compilationCache.key(request.getCode(), harness, executionBackend.runtimeId(language))
+                : null;
+            
+            // Prepare the first slot before fanning out: a compile error ends the run
+            // right here, and the other slots find the class files in the compilation cache
+            ExecutionSlot firstSlot = new ExecutionSlot();
+            executionSlots.add(firstSlot);
+            ExecutionResult compileError = prepareSlot(firstSlot, request, inputs, fileName, source, cacheKey);
+            if (compileError != null) {
+                return new BatchExecutionResult(Collections.singletonList(compileError),
+                    System.currentTimeMillis() - startTime);
+            }
+            
+            for (int s = 1; s < slotCount; s++) {
+                ExecutionSlot slot = new ExecutionSlot();
+                executionSlots.add(slot);
+                workers.add(slotExecutor.submit(() -> {
+                    try {
+                        if (prepareSlot(slot, request, inputs, fileName, source, cacheKey) != null) {
+                            throw new ExecutionException("Compilation failed on an additional slot", "compilation");
+                        }
+                    } catch (Exception e) {
+                        // The remaining slots pick up this slot's share of the inputs
+                        logger.warn("Could not prepare execution slot: {}", e.getMessage());
+                        return;
+                    }
+                    runSlot(slot, request, fileName, stopCondition, resultListener, run, executionSlots);
+                }));
+            }
+            
+            runSlot(firstSlot, request, fileName, stopCondition, resultListener, run, executionSlots);
+            awaitWorkers(workers);
+            
+            List<ExecutionResult> results = run.collect(System.currentTimeMillis() - startTime);
+            logger.info("Parallel run finished {} of {} inputs on {} slots", results.size(), inputs.size(), slotCount);
+            return new BatchExecutionResult(results, System.currentTimeMillis() - startTime);
+            
         } catch (Exception e) {
-            logger.error("Image {} not found: {}", imageName, e.getMessage());
-            throw new ExecutionException("Image not found: " + imageName + ". Please build the runtime images first.", "container_creation");
+            logger.error("Error executing code in parallel slots", e);
+            long runtime = System.currentTimeMillis() - startTime;
+            return new BatchExecutionResult(Collections.singletonList(executionErrorResult(e, runtime)), runtime);
+        } finally {
+            run.cancel();
+            awaitWorkers(workers);
+            for (ExecutionSlot slot : executionSlots) {
+                releaseSandbox(slot);
+            }
         }
+    }
+    
+    /**
+     * Get a sandbox for a slot and put the code and all inputs in it.
+     * Uses cached class files when available, otherwise compiles once and caches the outcome.
+     *
+     * @return a compilation error result, or null if the slot is ready to run inputs
+     */
+    private ExecutionResult prepareSlot(ExecutionSlot slot, ExecutionRequest request,
+                                        List<String> inputs, String fileName, String source, String cacheKey)
+            throws IOException, InterruptedException, TimeoutException {
+        String language = request.getLanguage().toLowerCase();
         
-        // Create secure host config using security configuration
-        HostConfig hostConfig = securityConfig.createSecureHostConfig(request.getMemoryLimitMb());
-        logger.info("Secure hostconfig created with memory limit: {}MB", request.getMemoryLimitMb());
+        // Reuse a previous compilation of the same source if we have one
+        CompilationCache.CompiledArtifact artifact = cacheKey != null ? compilationCache.get(cacheKey) : null;
+        if (artifact != null && artifact.isFailed()) {
+            logger.info("Compilation cache hit with compile error, skipping execution");
+            return compilationErrorResult("", artifact.getCompileError(), null);
+        }
+        
+        slot.sandbox = executionBackend.acquire(language, request, inputs.size());
+        slot.runtimeId = executionBackend.runtimeId(language);
+        slot.inputCount = inputs.size();
+        
+        // Write code (or cached class files) and all inputs to the sandbox
+        Map<String, byte[]> classFiles = artifact != null ? artifact.getClassFiles() : null;
+        writeCode(slot.sandbox, fileName, source, classFiles, inputs);
         
-        // Validate security settings
-        if (!securityConfig.validateSecuritySettings(hostConfig)) {
-            throw new ExecutionException("Invalid security configuration for container", "container_creation");
+        if (artifact != null) {
+            logger.info("Compilation cache hit, skipping compilation of {}", fileName);
+            return null;
         }
-        logger.info("Security settings validated");
         
+        // Compile once for all inputs
+        ExecutionResult compileError = compile(slot, request, fileName);
+        if (compileError != null) {
+            if (cacheKey != null) {
+                compilationCache.putFailed(cacheKey, compileError.getStderr());
+            }
+            slot.reusable = true;
+            return compileError;
+        }
+        
+        if (cacheKey != null) {
+            compilationCache.putCompiled(cacheKey, slot.sandbox.readFiles(".class"));
+        }
+        return null;
+    }
+    
+    /**
+     * Pull inputs from the shared counter and run them on one slot until none are left.
+     */
+    private void runSlot(ExecutionSlot slot, ExecutionRequest request, String fileName,
+                         Predicate<ExecutionResult> stopCondition, ObjIntConsumer<ExecutionResult> resultListener,
+                         ParallelRun run, List<ExecutionSlot> slots) {
         try {
-            // Create container
-            CreateContainerResponse container = dockerClient.createContainerCmd(imageName)
-                .withHostConfig(hostConfig)
-                .withAttachStdout(true)
-                .withAttachStderr(true)
-                .withTty(false)
-                .withCmd("sleep", String.valueOf(securityConfig.getMaxContainerLifetime()))
-                .exec();
-            
-            logger.info("Created secure container: {} with image: {}", container.getId(), imageName);
-            return container.getId();
+            int index;
+            while ((index = run.next()) >= 0) {
+                slot.currentIndex = index;
+                ExecutionResult result = executeCode(slot, request, fileName, index);
+                slot.currentIndex = -1;
+                run.record(index, result);
+                if (run.isWithinRun(index)) {
+                    resultListener.accept(result, index);
+                }
+                
+                if (stopCondition.test(result) && run.stopAt(index)) {
+                    logger.info("Stopping parallel run after input {} with status: {}", index, result.getStatus());
+                    cancelLaterInputs(slot, index, slots);
+                }
+            }
+            slot.reusable = !slot.tainted;
         } catch (Exception e) {
-            logger.error("Failed to create container with image {}: {}", imageName, e.getMessage(), e);
-            throw new ExecutionException("Failed to create container: " + e.getMessage(), "container_creation");
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            logger.error("Execution slot failed in sandbox: {}", slot.sandbox.getId(), e);
+            slot.tainted = true;
         }
     }
     
     /**
-     * Write code and input files to container.
+     * Kill inputs that other slots are still running past the one that stopped the run.
      */
-    private void writeCodeToContainer(String containerId, ExecutionRequest request) throws IOException {
-        String language = request.getLanguage().toLowerCase();
-        String fileName;
-        StringBuilder code = new StringBuilder();
-
-        String harness = codeHarness.generate(request);
-        logger.info(harness);
-        code.append(harness); // Harness
-        code.append(request.getCode()); // Code
-
+    private void cancelLaterInputs(ExecutionSlot stoppingSlot, int stopIndex, List<ExecutionSlot> slots) {
+        for (ExecutionSlot other : slots) {
+            if (other != stoppingSlot && other.currentIndex > stopIndex) {
+                logger.debug("Cancelling input {} in sandbox: {}", other.currentIndex, other.sandbox.getId());
+                other.sandbox.killProcesses();
+                other.tainted = true;
+            }
+        }
+    }
+    
+    private void awaitWorkers(List<Future<?>> workers) {
+        for (Future<?> worker : workers) {
+            try {
+                worker.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (java.util.concurrent.ExecutionException e) {
+                logger.warn("Execution slot ended with error: {}", e.getCause().getMessage());
+            }
+        }
+    }
+    
+    private ExecutionResult executionErrorResult(Exception e, long runtimeMs) {
+        return new ExecutionResult(
+            ExecutionStatus.RUNTIME_ERROR,
+            "",
+            "Execution error: " + e.getMessage(),
+            new ResourceMetrics(runtimeMs, 0L)
+        );
+    }
+    
+    /**
+     * Slot threads mostly block on the execution backend, so they follow the judge workers onto
+     * virtual threads when those are enabled and supported.
+     */
+    private static ThreadFactory slotThreadFactory(JudgeConfig judgeConfig) {
+        if (Boolean.TRUE.equals(judgeConfig.getVirtualThreads())) {
+            ThreadFactory virtual = VirtualThreads.factory("execution-slot-");
+            if (virtual != null) {
+                return virtual;
+            }
+        }
         
+        return new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+            
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "execution-slot-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+    }
+    
+    /**
+     * Stop the parallel slot threads on shutdown.
+     */
+    @PreDestroy
+    public void shutdown() {
+        slotExecutor.shutdownNow();
+    }
+    
+    /**
+     * Give a slot's sandbox back to the backend.
+     */
+    private void releaseSandbox(ExecutionSlot slot) {
+        closeWorker(slot);
+        if (slot.sandbox != null) {
+            slot.sandbox.release(slot.reusable);
+        }
+    }
+    
+    /**
+     * Determine the source file name based on language.
+     */
+    private String sourceFileName(String language, String source) {
         // Determine file name based on language, (Reeks)
         switch (language) {
             case "java":
                 // Extract class name from code
-                fileName = extractJavaClassName(code.toString());
-                break;
+                return extractJavaClassName(source);
             case "python":
-                fileName = "solution.py";
-                break;
+                return "solution.py";
             case "javascript":
-                fileName = "solution.js";
-                break;
+                return "solution.js";
             default:
                 throw new IllegalArgumentException("Unsupported language: " + language);
         }
+    }
+    
+    /**
+     * Write code (or precompiled class files) and all input files to the sandbox in a single write.
+     */
+    private void writeCode(ExecutionBackend.Sandbox sandbox, String fileName, String source,
+                           Map<String, byte[]> classFiles, List<String> inputs) throws IOException {
+        Map<String, byte[]> files = new LinkedHashMap<>();
+        
+        if (classFiles != null) {
+            // Already compiled, ship the class files instead of the source
+            files.putAll(classFiles);
+        } else {
+            files.put(fileName, source.getBytes(StandardCharsets.UTF_8));
+        }
         
-        // Create temp directory for code
-        Path tempDir = Files.createTempDirectory("code-exec-");
-        File codeFile = new File(tempDir.toFile(), fileName);
+        // One input file per test case. Empty input is let through, we handle it in scanner
+        for (int i = 0; i < inputs.size(); i++) {
+            String input = inputs.get(i) != null ? inputs.get(i) : "";
+            files.put(inputFileName(i), input.getBytes(StandardCharsets.UTF_8));
+        }
         
-        try (FileWriter writer = new FileWriter(codeFile)) {
-            writer.write(code.toString());
+        sandbox.writeFiles(files);
+        logger.debug("Wrote code file {} and {} inputs to sandbox: {}", fileName, inputs.size(), sandbox.getId());
+    }
+    
+    /**
+     * Compile the code once, for languages that need it.
+     * Java is compiled by the slot's JVM worker when one can be started, otherwise by running javac.
+     *
+     * @return a compilation error result, or null if compilation succeeded or is not needed
+     */
+    private ExecutionResult compile(ExecutionSlot slot, ExecutionRequest request, String fileName)
+            throws InterruptedException, TimeoutException {
+        String language = request.getLanguage().toLowerCase();
+        String[] command = buildCompileCommand(language, fileName);
+        if (command == null) {
+            return null;
         }
         
-        // Copy code file to container
-        dockerClient.copyArchiveToContainerCmd(containerId)
-            .withHostResource(codeFile.getAbsolutePath())
-            .withRemotePath("/tmp/code/")
-            .exec();
+        long compileTimeoutMs = securityConfig.getMaxContainerLifetime() * 1000L;
+        long compileStart = System.currentTimeMillis();
+        ExecOutput output = null;
+        boolean compiled = false;
         
-        // Write input file if provided
-        if (request.getInput() != null) {
-            // Let empty pass. We handle it in scanner
-            File inputFile = new File(tempDir.toFile(), "input.txt");
-            try (FileWriter writer = new FileWriter(inputFile)) {
-                writer.write(request.getInput());
+        SandboxWorker worker = worker(slot, request);
+        if (worker != null) {
+            try {
+                output = worker.compile(fileName, compileTimeoutMs);
+                compiled = true;
+            } catch (IOException e) {
+                logger.warn("Java worker could not compile in sandbox {}, falling back to javac: {}",
+                    slot.sandbox.getId(), e.getMessage());
+                closeWorker(slot);
+                slot.workerFailed = true;
             }
-            
-            dockerClient.copyArchiveToContainerCmd(containerId)
-                .withHostResource(inputFile.getAbsolutePath())
-                .withRemotePath("/tmp/code/")
-                .exec();
         }
+        if (!compiled) {
+            output = slot.sandbox.exec(command, compileTimeoutMs);
+        }
+        long compileTime = System.currentTimeMillis() - compileStart;
+        
+        if (output == null) {
+            throw new TimeoutException("Compilation timed out");
+        }
+        
+        logger.info("Compiled {} in {}ms", fileName, compileTime);
         
-        // Cleanup temp directory
-        Files.walk(tempDir)
-            .map(Path::toFile)
-            .forEach(File::delete);
-        Files.deleteIfExists(tempDir);
+        if (output.exitCode == 0) {
+            return null;
+        }
         
-        logger.debug("Wrote code file {} to container: {}", fileName, containerId);
+        return compilationErrorResult(output.stdout, output.stderr, output.exitCode);
+    }
+    
+    private ExecutionResult compilationErrorResult(String stdout, String stderr, Integer exitCode) {
+        ExecutionResult result = new ExecutionResult(
+            ExecutionStatus.COMPILATION_ERROR,
+            stdout,
+            stderr,
+            new ResourceMetrics(0L, 0L)
+        );
+        result.setExitCode(exitCode);
+        result.setStderr(stderr);
+        return result;
     }
     
     /**
-     * Execute code in container and capture output.
+     * Execute code against one input in the slot's sandbox and capture output.
      */
-    private ExecutionResult executeCodeInContainer(String containerId, ExecutionRequest request, long startTime) 
-            throws InterruptedException, ExecutionException, TimeoutException {
-        
+    private ExecutionResult executeCode(ExecutionSlot slot, ExecutionRequest request,
+                                        String fileName, int inputIndex) throws InterruptedException {
         String language = request.getLanguage().toLowerCase();
-        String[] command = buildExecutionCommand(language, request.getCode());
+        long wallLimitMs = request.getTimeLimitMs() + resourceLimits.getWallTimeGraceMs();
+        
+        SandboxWorker worker = worker(slot, request);
+        if (worker != null) {
+            ExecutionResult result = executeInWorker(slot, worker, request, fileName, inputIndex, wallLimitMs);
+            if (result != null) {
+                return result;
+            }
+        }
         
-        // Create exec instance
-        ExecCreateCmdResponse execCreateCmdResponse = dockerClient.execCreateCmd(containerId)
-            .withCmd(command)
-            .withAttachStdout(true)
-            .withAttachStderr(true)
-            .withWorkingDir("/tmp/code")
-            .exec();
+        String[] command = buildExecutionCommand(language, fileName, inputFileName(inputIndex), wallLimitMs);
         
-        // Execute with timeout
-        ByteArrayOutputStream stdout = new ByteArrayOutputStream();
-        ByteArrayOutputStream stderr = new ByteArrayOutputStream();
+        // Execute with timeout; the host-side runtime is only a fallback when no metrics are reported
+        long startTime = System.currentTimeMillis();
+        ExecOutput output = slot.sandbox.exec(command, wallLimitMs + EXEC_AWAIT_BUFFER_MS);
         
-        ExecStartResultCallback callback = new ExecStartResultCallback(stdout, stderr);
+        long runtime = System.currentTimeMillis() - startTime;
         
-        dockerClient.execStartCmd(execCreateCmdResponse.getId())
-            .exec(callback);
+        if (output == null) {
+            // The in-sandbox watchdog did not fire, kill from the host as a last resort
+            logger.warn("Execution timeout for sandbox: {}", slot.sandbox.getId());
+            slot.sandbox.killProcesses();
+            slot.tainted = true;
+            return timeLimitExceeded("", null, runtime);
+        }
         
-        // Wait for execution with timeout
-        int timeoutSeconds = (request.getTimeLimitMs() / 1000) + 5;  // Add 5 seconds buffer
-        boolean completed = callback.awaitCompletion(timeoutSeconds, TimeUnit.SECONDS);
+        // CPU time and peak memory as measured by /usr/bin/time inside the sandbox
+        output = extractMetrics(output, language);
+        ResourceMetrics metrics = output.metrics != null
+            ? output.metrics
+            : new ResourceMetrics(runtime, 0L);
         
+        ExecutionResult result;
+        if (output.exitCode == SIGKILL_EXIT_CODE && runtime >= wallLimitMs) {
+            // Killed by the watchdog, e.g. sleeping or blocked without using much CPU time
+            result = timeLimitExceeded(output.stdout, metrics, runtime);
+        } else {
+            result = buildResult(language, request, output, metrics);
+        }
+        result.setExitCode(output.exitCode);
+        result.setStderr(output.stderr);
+        return result;
+    }
+    
+    /**
+     * Run one input in the slot's persistent worker.
+     *
+     * @return the result, or null if the worker died and the input must be run as its own process instead
+     */
+    private ExecutionResult executeInWorker(ExecutionSlot slot, SandboxWorker worker, ExecutionRequest request,
+                                            String fileName, int inputIndex, long wallLimitMs)
+            throws InterruptedException {
+        String language = request.getLanguage().toLowerCase();
+        // The worker runs a class for Java and the source file for Python
+        String program = "java".equals(language) ? fileName.replace(".java", "") : fileName;
+        long startTime = System.currentTimeMillis();
+        SandboxWorker.Run run;
+        try {
+            run = worker.run(program, inputFileName(inputIndex), wallLimitMs, request.getMemoryLimitMb(),
+                wallLimitMs + EXEC_AWAIT_BUFFER_MS);
+        } catch (IOException e) {
+            closeWorker(slot);
+            if (slot.tainted) {
+                // Killed because an earlier input stopped the parallel run
+                return new ExecutionResult(
+                    ExecutionStatus.RUNTIME_ERROR,
+                    "",
+                    "Execution cancelled",
+                    new ResourceMetrics(System.currentTimeMillis() - startTime, 0L)
+                );
+            }
+            logger.warn("{} worker failed in sandbox {}, running input {} as its own process: {}",
+                language, slot.sandbox.getId(), inputIndex, e.getMessage());
+            slot.workerFailed = true;
+            return null;
+        }
         long runtime = System.currentTimeMillis() - startTime;
         
-        if (!completed) {
-            throw new TimeoutException("Execution timed out");
+        if (run == null) {
+            // The worker's own watchdog did not answer, kill from the host as a last resort
+            logger.warn("Execution timeout for worker in sandbox: {}", slot.sandbox.getId());
+            closeWorker(slot);
+            slot.sandbox.killProcesses();
+            slot.tainted = true;
+            return timeLimitExceeded("", null, runtime);
         }
         
-        // Get exit code
-        Integer exitCode = dockerClient.inspectExecCmd(execCreateCmdResponse.getId())
-            .exec()
-            .getExitCodeLong()
-            .intValue();
+        if (run.recycle) {
+            // The worker exited or misbehaved, a fresh one is started for the next input
+            closeWorker(slot);
+        }
         
-        // Collect metrics
-        ResourceMetrics metrics = collectMetrics(containerId, runtime);
+        ExecOutput output = run.output;
+        ExecutionResult result = run.timedOut
+            ? timeLimitExceeded(output.stdout, output.metrics, runtime)
+            : buildResult(language, request, output, output.metrics);
+        result.setExitCode(output.exitCode);
+        result.setStderr(output.stderr);
+        return result;
+    }
+    
+    /**
+     * Get the slot's persistent worker, starting one if needed.
+     *
+     * @return the worker, or null if the input should run as its own process
+     */
+    private SandboxWorker worker(ExecutionSlot slot, ExecutionRequest request) throws InterruptedException {
+        if (slot.worker != null) {
+            return slot.worker;
+        }
+        String[] command = buildWorkerCommand(request.getLanguage().toLowerCase());
+        if (command == null || slot.workerFailed || workerUnavailable.contains(slot.runtimeId)) {
+            return null;
+        }
         
+        // Long enough to compile and to run every input at its wall-clock limit
+        long wallLimitMs = request.getTimeLimitMs() + resourceLimits.getWallTimeGraceMs();
+        long lifetimeMs = securityConfig.getMaxContainerLifetime() * 1000L
+            + slot.inputCount * (wallLimitMs + EXEC_AWAIT_BUFFER_MS);
+        try {
+            slot.worker = SandboxWorker.start(slot.sandbox, command, lifetimeMs);
+            return slot.worker;
+        } catch (EOFException e) {
+            // Exited right away, e.g. a runtime image built before the worker was added
+            if (workerUnavailable.add(slot.runtimeId)) {
+                logger.warn("No worker available for runtime {}, running each input as its own process", slot.runtimeId);
+            }
+            return null;
+        } catch (IOException e) {
+            logger.warn("Could not start worker in sandbox {}: {}", slot.sandbox.getId(), e.getMessage());
+            slot.workerFailed = true;
+            return null;
+        }
+    }
+    
+    private void closeWorker(ExecutionSlot slot) {
+        if (slot.worker != null) {
+            slot.worker.close();
+            slot.worker = null;
+        }
+    }
+    
+    /**
+     * Result of a run killed at the wall-clock limit. Its runtime is the wall-clock time, so the
+     * reported runtime agrees with the verdict: the CPU time of a sleeping or blocked program
+     * stays far below the limit.
+     *
+     * @param metrics what the sandbox measured, or null if nothing was reported
+     */
+    private static ExecutionResult timeLimitExceeded(String stdout, ResourceMetrics metrics, long wallClockMs) {
+        long runtimeMs = metrics != null ? Math.max(wallClockMs, metrics.getRuntimeMs()) : wallClockMs;
+        long memoryKb = metrics != null ? metrics.getMemoryKb() : 0L;
+        return new ExecutionResult(ExecutionStatus.TLE, stdout, "Time limit exceeded",
+            new ResourceMetrics(runtimeMs, memoryKb));
+    }
+    
+    /**
+     * Determine the execution status from exit code, output and metrics.
+     */
+    private ExecutionResult buildResult(String language, ExecutionRequest request, ExecOutput output, ResourceMetrics metrics) {
         // Check if execution exceeded time limit
         if (metrics.getRuntimeMs() > request.getTimeLimitMs()) {
             return new ExecutionResult(
                 ExecutionStatus.TLE,
-                stdout.toString(),
+                output.stdout,
                 "Time limit exceeded",
                 metrics
             );
         }
         
-        // Check if execution exceeded memory limit
+        // Check if execution exceeded memory limit, or was OOM-killed (SIGKILL) close to it
         long memoryLimitKb = request.getMemoryLimitMb() * 1024L;
-        if (metrics.getMemoryKb() > memoryLimitKb) {
+        boolean oomKilled = output.exitCode == SIGKILL_EXIT_CODE && metrics.getMemoryKb() >= memoryLimitKb * 9 / 10;
+        if (metrics.getMemoryKb() > memoryLimitKb || oomKilled) {
             return new ExecutionResult(
                 ExecutionStatus.MLE,
-                stdout.toString(),
+                output.stdout,
                 "Memory limit exceeded",
                 metrics
             );
@@ -331,47 +751,91 @@ public class CodeExecutorService {
         // Determine status based on exit code
         ExecutionStatus status;
         String errorMessage = null;
-        String stderrOutput = stderr.toString();
         
-        if (exitCode == 0) {
+        if (output.exitCode == 0) {
             status = ExecutionStatus.SUCCESS;
         } else {
             // Check if it's a compilation error or runtime error
-            if (isCompilationError(language, stderrOutput)) {
+            if (isCompilationError(language, output.stderr)) {
                 status = ExecutionStatus.COMPILATION_ERROR;
-                errorMessage = stderrOutput;
+                errorMessage = output.stderr;
             } else {
                 status = ExecutionStatus.RUNTIME_ERROR;
-                errorMessage = stderrOutput;
+                errorMessage = output.stderr;
             }
         }
         
         return new ExecutionResult(
             status,
-            stdout.toString(),
+            output.stdout,
             errorMessage,
             metrics
         );
     }
     
+    /**
+     * Build compile command based on language.
+     *
+     * @return the compile command, or null for interpreted languages
+     */
+    private String[] buildCompileCommand(String language, String fileName) {
+        switch (language.toLowerCase()) {
+            case "java":
+                // javac is a JVM too, with the same reservations as JVM_RESERVATION_OPTIONS
+                return new String[]{"javac", "-J-XX:CompressedClassSpaceSize=64m", "-J-XX:ReservedCodeCacheSize=64m", fileName};
+            case "python":
+            case "javascript":
+                return null;
+            default:
+                throw new IllegalArgumentException("Unsupported language: " + language);
+        }
+    }
+    
     /**
      * Build execution command based on language.
+     * The program runs under /usr/bin/time, which appends a metrics line to stderr
+     * (see {@link #extractMetrics(ExecOutput, String)}), and under timeout, which SIGKILLs its
+     * whole process group once the wall-clock limit is reached.
      */
-    private String[] buildExecutionCommand(String language, String code) {
+    private String[] buildExecutionCommand(String language, String fileName, String inputFile, long wallLimitMs) {
+        String timed = "/usr/bin/time -q -f '" + METRICS_MARKER + " %U %S %M %e' "
+            + "timeout -s KILL " + String.format(Locale.ROOT, "%.3f", wallLimitMs / 1000.0) + " ";
         switch (language.toLowerCase()) {
             case "java":
-                String className = extractJavaClassName(code);
                 return new String[]{"sh", "-c", 
-                    "javac " + className + " && java " + className.replace(".java", "") + " < input.txt"};
+                    timed + "java " + JAVA_RUN_OPTIONS + " " + fileName.replace(".java", "") + " < " + inputFile};
             case "python":
-                return new String[]{"sh", "-c", "python3 solution.py < input.txt"};
+                return new String[]{"sh", "-c", timed + "python3 " + fileName + " < " + inputFile};
             case "javascript":
-                return new String[]{"sh", "-c", "node solution.js < input.txt"};
+                return new String[]{"sh", "-c", timed + "node " + fileName + " < " + inputFile};
             default:
                 throw new IllegalArgumentException("Unsupported language: " + language);
         }
     }
     
+    /**
+     * Build the command of the persistent worker for a language.
+     *
+     * @return the worker command, or null if the language has no worker or it is disabled
+     */
+    private String[] buildWorkerCommand(String language) {
+        switch (language) {
+            case "java":
+                // Replies go to fd 3 and stdout to /dev/null, so nothing else in the JVM can write into the protocol
+                return javaWorkerEnabled ? new String[]{"sh", "-c", "exec java " + JAVA_RUN_OPTIONS + " \"$@\" 3>&1 >/dev/null",
+                    "sh", "-Djava.security.manager=allow", "-Djudge.protocol=/proc/self/fd/3",
+                    "-cp", javaWorkerClasspath, "JudgeWorker"} : null;
+            case "python":
+                return pythonZygoteEnabled ? new String[]{"python3", "-u", pythonZygotePath} : null;
+            default:
+                return null;
+        }
+    }
+    
+    private String inputFileName(int index) {
+        return "input_" + index + ".txt";
+    }
+    
     /**
      * Extract Java class name from code.
      */
@@ -412,91 +876,37 @@ public class CodeExecutorService {
     }
     
     /**
-     * Collect resource metrics from container.
+     * Take the /usr/bin/time metrics line off stderr and turn it into resource metrics.
+     * Memory is the peak resident set size of the user's process. Runtime is its user + system
+     * CPU time, except for Java: a JVM's CPU time also counts its JIT compiler and GC threads,
+     * so a Java process is timed by the elapsed time of the program instead. Sandbox and exec
+     * overhead are not counted either way.
+     *
+     * @return the output with clean stderr and metrics, or unchanged (no metrics) if the line is missing
      */
-    private ResourceMetrics collectMetrics(String containerId, long runtimeMs) {
-        try {
-            // Get memory usage from container inspection
-            Long memoryUsage = 0L;
-            
-            // Try to get memory stats using a callback
-            try {
-                InspectContainerResponse containerInfo = dockerClient.inspectContainerCmd(containerId).exec();
-                
-                // Use a simple approach - get stats with callback
-                final Long[] memoryHolder = {0L};
-                CountDownLatch latch = new CountDownLatch(1);
-                
-                dockerClient.statsCmd(containerId)
-                    .withNoStream(true)
-                    .exec(new com.github.dockerjava.api.async.ResultCallback.Adapter<Statistics>() {
-                        @Override
-                        public void onNext(Statistics stats) {
-                            if (stats != null && stats.getMemoryStats() != null) {
-                                Long usage = stats.getMemoryStats().getUsage();
-                                if (usage != null) {
-                                    memoryHolder[0] = usage / 1024;  // Convert to KB
-                                }
-                            }
-                            latch.countDown();
-                        }
-                        
-                        @Override
-                        public void onError(Throwable throwable) {
-                            latch.countDown();
-                        }
-                    });
-                
-                // Wait for stats with timeout
-                latch.await(2, TimeUnit.SECONDS);
-                memoryUsage = memoryHolder[0];
-                
-            } catch (Exception e) {
-                logger.warn("Could not collect memory stats for container: {}", containerId);
-            }
-            
-            return new ResourceMetrics(runtimeMs, memoryUsage);
-            
-        } catch (Exception e) {
-            logger.warn("Error collecting metrics for container: {}", containerId, e);
-            return new ResourceMetrics(runtimeMs, 0L);
+    private ExecOutput extractMetrics(ExecOutput output, String language) {
+        String stderr = output.stderr;
+        int markerIndex = stderr.lastIndexOf(METRICS_MARKER);
+        if (markerIndex < 0) {
+            logger.debug("No execution metrics reported, falling back to host-side timing");
+            return output;
         }
-    }
-    
-    /**
-     * Cleanup container after execution.
-     */
-    public void cleanupContainer(String containerId) {
+        
+        int lineEnd = stderr.indexOf('\n', markerIndex);
+        String line = stderr.substring(markerIndex + METRICS_MARKER.length(), lineEnd < 0 ? stderr.length() : lineEnd).trim();
+        String cleanStderr = stderr.substring(0, markerIndex) + (lineEnd < 0 ? "" : stderr.substring(lineEnd + 1));
+        
         try {
-            // Stop container
-            dockerClient.stopContainerCmd(containerId)
-                .withTimeout(5)
-                .exec();
-            
-            // Remove container
-            dockerClient.removeContainerCmd(containerId)
-                .withForce(true)
-                .exec();
-            
-            logger.info("Cleaned up container: {}", containerId);
-        } catch (Exception e) {
-            logger.error("Error cleaning up container: {}", containerId, e);
-        }
-    }
-    
-    /**
-     * Get Docker image name for language.
-     */
-    private String getImageName(String language) {
-        switch (language.toLowerCase()) {
-            case "java":
-                return "localcode-java:latest";
-            case "python":
-                return "localcode-python:latest";
-            case "javascript":
-                return "localcode-javascript:latest";
-            default:
-                throw new IllegalArgumentException("Unsupported language: " + language);
+            String[] fields = line.split("\\s+");
+            double userSeconds = Double.parseDouble(fields[0]);
+            double systemSeconds = Double.parseDouble(fields[1]);
+            long maxRssKb = Long.parseLong(fields[2]);
+            double elapsedSeconds = Double.parseDouble(fields[3]);
+            long runtimeMs = Math.round(("java".equals(language) ? elapsedSeconds : userSeconds + systemSeconds) * 1000);
+            return new ExecOutput(output.stdout, cleanStderr, output.exitCode, new ResourceMetrics(runtimeMs, maxRssKb));
+        } catch (RuntimeException e) {
+            logger.warn("Could not parse execution metrics: {}", line);
+            return new ExecOutput(output.stdout, cleanStderr, output.exitCode);
         }
     }
     
@@ -537,4 +947,100 @@ public class CodeExecutorService {
             request.setMemoryLimitMb(resourceLimits.getDefaultMemoryLimitMb());
         }
     }
+    
+    /**
+     * Validate the size of every input in a batch.
+     */
+    private void validateInputs(List<String> inputs) {
+        if (inputs == null || inputs.isEmpty()) {
+            throw new IllegalArgumentException("At least one input is required");
+        }
+        
+        for (String input : inputs) {
+            if (input != null && input.getBytes().length / 1024 > resourceLimits.getMaxTestCaseSizeKb()) {
+                throw new IllegalArgumentException("Input size exceeds maximum limit of " + 
+                    resourceLimits.getMaxTestCaseSizeKb() + " KB");
+            }
+        }
+    }
+    
+    /**
+     * One sandbox running inputs of a batch or parallel run.
+     */
+    private static class ExecutionSlot {
+        volatile ExecutionBackend.Sandbox sandbox;
+        volatile boolean tainted;  // A process had to be killed, don't reuse
+        volatile int currentIndex = -1;  // Input running right now, -1 when idle
+        volatile boolean reusable;
+        volatile String runtimeId;
+        volatile int inputCount;
+        volatile SandboxWorker worker;  // Started lazily, replaced when it asks to be recycled
+        volatile boolean workerFailed;  // Run the remaining inputs as their own processes
+    }
+    
+    /**
+     * Shared state of a parallel run: next input to start, where to stop, and results by input index.
+     */
+    private static class ParallelRun {
+        private final AtomicReferenceArray<ExecutionResult> results;
+        private final AtomicInteger nextIndex = new AtomicInteger();
+        private final AtomicInteger stopIndex = new AtomicInteger(Integer.MAX_VALUE);
+        
+        ParallelRun(int inputCount) {
+            this.results = new AtomicReferenceArray<>(inputCount);
+        }
+        
+        /**
+         * Claim the next input to run.
+         *
+         * @return the input index, or -1 when there is nothing left to start
+         */
+        int next() {
+            int index = nextIndex.getAndIncrement();
+            return index < results.length() && index <= stopIndex.get() ? index : -1;
+        }
+        
+        void record(int index, ExecutionResult result) {
+            results.set(index, result);
+        }
+        
+        /**
+         * Stop the run after the given input.
+         *
+         * @return true if this is now the earliest stopping input
+         */
+        boolean stopAt(int index) {
+            return stopIndex.accumulateAndGet(index, Math::min) == index;
+        }
+        
+        void cancel() {
+            stopIndex.set(-1);
+        }
+        
+        /**
+         * Check whether an input is still part of the run (not after the stopping input).
+         */
+        boolean isWithinRun(int index) {
+            return index <= stopIndex.get();
+        }
+        
+        /**
+         * Results in input order up to the stopping input.
+         * Inputs whose slot failed mid-run are reported as execution errors.
+         */
+        List<ExecutionResult> collect(long runtimeMs) {
+            int last = Math.min(stopIndex.get(), results.length() - 1);
+            List<ExecutionResult> collected = new ArrayList<>(last + 1);
+            for (int i = 0; i <= last; i++) {
+                ExecutionResult result = results.get(i);
+                collected.add(result != null ? result : new ExecutionResult(
+                    ExecutionStatus.RUNTIME_ERROR,
+                    "",
+                    "Execution error: no result for input " + i,
+                    new ResourceMetrics(runtimeMs, 0L)
+                ));
+            }
+            return collected;
+        }
+    }
 }
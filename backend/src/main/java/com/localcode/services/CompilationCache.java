@@ -0,0 +1,139 @@
+package com.localcode.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+
+/**
+ * Content-addressed cache of compiled Java submissions.
+ *
+ * Entries are keyed by (source hash, harness hash, runtime image) and hold
+ * either the compiled class files or the compiler output of a failed build.
+ * The cache is bounded by total size and evicts least recently used entries.
+ */
+@Service
+public class CompilationCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(CompilationCache.class);
+
+    private final boolean enabled;
+    private final BoundedCache<String, CompiledArtifact> entries;
+
+    public CompilationCache(@Value("${execution.compile-cache.enabled:true}") boolean enabled,
+                            @Value("${execution.compile-cache.max-size-mb:64}") long maxSizeMb) {
+        this.enabled = enabled;
+        this.entries = new BoundedCache<>(Integer.MAX_VALUE, maxSizeMb * 1024L * 1024L, CompiledArtifact::getSizeBytes);
+    }
+
+    /**
+     * Check whether compiled artifacts for this language can be cached.
+     *
+     * @param language the programming language
+     * @return true for compiled languages when the cache is enabled
+     */
+    public boolean isCacheable(String language) {
+        return enabled && "java".equalsIgnoreCase(language);
+    }
+
+    /**
+     * Build the cache key for a compilation.
+     *
+     * @param code the user's code
+     * @param harness the generated harness
+     * @param imageName the runtime image the code is compiled with
+     * @return content-addressed key
+     */
+    public String key(String code, String harness, String imageName) {
+        return sha256(code) + ":" + sha256(harness) + ":" + imageName;
+    }
+
+    /**
+     * Look up a compiled artifact.
+     *
+     * @param key the cache key
+     * @return the artifact, or null on a miss
+     */
+    public CompiledArtifact get(String key) {
+        return entries.get(key);
+    }
+
+    /**
+     * Store class files from a successful compilation.
+     *
+     * @param key the cache key
+     * @param classFiles class file name to bytes
+     */
+    public void putCompiled(String key, Map<String, byte[]> classFiles) {
+        put(key, new CompiledArtifact(classFiles, null));
+    }
+
+    /**
+     * Store the compiler output of a failed compilation.
+     *
+     * @param key the cache key
+     * @param compileError the compiler's error output
+     */
+    public void putFailed(String key, String compileError) {
+        put(key, new CompiledArtifact(null, compileError));
+    }
+
+    private void put(String key, CompiledArtifact artifact) {
+        // Artifacts larger than the whole cache are not stored
+        entries.put(key, artifact, BoundedCache.NO_EXPIRY);
+        logger.debug("Cached compilation {} ({} entries, {} bytes)", key, entries.size(), entries.weight());
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Result of compiling one source: class files, or the compile error.
+     */
+    public static class CompiledArtifact {
+        private final Map<String, byte[]> classFiles;
+        private final String compileError;
+        private final long sizeBytes;
+
+        CompiledArtifact(Map<String, byte[]> classFiles, String compileError) {
+            this.classFiles = classFiles;
+            this.compileError = compileError;
+
+            long size = compileError != null ? compileError.length() : 0;
+            if (classFiles != null) {
+                for (Map.Entry<String, byte[]> entry : classFiles.entrySet()) {
+                    size += entry.getKey().length() + entry.getValue().length;
+                }
+            }
+            this.sizeBytes = size;
+        }
+
+        public boolean isFailed() {
+            return compileError != null;
+        }
+
+        public Map<String, byte[]> getClassFiles() {
+            return classFiles;
+        }
+
+        public String getCompileError() {
+            return compileError;
+        }
+
+        public long getSizeBytes() {
+            return sizeBytes;
+        }
+    }
+}
@@ -0,0 +1,361 @@
+package com.localcode.services;
+
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.command.CreateContainerResponse;
+import com.github.dockerjava.api.command.ExecCreateCmdResponse;
+import com.github.dockerjava.api.model.HostConfig;
+import com.github.dockerjava.core.command.ExecStartResultCallback;
+import com.localcode.config.ContainerPoolConfig;
+import com.localcode.config.DockerSecurityConfig;
+import com.localcode.config.ResourceLimits;
+import com.localcode.exception.ExecutionException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool of pre-created, pre-started containers for each runtime image.
+ *
+ * Containers are created in the background so an execution only pays for
+ * the exec itself. After use a container is either destroyed (and replaced
+ * by the refill task) or scrubbed and handed out again, depending on the
+ * configured {@link ContainerPoolConfig.ReusePolicy}.
+ */
+@Service
+@ConditionalOnProperty(name = "execution.backend", havingValue = "docker", matchIfMissing = true)
+public class ContainerPool {
+
+    private static final Logger logger = LoggerFactory.getLogger(ContainerPool.class);
+
+    // Kill everything, wipe every writable mount (the root filesystem is read-only) and fail if anything is left
+    private static final String SCRUB_COMMAND = scrubCommand();
+
+    private final DockerClient dockerClient;
+    private final ContainerPoolConfig poolConfig;
+    private final DockerSecurityConfig securityConfig;
+    private final ResourceLimits resourceLimits;
+    private final ContainerReaper containerReaper;
+    private final ImageRegistry imageRegistry;
+
+    private final Map<String, BlockingDeque<PooledContainer>> idleContainers = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> containerCounts = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService maintenanceExecutor = Executors.newScheduledThreadPool(2, runnable -> {
+        Thread thread = new Thread(runnable, "container-pool");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ContainerPool(DockerClient dockerClient,
+                         ContainerPoolConfig poolConfig,
+                         DockerSecurityConfig securityConfig,
+                         ResourceLimits resourceLimits,
+                         ContainerReaper containerReaper,
+                         ImageRegistry imageRegistry) {
+        this.dockerClient = dockerClient;
+        this.poolConfig = poolConfig;
+        this.securityConfig = securityConfig;
+        this.resourceLimits = resourceLimits;
+        this.containerReaper = containerReaper;
+        this.imageRegistry = imageRegistry;
+    }
+
+    /**
+     * Start the background refill task for every configured image.
+     */
+    @PostConstruct
+    public void start() {
+        if (!poolConfig.isEnabled()) {
+            logger.info("Container pool disabled - containers will be created per execution");
+            return;
+        }
+
+        for (String imageName : poolConfig.getImages()) {
+            idleContainers.computeIfAbsent(imageName, k -> new LinkedBlockingDeque<>());
+            containerCounts.computeIfAbsent(imageName, k -> new AtomicInteger());
+            maintenanceExecutor.scheduleWithFixedDelay(
+                () -> maintain(imageName),
+                0,
+                poolConfig.getRefillIntervalMs(),
+                TimeUnit.MILLISECONDS
+            );
+        }
+
+        logger.info("Container pool started for images {} (minIdle={}, maxSize={}, policy={})",
+            poolConfig.getImages(), poolConfig.getMinIdle(), poolConfig.getMaxSize(), poolConfig.getReusePolicy());
+    }
+
+    /**
+     * Check whether pooled execution is enabled.
+     *
+     * @return true if containers should be taken from the pool
+     */
+    public boolean isEnabled() {
+        return poolConfig.isEnabled();
+    }
+
+    /**
+     * Take a running container for the given image.
+     * Falls back to creating one on the caller's thread when no warm container
+     * is available, and waits for a release once the image is at max size.
+     *
+     * @param imageName the runtime image
+     * @param memoryLimitMb memory limit to apply to the container
+     * @return a started container ready for exec
+     */
+    public PooledContainer acquire(String imageName, Integer memoryLimitMb) {
+        BlockingDeque<PooledContainer> idle = idleContainers.computeIfAbsent(imageName, k -> new LinkedBlockingDeque<>());
+
+        PooledContainer container = idle.pollFirst();
+        if (container == null && reserveSlot(imageName)) {
+            try {
+                container = createPooledContainer(imageName);
+            } catch (RuntimeException e) {
+                containerCounts.get(imageName).decrementAndGet();
+                throw e;
+            }
+            logger.debug("Pool empty for {}, created container {} on demand", imageName, container.getContainerId());
+        }
+
+        if (container == null) {
+            try {
+                container = idle.pollFirst(poolConfig.getAcquireTimeoutMs(), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ExecutionException("Interrupted while waiting for a container", "container_acquire", e);
+            }
+            if (container == null) {
+                throw new ExecutionException("No execution container available for " + imageName, "container_acquire");
+            }
+        }
+
+        applyMemoryLimit(container, memoryLimitMb);
+        container.markUsed();
+        return container;
+    }
+
+    /**
+     * Return a container after use.
+     *
+     * @param container the container to release
+     * @param reusable false if the execution ended abnormally and the container must not be reused
+     */
+    public void release(PooledContainer container, boolean reusable) {
+        boolean reuse = reusable
+            && poolConfig.getReusePolicy() == ContainerPoolConfig.ReusePolicy.SCRUB
+            && container.getUses() < poolConfig.getMaxReuses()
+            && !isExpired(container);
+
+        if (reuse && scrub(container)) {
+            idleContainers.get(container.getImageName()).offerFirst(container);
+            return;
+        }
+
+        destroy(container);
+        maintenanceExecutor.execute(() -> maintain(container.getImageName()));
+    }
+
+    /**
+     * Remove every idle container on shutdown.
+     */
+    @PreDestroy
+    public void shutdown() {
+        maintenanceExecutor.shutdownNow();
+        idleContainers.values().forEach(idle -> {
+            PooledContainer container;
+            while ((container = idle.pollFirst()) != null) {
+                containerReaper.remove(container.getContainerId());
+            }
+        });
+    }
+
+    /**
+     * Retire expired idle containers and top the pool back up to minIdle.
+     */
+    private void maintain(String imageName) {
+        try {
+            BlockingDeque<PooledContainer> idle = idleContainers.get(imageName);
+
+            for (PooledContainer container : idle) {
+                if (isExpired(container) && idle.remove(container)) {
+                    destroy(container);
+                }
+            }
+
+            while (idle.size() < poolConfig.getMinIdle() && reserveSlot(imageName)) {
+                try {
+                    idle.offerLast(createPooledContainer(imageName));
+                } catch (RuntimeException e) {
+                    containerCounts.get(imageName).decrementAndGet();
+                    throw e;
+                }
+            }
+        } catch (Exception e) {
+            logger.warn("Failed to refill container pool for {}: {}", imageName, e.getMessage());
+        }
+    }
+
+    /**
+     * Reserve capacity for one more container of the given image.
+     */
+    private boolean reserveSlot(String imageName) {
+        AtomicInteger count = containerCounts.computeIfAbsent(imageName, k -> new AtomicInteger());
+        while (true) {
+            int current = count.get();
+            if (current >= poolConfig.getMaxSize()) {
+                return false;
+            }
+            if (count.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Create and start a long-lived container with the default limits.
+     */
+    private PooledContainer createPooledContainer(String imageName) {
+        Integer memoryLimitMb = resourceLimits.getDefaultMemoryLimitMb();
+        HostConfig hostConfig = securityConfig.createSecureHostConfig(memoryLimitMb);
+
+        if (!securityConfig.validateSecuritySettings(hostConfig)) {
+            throw new ExecutionException("Invalid security configuration for container", "container_creation");
+        }
+
+        try {
+            CreateContainerResponse response = dockerClient.createContainerCmd(imageRegistry.resolve(imageName))
+                .withHostConfig(hostConfig)
+                .withAttachStdout(true)
+                .withAttachStderr(true)
+                .withTty(false)
+                .withCmd("sleep", "infinity")
+                .exec();
+
+            dockerClient.startContainerCmd(response.getId()).exec();
+            logger.debug("Created pooled container {} for image {}", response.getId(), imageName);
+
+            return new PooledContainer(response.getId(), imageName, memoryLimitMb);
+        } catch (Exception e) {
+            imageRegistry.invalidate(imageName);
+            throw new ExecutionException("Failed to create pooled container: " + e.getMessage(), "container_creation", e);
+        }
+    }
+
+    /**
+     * Adjust the container's memory limit if the request needs a different one.
+     * A container whose limit cannot be changed is destroyed rather than leaked.
+     */
+    private void applyMemoryLimit(PooledContainer container, Integer memoryLimitMb) {
+        if (memoryLimitMb == null || memoryLimitMb.equals(container.getMemoryLimitMb())) {
+            return;
+        }
+
+        long memoryLimit = memoryLimitMb * 1024L * 1024L;
+        try {
+            dockerClient.updateContainerCmd(container.getContainerId())
+                .withMemory(memoryLimit)
+                .withMemorySwap(memoryLimit)
+                .exec();
+        } catch (Exception e) {
+            destroy(container);
+            maintenanceExecutor.execute(() -> maintain(container.getImageName()));
+            throw new ExecutionException("Failed to apply memory limit: " + e.getMessage(), "container_acquire", e);
+        }
+        container.setMemoryLimitMb(memoryLimitMb);
+    }
+
+    /**
+     * Kill leftover processes and wipe every writable mount.
+     *
+     * @return true if the container is clean and can be reused
+     */
+    private boolean scrub(PooledContainer container) {
+        try {
+            ExecCreateCmdResponse exec = dockerClient.execCreateCmd(container.getContainerId())
+                .withCmd("sh", "-c", SCRUB_COMMAND)
+                .withUser("root")
+                .withAttachStdout(true)
+                .withAttachStderr(true)
+                .exec();
+
+            boolean completed = dockerClient.execStartCmd(exec.getId())
+                .exec(new ExecStartResultCallback())
+                .awaitCompletion(5, TimeUnit.SECONDS);
+
+            Long exitCode = dockerClient.inspectExecCmd(exec.getId()).exec().getExitCodeLong();
+            return completed && exitCode != null && exitCode == 0;
+        } catch (Exception e) {
+            logger.warn("Failed to scrub container {}: {}", container.getContainerId(), e.getMessage());
+            return false;
+        }
+    }
+
+    private static String scrubCommand() {
+        String dirs = DockerSecurityConfig.WORKING_DIR + " " + String.join(" ", DockerSecurityConfig.SCRATCH_DIRS);
+        String leftovers = "find " + dirs + " -mindepth 1 -maxdepth 1 ! -path " + DockerSecurityConfig.WORKING_DIR;
+        return "kill -9 -1 2>/dev/null; " + leftovers + " -exec rm -rf {} + 2>/dev/null; "
+            + "test -z \"$(" + leftovers + " 2>/dev/null | head -n 1)\"";
+    }
+
+    private boolean isExpired(PooledContainer container) {
+        long ageMs = System.currentTimeMillis() - container.getCreatedAt();
+        return ageMs > poolConfig.getMaxContainerAgeSeconds() * 1000L;
+    }
+
+    private void destroy(PooledContainer container) {
+        containerCounts.get(container.getImageName()).decrementAndGet();
+        containerReaper.reap(container.getContainerId());
+    }
+
+    /**
+     * A running container owned by the pool.
+     */
+    public static class PooledContainer {
+        private final String containerId;
+        private final String imageName;
+        private final long createdAt;
+        private Integer memoryLimitMb;
+        private int uses;
+
+        PooledContainer(String containerId, String imageName, Integer memoryLimitMb) {
+            this.containerId = containerId;
+            this.imageName = imageName;
+            this.memoryLimitMb = memoryLimitMb;
+            this.createdAt = System.currentTimeMillis();
+        }
+
+        public String getContainerId() {
+            return containerId;
+        }
+
+        public String getImageName() {
+            return imageName;
+        }
+
+        public long getCreatedAt() {
+            return createdAt;
+        }
+
+        public Integer getMemoryLimitMb() {
+            return memoryLimitMb;
+        }
+
+        void setMemoryLimitMb(Integer memoryLimitMb) {
+            this.memoryLimitMb = memoryLimitMb;
+        }
+
+        public int getUses() {
+            return uses;
+        }
+
+        void markUsed() {
+            uses++;
+        }
+    }
+}
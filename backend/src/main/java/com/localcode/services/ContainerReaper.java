@@ -0,0 +1,94 @@
+package com.localcode.services;
+
+import com.github.dockerjava.api.DockerClient;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Removes finished containers in the background.
+ *
+ * Containers are force-removed (SIGKILL, no stop grace period) on a dedicated
+ * thread, so judge workers hand their slot back without waiting on Docker.
+ */
+@Service
+@ConditionalOnProperty(name = "execution.backend", havingValue = "docker", matchIfMissing = true)
+public class ContainerReaper {
+
+    private static final Logger logger = LoggerFactory.getLogger(ContainerReaper.class);
+
+    private final DockerClient dockerClient;
+    private final AtomicInteger pending = new AtomicInteger();
+    private final ExecutorService reaperExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "container-reaper");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ContainerReaper(DockerClient dockerClient, MeterRegistry meterRegistry) {
+        this.dockerClient = dockerClient;
+        Gauge.builder("container.reaper.pending", pending, AtomicInteger::get)
+            .description("Containers waiting to be removed")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Queue a container for removal.
+     *
+     * @param containerId the container to remove
+     */
+    public void reap(String containerId) {
+        pending.incrementAndGet();
+        try {
+            reaperExecutor.execute(() -> {
+                try {
+                    remove(containerId);
+                } finally {
+                    pending.decrementAndGet();
+                }
+            });
+        } catch (RuntimeException e) {
+            // Executor already shut down, remove on the caller's thread
+            pending.decrementAndGet();
+            remove(containerId);
+        }
+    }
+
+    /**
+     * Remove a container on the caller's thread.
+     *
+     * @param containerId the container to remove
+     */
+    public void remove(String containerId) {
+        try {
+            dockerClient.removeContainerCmd(containerId)
+                .withForce(true)
+                .withRemoveVolumes(true)  // The anonymous working directory volume
+                .exec();
+            logger.debug("Removed container: {}", containerId);
+        } catch (Exception e) {
+            logger.error("Error removing container: {}", containerId, e);
+        }
+    }
+
+    /**
+     * Finish queued removals on shutdown.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        reaperExecutor.shutdown();
+        if (!reaperExecutor.awaitTermination(30, TimeUnit.SECONDS)) {
+            logger.warn("{} containers were not removed before shutdown", pending.get());
+            reaperExecutor.shutdownNow();
+        }
+    }
+}
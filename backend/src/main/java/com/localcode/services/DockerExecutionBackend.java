@@ -0,0 +1,309 @@
+package com.localcode.services;
+
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.async.ResultCallback;
+import com.github.dockerjava.api.command.CreateContainerResponse;
+import com.github.dockerjava.api.command.ExecCreateCmdResponse;
+import com.github.dockerjava.api.model.Frame;
+import com.github.dockerjava.api.model.HostConfig;
+import com.github.dockerjava.api.model.StreamType;
+import com.github.dockerjava.core.command.ExecStartResultCallback;
+import com.localcode.config.DockerSecurityConfig;
+import com.localcode.dto.ExecutionRequest;
+import com.localcode.exception.ExecutionException;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Execution backend running code in Docker containers.
+ * Containers come from the warm pool, or are created per execution when the pool is disabled.
+ */
+@Service
+@ConditionalOnProperty(name = "execution.backend", havingValue = "docker", matchIfMissing = true)
+public class DockerExecutionBackend implements ExecutionBackend {
+
+    private static final Logger logger = LoggerFactory.getLogger(DockerExecutionBackend.class);
+
+    private static final String WORKING_DIR = DockerSecurityConfig.WORKING_DIR;
+
+    private final DockerClient dockerClient;
+    private final DockerSecurityConfig securityConfig;
+    private final ContainerPool containerPool;
+    private final ContainerReaper containerReaper;
+    private final ImageRegistry imageRegistry;
+
+    public DockerExecutionBackend(DockerClient dockerClient, DockerSecurityConfig securityConfig,
+                                  ContainerPool containerPool, ContainerReaper containerReaper,
+                                  ImageRegistry imageRegistry) {
+        this.dockerClient = dockerClient;
+        this.securityConfig = securityConfig;
+        this.containerPool = containerPool;
+        this.containerReaper = containerReaper;
+        this.imageRegistry = imageRegistry;
+        logger.info("Using Docker execution backend");
+    }
+
+    @Override
+    public String runtimeId(String language) {
+        return imageRegistry.resolve(imageRegistry.getImageName(language));
+    }
+
+    /**
+     * Take a container from the pool, or create and start a one-off container.
+     */
+    @Override
+    public Sandbox acquire(String language, ExecutionRequest request, int inputCount) {
+        String imageName = imageRegistry.getImageName(language);
+
+        if (containerPool.isEnabled()) {
+            // Take a warm, already started container from the pool
+            ContainerPool.PooledContainer pooledContainer = containerPool.acquire(imageName, request.getMemoryLimitMb());
+            logger.info("Acquired pooled container: {}", pooledContainer.getContainerId());
+            return new ContainerSandbox(pooledContainer.getContainerId(), pooledContainer);
+        }
+
+        // Create container with security and resource limits, living long enough for every input
+        int lifetimeSeconds = securityConfig.getMaxContainerLifetime()
+            + inputCount * (request.getTimeLimitMs() / 1000 + 1);
+        String containerId = createContainer(imageName, request, lifetimeSeconds);
+
+        logger.info("Container created!");
+
+        // Start container
+        dockerClient.startContainerCmd(containerId).exec();
+        logger.info("Started container: {}", containerId);
+
+        return new ContainerSandbox(containerId, null);
+    }
+
+    /**
+     * Create a Docker container with security and resource limits.
+     */
+    private String createContainer(String imageName, ExecutionRequest request, int lifetimeSeconds) {
+        logger.info("Creating container with image: {}", imageName);
+
+        // Pin the container to the image ID verified by the registry
+        String imageId = imageRegistry.resolve(imageName);
+
+        // Create secure host config using security configuration
+        HostConfig hostConfig = securityConfig.createSecureHostConfig(request.getMemoryLimitMb());
+        logger.info("Secure hostconfig created with memory limit: {}MB", request.getMemoryLimitMb());
+
+        // Validate security settings
+        if (!securityConfig.validateSecuritySettings(hostConfig)) {
+            throw new ExecutionException("Invalid security configuration for container", "container_creation");
+        }
+        logger.info("Security settings validated");
+
+        try {
+            // Create container
+            CreateContainerResponse container = dockerClient.createContainerCmd(imageId)
+                .withHostConfig(hostConfig)
+                .withAttachStdout(true)
+                .withAttachStderr(true)
+                .withTty(false)
+                .withCmd("sleep", String.valueOf(lifetimeSeconds))
+                .exec();
+
+            logger.info("Created secure container: {} with image: {}", container.getId(), imageName);
+            return container.getId();
+        } catch (Exception e) {
+            // The image may have been removed or rebuilt, resolve it again next time
+            imageRegistry.invalidate(imageName);
+            logger.error("Failed to create container with image {}: {}", imageName, e.getMessage(), e);
+            throw new ExecutionException("Failed to create container: " + e.getMessage(), "container_creation");
+        }
+    }
+
+    /**
+     * Container used for one batch, either pooled or one-off.
+     */
+    private class ContainerSandbox implements Sandbox {
+        private final String containerId;
+        private final ContainerPool.PooledContainer pooledContainer;
+
+        ContainerSandbox(String containerId, ContainerPool.PooledContainer pooledContainer) {
+            this.containerId = containerId;
+            this.pooledContainer = pooledContainer;
+        }
+
+        @Override
+        public String getId() {
+            return containerId;
+        }
+
+        /**
+         * Write all files to the container in a single copy.
+         * The files are packed into an in-memory tar archive, nothing touches the host disk.
+         */
+        @Override
+        public void writeFiles(Map<String, byte[]> files) throws IOException {
+            ByteArrayOutputStream archive = new ByteArrayOutputStream();
+
+            try (TarArchiveOutputStream tar = new TarArchiveOutputStream(archive)) {
+                tar.setLongFileMode(TarArchiveOutputStream.LONGFILE_POSIX);
+                for (Map.Entry<String, byte[]> file : files.entrySet()) {
+                    TarArchiveEntry entry = new TarArchiveEntry(file.getKey());
+                    entry.setSize(file.getValue().length);
+                    entry.setMode(0644);
+                    entry.setModTime(System.currentTimeMillis());
+                    tar.putArchiveEntry(entry);
+                    tar.write(file.getValue());
+                    tar.closeArchiveEntry();
+                }
+            }
+
+            dockerClient.copyArchiveToContainerCmd(containerId)
+                .withTarInputStream(new ByteArrayInputStream(archive.toByteArray()))
+                .withRemotePath(WORKING_DIR + "/")
+                .exec();
+        }
+
+        @Override
+        public Map<String, byte[]> readFiles(String suffix) throws IOException {
+            Map<String, byte[]> files = new HashMap<>();
+
+            try (InputStream archive = dockerClient.copyArchiveFromContainerCmd(containerId, WORKING_DIR + "/").exec();
+                 TarArchiveInputStream tar = new TarArchiveInputStream(archive)) {
+                TarArchiveEntry entry;
+                while ((entry = tar.getNextTarEntry()) != null) {
+                    String name = Paths.get(entry.getName()).getFileName().toString();
+                    if (entry.isFile() && name.endsWith(suffix)) {
+                        files.put(name, tar.readAllBytes());
+                    }
+                }
+            }
+
+            return files;
+        }
+
+        @Override
+        public ExecOutput exec(String[] command, long timeoutMs) throws InterruptedException {
+            // Create exec instance
+            ExecCreateCmdResponse execCreateCmdResponse = dockerClient.execCreateCmd(containerId)
+                .withCmd(command)
+                .withAttachStdout(true)
+                .withAttachStderr(true)
+                .withWorkingDir(WORKING_DIR)
+                .exec();
+
+            ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+            ByteArrayOutputStream stderr = new ByteArrayOutputStream();
+
+            ExecStartResultCallback callback = new ExecStartResultCallback(stdout, stderr);
+
+            dockerClient.execStartCmd(execCreateCmdResponse.getId())
+                .exec(callback);
+
+            if (!callback.awaitCompletion(timeoutMs, TimeUnit.MILLISECONDS)) {
+                return null;
+            }
+
+            // Get exit code
+            Integer exitCode = dockerClient.inspectExecCmd(execCreateCmdResponse.getId())
+                .exec()
+                .getExitCodeLong()
+                .intValue();
+
+            return new ExecOutput(stdout.toString(), stderr.toString(), exitCode);
+        }
+
+        @Override
+        public WorkerProcess startWorker(String[] command, long lifetimeMs) {
+            ExecCreateCmdResponse execCreateCmdResponse = dockerClient.execCreateCmd(containerId)
+                .withCmd(command)
+                .withAttachStdin(true)
+                .withAttachStdout(true)
+                .withAttachStderr(true)
+                .withWorkingDir(WORKING_DIR)
+                .exec();
+
+            LineChannel channel = new LineChannel();
+            ResultCallback.Adapter<Frame> callback = dockerClient.execStartCmd(execCreateCmdResponse.getId())
+                .withStdIn(channel.input())
+                .exec(new ResultCallback.Adapter<Frame>() {
+                    @Override
+                    public void onNext(Frame frame) {
+                        if (frame.getStreamType() == StreamType.STDOUT) {
+                            channel.append(frame.getPayload(), 0, frame.getPayload().length);
+                        }
+                    }
+
+                    @Override
+                    public void onError(Throwable throwable) {
+                        channel.finish();
+                        super.onError(throwable);
+                    }
+
+                    @Override
+                    public void onComplete() {
+                        channel.finish();
+                        super.onComplete();
+                    }
+                });
+
+            return new WorkerProcess() {
+                @Override
+                public void send(String line) {
+                    channel.send(line);
+                }
+
+                @Override
+                public String receive(long timeoutMs) throws IOException, InterruptedException {
+                    return channel.receive(timeoutMs);
+                }
+
+                @Override
+                public void close() {
+                    channel.closeInput();
+                    try {
+                        callback.close();
+                    } catch (IOException e) {
+                        logger.debug("Could not close worker stream in container {}: {}", containerId, e.getMessage());
+                    }
+                }
+            };
+        }
+
+        @Override
+        public void killProcesses() {
+            try {
+                ExecCreateCmdResponse exec = dockerClient.execCreateCmd(containerId)
+                    .withCmd("sh", "-c", "kill -9 -1 2>/dev/null; exit 0")
+                    .withUser("root")
+                    .exec();
+                dockerClient.execStartCmd(exec.getId())
+                    .exec(new ExecStartResultCallback())
+                    .awaitCompletion(5, TimeUnit.SECONDS);
+            } catch (Exception e) {
+                logger.warn("Could not kill processes in container: {}", containerId);
+            }
+        }
+
+        /**
+         * Return a pooled container, or hand the one-off container to the reaper.
+         */
+        @Override
+        public void release(boolean reusable) {
+            if (pooledContainer != null) {
+                containerPool.release(pooledContainer, reusable);
+            } else {
+                containerReaper.reap(containerId);
+            }
+        }
+    }
+}
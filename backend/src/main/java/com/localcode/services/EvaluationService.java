@@ -5,13 +5,18 @@ import com.localcode.exception.ResourceNotFoundException;
 import com.localcode.exception.ValidationException;
 import com.localcode.persistence.entity.*;
 import com.localcode.persistence.repository.*;
+import org.hibernate.Hibernate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.ObjIntConsumer;
+import java.util.stream.Collectors;
 
 /**
  * Service for evaluating code submissions against test cases.
@@ -25,55 +30,68 @@ public class EvaluationService {
     private final ProblemRepository problemRepository;
     private final TestCaseRepository testCaseRepository;
     private final CustomTestCaseRepository customTestCaseRepository;
-    private final TestResultRepository testResultRepository;
     private final CodeExecutorService codeExecutorService;
     private final SubmissionService submissionService;
+    private final SubmissionEventPublisher submissionEventPublisher;
+    private final VerdictCache verdictCache;
+    private final RunResultCache runResultCache;
+    private final TransactionTemplate readOnlyTransaction;
+    
+    @Value("${execution.batch.enabled:true}")
+    private boolean batchEnabled;
+    
+    @Value("${execution.parallel.enabled:false}")
+    private boolean parallelEnabled;
+    
+    @Value("${execution.parallel.slots:4}")
+    private int parallelSlots;
     
     public EvaluationService(SubmissionRepository submissionRepository,
                            ProblemRepository problemRepository,
                            TestCaseRepository testCaseRepository,
                            CustomTestCaseRepository customTestCaseRepository,
-                           TestResultRepository testResultRepository,
                            CodeExecutorService codeExecutorService,
-                           SubmissionService submissionService) {
+                           SubmissionService submissionService,
+                           SubmissionEventPublisher submissionEventPublisher,
+                           VerdictCache verdictCache,
+                           RunResultCache runResultCache,
+                           PlatformTransactionManager transactionManager) {
         this.submissionRepository = submissionRepository;
         this.problemRepository = problemRepository;
         this.testCaseRepository = testCaseRepository;
         this.customTestCaseRepository = customTestCaseRepository;
-        this.testResultRepository = testResultRepository;
         this.codeExecutorService = codeExecutorService;
         this.submissionService = submissionService;
+        this.submissionEventPublisher = submissionEventPublisher;
+        this.verdictCache = verdictCache;
+        this.runResultCache = runResultCache;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
     }
     
     /**
      * Evaluate a submission by running it against all test cases.
+     * Runs in three phases so no database connection is held while containers run:
+     * a short read-only transaction loads the submission and test cases, the code is
+     * executed with no transaction open, and all results are written in one short transaction.
      *
      * @param submissionId the submission ID
      * @return evaluation result with aggregated test results
      */
-    @Transactional
     public EvaluationResult evaluate(Long submissionId) {
         logger.info("Starting evaluation for submission: {}", submissionId);
         
-        // Get submission
-        Submission submission = submissionRepository.findById(submissionId)
-            .orElseThrow(() -> new ResourceNotFoundException("Submission", "id", submissionId));
-        
-        Problem problem = submission.getProblem();
-        User user = submission.getUser();
-        
-        // Collect all test cases (default + custom)
-        List<TestCaseData> allTestCases = collectTestCases(problem.getId(), user.getId());
-        
-        if (allTestCases.isEmpty()) {
-            logger.warn("No test cases found for problem: {}", problem.getId());
-            throw new ValidationException("No test cases available for evaluation");
-        }
+        // Read phase: load everything execution needs, then release the connection
+        EvaluationInput evaluationInput = readOnlyTransaction.execute(status -> loadEvaluationInput(submissionId));
+        Submission submission = evaluationInput.submission;
+        Problem problem = evaluationInput.problem;
+        List<TestCaseData> allTestCases = evaluationInput.testCases;
         
         logger.info("Evaluating submission against {} test cases", allTestCases.size());
         
-        // Execute code against each test case
+        // Execute phase: run code against each test case, no connection held
         List<TestResultDTO> testResults = new ArrayList<>();
+        List<TestResult> pendingResults = new ArrayList<>();
         int passedCount = 0;
         int maxRuntimeMs = 0;
         long maxMemoryKb = 0;
@@ -96,111 +114,214 @@ public class EvaluationService {
                 break;
         }
         
-        for (TestCaseData testCase : allTestCases) {
-            // Execute code
-            ExecutionRequest execRequest = new ExecutionRequest(
-                submission.getCode(),
-                submission.getLanguage(),
-                methodToCall.toString(),
-                testCase.input,
-                problem.getTimeLimitMs(),
-                problem.getMemoryLimitMb()
-            );
+        // Identical code against the same test cases and limits was judged before: reuse that verdict
+        List<String[]> testSet = allTestCases.stream()
+            .map(tc -> new String[] { String.valueOf(tc.id), tc.input, tc.expectedOutput })
+            .collect(Collectors.toList());
+        String cacheKey = verdictCache.key(
+            problem.getId(),
+            testSet,
+            submission.getLanguage(),
+            submission.getCode(),
+            methodToCall.toString(),
+            problem.getTimeLimitMs(),
+            problem.getMemoryLimitMb()
+        );
+        VerdictCache.CachedVerdict cachedVerdict = verdictCache.get(cacheKey);
+        
+        if (cachedVerdict != null) {
+            logger.info("Reusing cached verdict for submission: {}", submissionId);
+            finalStatus = cachedVerdict.getStatus();
+            passedCount = cachedVerdict.getPassedCount();
+            maxRuntimeMs = cachedVerdict.getMaxRuntimeMs();
+            maxMemoryKb = cachedVerdict.getMaxMemoryKb();
             
-            ExecutionResult execResult = codeExecutorService.runInContainer(execRequest);
+            List<VerdictCache.CachedCase> cachedCases = cachedVerdict.getCases();
+            for (int i = 0; i < cachedCases.size(); i++) {
+                VerdictCache.CachedCase cachedCase = cachedCases.get(i);
+                TestCaseData testCase = allTestCases.get(i);
+                
+                TestResult testResult = new TestResult();
+                testResult.setTestCaseId(testCase.id);
+                testResult.setPassed(cachedCase.isPassed());
+                testResult.setActualOutput(cachedCase.getActualOutput());
+                testResult.setErrorMessage(cachedCase.getErrorMessage());
+                testResult.setRuntimeMs(cachedCase.getRuntimeMs());
+                testResult.setMemoryKb(cachedCase.getMemoryKb());
+                pendingResults.add(testResult);
+                
+                TestResultDTO dto = new TestResultDTO(
+                    null,
+                    testCase.id,
+                    cachedCase.isPassed(),
+                    testCase.input,
+                    testCase.expectedOutput,
+                    cachedCase.getActualOutput(),
+                    cachedCase.getErrorMessage(),
+                    cachedCase.getRuntimeMs(),
+                    cachedCase.getMemoryKb(),
+                    testCase.isCustom
+                );
+                testResults.add(dto);
+                
+                if (submissionEventPublisher.hasSubscribers(submissionId)) {
+                    submissionEventPublisher.publishProgress(submissionId,
+                        new SubmissionProgressEvent(submissionId, i, allTestCases.size(), dto));
+                }
+            }
+        } else {
+            // Infrastructure failures and time limits (which depend on host load) are not reused
+            boolean cacheable = true;
             
-            // Check for TLE or MLE
-            boolean isTLE = checkTimeLimitExceeded(
-                execResult.getMetrics().getRuntimeMs(), 
-                problem.getTimeLimitMs()
-            );
+            // In batch mode all test cases run in one container and the code is compiled once.
+            // In parallel mode they are spread over several containers, results still come back in order.
+            // Either way each finished case is pushed to clients watching the submission.
+            List<ExecutionResult> batchResults = null;
+            if (parallelEnabled || batchEnabled) {
+                ExecutionRequest batchRequest = new ExecutionRequest(
+                    submission.getCode(),
+                    submission.getLanguage(),
+                    methodToCall.toString(),
+                    null,
+                    problem.getTimeLimitMs(),
+                    problem.getMemoryLimitMb()
+                );
+                List<String> inputs = allTestCases.stream()
+                    .map(tc -> tc.input)
+                    .collect(Collectors.toList());
+                ObjIntConsumer<ExecutionResult> progressListener =
+                    (result, index) -> publishProgress(submissionId, index, allTestCases, result, problem);
             
-            boolean isMLE = checkMemoryLimitExceeded(
-                execResult.getMetrics().getMemoryKb(), 
-                problem.getMemoryLimitMb()
-            );
+                BatchExecutionResult batch = parallelEnabled
+                    ? codeExecutorService.runParallelInContainers(
+                        batchRequest,
+                        inputs,
+                        result -> isFatalResult(result, problem),
+                        parallelSlots,
+                        progressListener)
+                    : codeExecutorService.runBatchInContainer(
+                        batchRequest,
+                        inputs,
+                        result -> isFatalResult(result, problem),
+                        progressListener);
+                batchResults = batch.getResults();
+            }
+        
+            for (int i = 0; i < allTestCases.size(); i++) {
+                TestCaseData testCase = allTestCases.get(i);
+                ExecutionResult execResult;
             
-            // Determine if test passed
-            boolean passed = false;
-            String errorMessage = null;
+                if (batchResults != null) {
+                    // Batch stopped early, remaining cases were not run
+                    if (i >= batchResults.size()) {
+                        break;
+                    }
+                    execResult = batchResults.get(i);
+                } else {
+                    // Execute code
+                    ExecutionRequest execRequest = new ExecutionRequest(
+                        submission.getCode(),
+                        submission.getLanguage(),
+                        methodToCall.toString(),
+                        testCase.input,
+                        problem.getTimeLimitMs(),
+                        problem.getMemoryLimitMb()
+                    );
+                
+                    execResult = codeExecutorService.runInContainer(execRequest);
+                    publishProgress(submissionId, i, allTestCases, execResult, problem);
+                }
             
-            if (isTLE) {
-                finalStatus = SubmissionStatus.TIME_LIMIT_EXCEEDED;
-                errorMessage = "Time limit exceeded";
-            } else if (isMLE) {
-                finalStatus = SubmissionStatus.MEMORY_LIMIT_EXCEEDED;
-                errorMessage = "Memory limit exceeded";
-            } else if (execResult.getStatus() == ExecutionStatus.COMPILATION_ERROR) {
-                finalStatus = SubmissionStatus.COMPILATION_ERROR;
-                errorMessage = execResult.getErrorMessage();
-            } else if (execResult.getStatus() == ExecutionStatus.RUNTIME_ERROR) {
-                finalStatus = SubmissionStatus.RUNTIME_ERROR;
-                errorMessage = execResult.getErrorMessage();
-            } else if (execResult.getStatus() == ExecutionStatus.SUCCESS) {
-                // Compare output
-                passed = compareOutput(execResult.getOutput(), testCase.expectedOutput);
-                if (!passed && finalStatus == SubmissionStatus.ACCEPTED) {
-                    finalStatus = SubmissionStatus.WRONG_ANSWER;
+                CaseVerdict verdict = judgeCase(execResult, testCase, problem);
+                if (isExecutionFailure(execResult)) {
+                    cacheable = false;
                 }
-            }
             
-            if (passed) {
-                passedCount++;
-            }
+                // TLE, MLE, compilation and runtime errors decide the verdict, wrong answer only replaces ACCEPTED
+                if (verdict.status == SubmissionStatus.WRONG_ANSWER) {
+                    if (finalStatus == SubmissionStatus.ACCEPTED) {
+                        finalStatus = SubmissionStatus.WRONG_ANSWER;
+                    }
+                } else if (verdict.status != SubmissionStatus.ACCEPTED) {
+                    finalStatus = verdict.status;
+                }
             
-            // Track max runtime and memory
-            maxRuntimeMs = Math.max(maxRuntimeMs, 
-                execResult.getMetrics().getRuntimeMs().intValue());
-            maxMemoryKb = Math.max(maxMemoryKb, 
-                execResult.getMetrics().getMemoryKb());
+                if (verdict.passed) {
+                    passedCount++;
+                }
             
-            // Create and save test result
-            TestResult testResult = new TestResult();
-            testResult.setSubmission(submission);
-            testResult.setTestCaseId(testCase.id);
-            testResult.setPassed(passed);
-            testResult.setActualOutput(execResult.getOutput());
-            testResult.setErrorMessage(errorMessage != null ? errorMessage : execResult.getErrorMessage());
-            testResult.setRuntimeMs(execResult.getMetrics().getRuntimeMs().intValue());
-            testResult.setMemoryKb(execResult.getMetrics().getMemoryKb().intValue());
+                // Track max runtime and memory
+                maxRuntimeMs = Math.max(maxRuntimeMs, 
+                    execResult.getMetrics().getRuntimeMs().intValue());
+                maxMemoryKb = Math.max(maxMemoryKb, 
+                    execResult.getMetrics().getMemoryKb());
             
-            testResult = testResultRepository.save(testResult);
+                // Create test result, persisted with the others once execution is done
+                TestResult testResult = new TestResult();
+                testResult.setTestCaseId(testCase.id);
+                testResult.setPassed(verdict.passed);
+                testResult.setActualOutput(execResult.getOutput());
+                testResult.setErrorMessage(verdict.errorMessage);
+                testResult.setRuntimeMs(execResult.getMetrics().getRuntimeMs().intValue());
+                testResult.setMemoryKb(execResult.getMetrics().getMemoryKb().intValue());
+                pendingResults.add(testResult);
             
-            // Create DTO
-            TestResultDTO resultDTO = new TestResultDTO(
-                testResult.getId(),
-                testCase.id,
-                passed,
-                testCase.input,
-                testCase.expectedOutput,
-                execResult.getOutput(),
-                errorMessage != null ? errorMessage : execResult.getErrorMessage(),
-                execResult.getMetrics().getRuntimeMs().intValue(),
-                execResult.getMetrics().getMemoryKb().intValue(),
-                testCase.isCustom
-            );
+                // Create DTO (ID is filled in after the write phase)
+                testResults.add(toTestResultDTO(verdict, execResult, testCase));
             
-            testResults.add(resultDTO);
+                // Stop evaluation early if compilation or runtime error
+                if (finalStatus == SubmissionStatus.COMPILATION_ERROR || 
+                    finalStatus == SubmissionStatus.RUNTIME_ERROR) {
+                    logger.info("Stopping evaluation early due to: {}", finalStatus);
+                    break;
+                }
+            }
             
-            // Stop evaluation early if compilation or runtime error
-            if (finalStatus == SubmissionStatus.COMPILATION_ERROR || 
-                finalStatus == SubmissionStatus.RUNTIME_ERROR) {
-                logger.info("Stopping evaluation early due to: {}", finalStatus);
-                break;
+            if (cacheable && finalStatus != SubmissionStatus.TIME_LIMIT_EXCEEDED) {
+                List<VerdictCache.CachedCase> cachedCases = pendingResults.stream()
+                    .map(tr -> new VerdictCache.CachedCase(
+                        tr.getPassed(),
+                        tr.getActualOutput(),
+                        tr.getErrorMessage(),
+                        tr.getRuntimeMs(),
+                        tr.getMemoryKb()))
+                    .collect(Collectors.toList());
+                verdictCache.put(cacheKey, new VerdictCache.CachedVerdict(
+                    finalStatus, passedCount, maxRuntimeMs, (int) maxMemoryKb, cachedCases));
             }
         }
         
-        // Update submission with final results
-        submissionService.updateSubmissionResults(
-            submissionId, 
-            finalStatus, 
-            maxRuntimeMs, 
+        // Write phase: persist all test results and the final verdict in one transaction
+        List<TestResult> savedResults = submissionService.recordEvaluationResults(
+            submissionId,
+            pendingResults,
+            finalStatus,
+            maxRuntimeMs,
             (int) maxMemoryKb
         );
+        for (int i = 0; i < savedResults.size(); i++) {
+            testResults.get(i).setId(savedResults.get(i).getId());
+        }
         
         logger.info("Evaluation complete for submission: {} with status: {}", 
             submissionId, finalStatus);
         
+        // Push the final state to clients watching the submission
+        submissionEventPublisher.publishVerdict(submissionId, new SubmissionDetailDTO(
+            submissionId,
+            problem.getId(),
+            problem.getTitle(),
+            submission.getCode(),
+            submission.getLanguage(),
+            finalStatus,
+            maxRuntimeMs,
+            (int) maxMemoryKb,
+            submission.getSubmittedAt(),
+            testResults,
+            testResults.size(),
+            passedCount
+        ));
+        
         return new EvaluationResult(
             submissionId,
             finalStatus,
@@ -212,9 +333,82 @@ public class EvaluationService {
         );
     }
     
+    /**
+     * Push the result of one finished test case to clients watching the submission.
+     */
+    private void publishProgress(Long submissionId, int index, List<TestCaseData> testCases,
+                                 ExecutionResult execResult, Problem problem) {
+        if (!submissionEventPublisher.hasSubscribers(submissionId)) {
+            return;
+        }
+        
+        TestCaseData testCase = testCases.get(index);
+        CaseVerdict verdict = judgeCase(execResult, testCase, problem);
+        submissionEventPublisher.publishProgress(submissionId, new SubmissionProgressEvent(
+            submissionId,
+            index,
+            testCases.size(),
+            toTestResultDTO(verdict, execResult, testCase)
+        ));
+    }
+    
+    /**
+     * Judge one test case: decide whether it passed and which verdict it implies.
+     * TLE and MLE are checked against the problem's limits before the execution status.
+     * The executor's TLE and MLE are verdicts of their own: runtime is CPU time for most
+     * languages, so a program killed at the wall-clock limit (e.g. sleeping or blocked)
+     * or OOM-killed can report metrics below the limits.
+     */
+    private CaseVerdict judgeCase(ExecutionResult execResult, TestCaseData testCase, Problem problem) {
+        boolean isTLE = checkTimeLimitExceeded(
+            execResult.getMetrics().getRuntimeMs(), 
+            problem.getTimeLimitMs()
+        );
+        
+        boolean isMLE = checkMemoryLimitExceeded(
+            execResult.getMetrics().getMemoryKb(), 
+            problem.getMemoryLimitMb()
+        );
+        
+        if (isTLE || execResult.getStatus() == ExecutionStatus.TLE) {
+            return new CaseVerdict(SubmissionStatus.TIME_LIMIT_EXCEEDED, false, "Time limit exceeded");
+        } else if (isMLE || execResult.getStatus() == ExecutionStatus.MLE) {
+            return new CaseVerdict(SubmissionStatus.MEMORY_LIMIT_EXCEEDED, false, "Memory limit exceeded");
+        } else if (execResult.getStatus() == ExecutionStatus.COMPILATION_ERROR) {
+            return new CaseVerdict(SubmissionStatus.COMPILATION_ERROR, false, execResult.getErrorMessage());
+        } else if (execResult.getStatus() == ExecutionStatus.SUCCESS) {
+            // Compare output
+            boolean passed = compareOutput(execResult.getOutput(), testCase.expectedOutput);
+            return new CaseVerdict(
+                passed ? SubmissionStatus.ACCEPTED : SubmissionStatus.WRONG_ANSWER,
+                passed,
+                execResult.getErrorMessage()
+            );
+        }
+        
+        // RUNTIME_ERROR, and anything without a status, fails the case
+        return new CaseVerdict(SubmissionStatus.RUNTIME_ERROR, false, execResult.getErrorMessage());
+    }
+    
+    private TestResultDTO toTestResultDTO(CaseVerdict verdict, ExecutionResult execResult, TestCaseData testCase) {
+        return new TestResultDTO(
+            null,
+            testCase.id,
+            verdict.passed,
+            testCase.input,
+            testCase.expectedOutput,
+            execResult.getOutput(),
+            verdict.errorMessage,
+            execResult.getMetrics().getRuntimeMs().intValue(),
+            execResult.getMetrics().getMemoryKb().intValue(),
+            testCase.isCustom
+        );
+    }
+    
     /**
      * Run code against sample test cases only (no submission created).
      * Used for the "Run" button to test code before submitting.
+     * The result is stored in the run cache; see {@link #getCachedRun}.
      *
      * @param problemId the problem ID
      * @param code the code to run
@@ -244,21 +438,61 @@ public class EvaluationService {
         int passedCount = 0;
         int maxRuntimeMs = 0;
         long maxMemoryKb = 0;
+        
+        // Infrastructure failures and time limits (which depend on host load) are not cached
+        boolean cacheable = true;
 
 
         
-        for (TestCase testCase : sampleTestCases) {
-            // Execute code
-            ExecutionRequest execRequest = new ExecutionRequest(
+        // In batch mode all sample cases run in one container and the code is compiled once
+        List<ExecutionResult> batchResults = null;
+        if (batchEnabled) {
+            ExecutionRequest batchRequest = new ExecutionRequest(
                 code,
                 language,
                 "",
-                testCase.getInput(),
+                null,
                 problem.getTimeLimitMs(),
                 problem.getMemoryLimitMb()
             );
+            List<String> inputs = sampleTestCases.stream()
+                .map(TestCase::getInput)
+                .collect(Collectors.toList());
             
-            ExecutionResult execResult = codeExecutorService.runInContainer(execRequest);
+            batchResults = codeExecutorService.runBatchInContainer(
+                batchRequest,
+                inputs,
+                result -> result.getStatus() == ExecutionStatus.COMPILATION_ERROR
+            ).getResults();
+        }
+        
+        for (int i = 0; i < sampleTestCases.size(); i++) {
+            TestCase testCase = sampleTestCases.get(i);
+            ExecutionResult execResult;
+            
+            if (batchResults != null) {
+                // Batch stopped early, remaining cases were not run
+                if (i >= batchResults.size()) {
+                    break;
+                }
+                execResult = batchResults.get(i);
+            } else {
+                // Execute code
+                ExecutionRequest execRequest = new ExecutionRequest(
+                    code,
+                    language,
+                    "",
+                    testCase.getInput(),
+                    problem.getTimeLimitMs(),
+                    problem.getMemoryLimitMb()
+                );
+                
+                execResult = codeExecutorService.runInContainer(execRequest);
+            }
+            
+            if (isExecutionFailure(execResult)) {
+                cacheable = false;
+            }
             
             // Determine if test passed
             boolean passed = false;
@@ -270,6 +504,7 @@ public class EvaluationService {
                 errorMessage = execResult.getErrorMessage();
             } else if (execResult.getStatus() == ExecutionStatus.TLE) {
                 errorMessage = "Time limit exceeded";
+                cacheable = false;
             } else if (execResult.getStatus() == ExecutionStatus.MLE) {
                 errorMessage = "Memory limit exceeded";
             } else if (execResult.getStatus() == ExecutionStatus.SUCCESS) {
@@ -315,7 +550,7 @@ public class EvaluationService {
             problemId, passedCount, sampleTestCases.size());
        
         // REDUNDANT: TBR
-        return new RunResult(
+        RunResult runResult = new RunResult(
             problemId,
             sampleTestCases.size(),
             passedCount,
@@ -323,6 +558,58 @@ public class EvaluationService {
             (int) maxMemoryKb,
             testResults
         );
+        
+        if (cacheable && runResultCache.isEnabled()) {
+            runResultCache.put(problemId, sampleSetVersion(problem, sampleTestCases), language, code, runResult);
+        }
+        
+        return runResult;
+    }
+    
+    /**
+     * Get the cached result of an identical recent run, if any.
+     * Lets callers answer a repeated Run without queueing it.
+     *
+     * @param problemId the problem ID
+     * @param code the code to run
+     * @param language the programming language
+     * @return the cached run result, or null
+     */
+    public RunResult getCachedRun(Long problemId, String code, String language) {
+        // Looked up under the sample set the problem last ran against, without querying the database
+        return runResultCache.get(problemId, language, code);
+    }
+
+    /**
+     * Version of a problem's sample set for the run cache.
+     */
+    private static String sampleSetVersion(Problem problem, List<TestCase> sampleTestCases) {
+        List<String[]> sampleSet = sampleTestCases.stream()
+            .map(tc -> new String[] { String.valueOf(tc.getId()), tc.getInput(), tc.getExpectedOutput() })
+            .collect(Collectors.toList());
+        return RunResultCache.sampleSetVersion(sampleSet, problem.getTimeLimitMs(), problem.getMemoryLimitMb());
+    }
+    
+    /**
+     * Load the submission, its problem and all test cases.
+     * Must run inside a transaction so the lazy problem and user associations can be read.
+     */
+    private EvaluationInput loadEvaluationInput(Long submissionId) {
+        Submission submission = submissionRepository.findById(submissionId)
+            .orElseThrow(() -> new ResourceNotFoundException("Submission", "id", submissionId));
+        
+        Problem problem = Hibernate.unproxy(submission.getProblem(), Problem.class);
+        User user = submission.getUser();
+        
+        // Collect all test cases (default + custom)
+        List<TestCaseData> allTestCases = collectTestCases(problem.getId(), user.getId());
+        
+        if (allTestCases.isEmpty()) {
+            logger.warn("No test cases found for problem: {}", problem.getId());
+            throw new ValidationException("No test cases available for evaluation");
+        }
+        
+        return new EvaluationInput(submission, problem, allTestCases);
     }
     
     /**
@@ -356,6 +643,30 @@ public class EvaluationService {
         return allTestCases;
     }
     
+    /**
+     * Check if a result ends the evaluation (compilation or runtime error).
+     * Mirrors the early-stop rule of the evaluation loop: TLE and MLE, from the limits
+     * or from the executor's status, take precedence.
+     */
+    private boolean isFatalResult(ExecutionResult result, Problem problem) {
+        if (result.getStatus() == ExecutionStatus.TLE || result.getStatus() == ExecutionStatus.MLE ||
+            checkTimeLimitExceeded(result.getMetrics().getRuntimeMs(), problem.getTimeLimitMs()) ||
+            checkMemoryLimitExceeded(result.getMetrics().getMemoryKb(), problem.getMemoryLimitMb())) {
+            return false;
+        }
+        return result.getStatus() != ExecutionStatus.SUCCESS;
+    }
+    
+    /**
+     * Check if a result comes from the execution infrastructure failing (container,
+     * Docker or slot errors) rather than from the submitted code.
+     */
+    private boolean isExecutionFailure(ExecutionResult result) {
+        return result.getStatus() == ExecutionStatus.RUNTIME_ERROR
+            && result.getErrorMessage() != null
+            && result.getErrorMessage().startsWith("Execution error");
+    }
+    
     /**
      * Check if execution exceeded time limit.
      */
@@ -419,6 +730,37 @@ public class EvaluationService {
         return normalized.toString().trim();
     }
     
+    /**
+     * Internal class to hold what the read phase of an evaluation loaded.
+     */
+    private static class EvaluationInput {
+        Submission submission;
+        Problem problem;
+        List<TestCaseData> testCases;
+        
+        EvaluationInput(Submission submission, Problem problem, List<TestCaseData> testCases) {
+            this.submission = submission;
+            this.problem = problem;
+            this.testCases = testCases;
+        }
+    }
+    
+    /**
+     * Internal class to hold the judgement of one test case.
+     * A null status means the case failed without deciding the submission's verdict.
+     */
+    private static class CaseVerdict {
+        SubmissionStatus status;
+        boolean passed;
+        String errorMessage;
+        
+        CaseVerdict(SubmissionStatus status, boolean passed, String errorMessage) {
+            this.status = status;
+            this.passed = passed;
+            this.errorMessage = errorMessage;
+        }
+    }
+    
     /**
      * Internal class to hold test case data.
      */
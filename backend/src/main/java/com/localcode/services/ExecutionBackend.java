@@ -0,0 +1,140 @@
+package com.localcode.services;
+
+import com.localcode.dto.ExecutionRequest;
+import com.localcode.dto.ResourceMetrics;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Where submitted code actually runs.
+ *
+ * {@link CodeExecutorService} drives compilation and execution through a backend:
+ * it takes a sandbox, writes the code and inputs into the sandbox's working
+ * directory and runs shell commands there. The backend is selected with
+ * {@code execution.backend}: {@code docker} (default) or {@code local}.
+ */
+public interface ExecutionBackend {
+
+    /**
+     * Identify the runtime used for a language, e.g. the image ID.
+     * Part of the compilation cache key, so a different runtime never reuses class files.
+     *
+     * @param language the language
+     * @return runtime identifier
+     */
+    String runtimeId(String language);
+
+    /**
+     * Get a fresh (or scrubbed) sandbox for running a language.
+     *
+     * @param language the language
+     * @param request the execution request, for its limits
+     * @param inputCount the number of inputs the sandbox will run
+     * @return the sandbox, to be released by the caller
+     */
+    Sandbox acquire(String language, ExecutionRequest request, int inputCount);
+
+    /**
+     * Isolated working directory that commands run in.
+     */
+    interface Sandbox {
+
+        /**
+         * Identifier for logging, e.g. the container ID.
+         */
+        String getId();
+
+        /**
+         * Write files into the working directory.
+         *
+         * @param files file name to content
+         */
+        void writeFiles(Map<String, byte[]> files) throws IOException;
+
+        /**
+         * Read files back out of the working directory.
+         *
+         * @param suffix only files whose name ends with this are read
+         * @return file name to content
+         */
+        Map<String, byte[]> readFiles(String suffix) throws IOException;
+
+        /**
+         * Run a command in the working directory and wait for it.
+         *
+         * @param command the command and its arguments
+         * @param timeoutMs how long to wait
+         * @return the captured output, or null if the command did not finish in time
+         */
+        ExecOutput exec(String[] command, long timeoutMs) throws InterruptedException;
+
+        /**
+         * Start a long-running command in the working directory with its stdin and stdout attached.
+         *
+         * @param command the command and its arguments
+         * @param lifetimeMs upper bound on how long the command may run
+         * @return the running process
+         */
+        WorkerProcess startWorker(String[] command, long lifetimeMs) throws IOException;
+
+        /**
+         * Kill whatever is still running in the sandbox.
+         */
+        void killProcesses();
+
+        /**
+         * Give the sandbox back once all inputs have run.
+         *
+         * @param reusable false if the execution ended abnormally and the sandbox must not be reused
+         */
+        void release(boolean reusable);
+    }
+
+    /**
+     * Long-running process in a sandbox that takes requests line by line on stdin
+     * and answers line by line on stdout.
+     */
+    interface WorkerProcess {
+
+        /**
+         * Send a request line.
+         */
+        void send(String line) throws IOException;
+
+        /**
+         * Wait for the next line of output.
+         *
+         * @param timeoutMs how long to wait
+         * @return the line, or null if none arrived in time
+         * @throws java.io.EOFException if the process has exited
+         */
+        String receive(long timeoutMs) throws IOException, InterruptedException;
+
+        /**
+         * Close stdin and let go of the process; a worker exits once its stdin is closed.
+         */
+        void close();
+    }
+
+    /**
+     * Captured output of a finished command.
+     */
+    class ExecOutput {
+        final String stdout;
+        final String stderr;
+        final int exitCode;
+        final ResourceMetrics metrics;
+
+        public ExecOutput(String stdout, String stderr, int exitCode) {
+            this(stdout, stderr, exitCode, null);
+        }
+
+        public ExecOutput(String stdout, String stderr, int exitCode, ResourceMetrics metrics) {
+            this.stdout = stdout;
+            this.stderr = stderr;
+            this.exitCode = exitCode;
+            this.metrics = metrics;
+        }
+    }
+}
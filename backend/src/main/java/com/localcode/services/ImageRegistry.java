@@ -0,0 +1,154 @@
+package com.localcode.services;
+
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.command.InspectImageResponse;
+import com.localcode.exception.ExecutionException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registry of the runtime image for each language.
+ *
+ * Every image is inspected once at startup and its image ID cached, so creating
+ * a container needs no extra Docker call and always uses the exact image that
+ * was verified. An image that is missing is resolved again the next time it is
+ * needed. {@link #refresh()} re-resolves all of them, e.g. after the runtime
+ * images were rebuilt; it also runs in the background every
+ * {@code execution.images.refresh-interval-seconds} (0 disables it).
+ */
+@Service
+@ConditionalOnProperty(name = "execution.backend", havingValue = "docker", matchIfMissing = true)
+public class ImageRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageRegistry.class);
+
+    private static final Map<String, String> LANGUAGE_IMAGES = new LinkedHashMap<>();
+
+    static {
+        LANGUAGE_IMAGES.put("java", "localcode-java:latest");
+        LANGUAGE_IMAGES.put("python", "localcode-python:latest");
+        LANGUAGE_IMAGES.put("javascript", "localcode-javascript:latest");
+    }
+
+    private final DockerClient dockerClient;
+    private final long refreshIntervalSeconds;
+
+    // Image name (tag) to image ID
+    private final Map<String, String> imageIds = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService refreshExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "image-registry");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ImageRegistry(DockerClient dockerClient,
+                         @Value("${execution.images.refresh-interval-seconds:300}") long refreshIntervalSeconds) {
+        this.dockerClient = dockerClient;
+        this.refreshIntervalSeconds = refreshIntervalSeconds;
+    }
+
+    /**
+     * Resolve every runtime image at startup and schedule the background refresh.
+     */
+    @PostConstruct
+    public void start() {
+        refresh();
+        if (refreshIntervalSeconds > 0) {
+            refreshExecutor.scheduleWithFixedDelay(this::refresh, refreshIntervalSeconds, refreshIntervalSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Stop the background refresh on shutdown.
+     */
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+
+    /**
+     * Resolve every runtime image again.
+     */
+    public void refresh() {
+        for (String imageName : LANGUAGE_IMAGES.values()) {
+            String imageId = inspect(imageName);
+            if (imageId != null) {
+                String previous = imageIds.put(imageName, imageId);
+                if (!imageId.equals(previous)) {
+                    logger.info("Runtime image {} resolved to {}", imageName, imageId);
+                }
+            } else {
+                imageIds.remove(imageName);
+                logger.warn("Runtime image {} not found. Please build the runtime images first.", imageName);
+            }
+        }
+    }
+
+    /**
+     * Get the image name (tag) for a language.
+     *
+     * @param language the language
+     * @return the runtime image name
+     */
+    public String getImageName(String language) {
+        String imageName = LANGUAGE_IMAGES.get(language.toLowerCase());
+        if (imageName == null) {
+            throw new IllegalArgumentException("Unsupported language: " + language);
+        }
+        return imageName;
+    }
+
+    /**
+     * Get the verified image ID for an image name.
+     *
+     * @param imageName the image name (tag)
+     * @return the image ID to create containers from
+     * @throws ExecutionException if the image does not exist
+     */
+    public String resolve(String imageName) {
+        String imageId = imageIds.get(imageName);
+        if (imageId != null) {
+            return imageId;
+        }
+
+        // Not found earlier, the image may have been built since
+        imageId = inspect(imageName);
+        if (imageId == null) {
+            throw new ExecutionException("Image not found: " + imageName + ". Please build the runtime images first.", "container_creation");
+        }
+        imageIds.put(imageName, imageId);
+        logger.info("Runtime image {} resolved to {}", imageName, imageId);
+        return imageId;
+    }
+
+    /**
+     * Forget the cached ID of an image, e.g. after creating a container from it failed.
+     *
+     * @param imageName the image name (tag)
+     */
+    public void invalidate(String imageName) {
+        imageIds.remove(imageName);
+    }
+
+    private String inspect(String imageName) {
+        try {
+            InspectImageResponse image = dockerClient.inspectImageCmd(imageName).exec();
+            return image.getId();
+        } catch (Exception e) {
+            logger.debug("Could not inspect image {}: {}", imageName, e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.localcode.services;
+
+/**
+ * Priority lanes of the judge scheduler, highest priority first.
+ */
+public enum JudgePriority {
+    INTERACTIVE,  // Sample runs from the Run button, a user is waiting on the response
+    SUBMISSION    // Full evaluation of a submission
+}
@@ -0,0 +1,361 @@
+package com.localcode.services;
+
+import com.localcode.config.JudgeConfig;
+import com.localcode.config.VirtualThreads;
+import com.localcode.exception.JudgeSaturatedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Dedicated scheduler for judge work (sample runs and submissions).
+ *
+ * Runs a fixed number of evaluations at once, sized from host cores and memory,
+ * and keeps a bounded priority queue in front of them. Interactive runs are
+ * picked before submissions.
+ * When the queue is full new work is rejected with a {@link JudgeSaturatedException}.
+ */
+@Service
+public class JudgeScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(JudgeScheduler.class);
+
+    private final JudgeConfig judgeConfig;
+    private final int concurrency;
+    private final ThreadPoolExecutor executor;
+    private final AtomicLong sequence = new AtomicLong();
+
+    // Queue depth per lane, indexed by JudgePriority ordinal
+    private final AtomicInteger[] queuedByLane = new AtomicInteger[JudgePriority.values().length];
+    private final AtomicInteger queuedTotal = new AtomicInteger();
+
+    // Exponentially weighted averages used for Retry-After estimates, stored as double bits
+    private final AtomicLong averageWaitMs = new AtomicLong(Double.doubleToLongBits(0));
+    private final AtomicLong averageRunMs = new AtomicLong(Double.doubleToLongBits(0));
+
+    private final Timer waitTimer;
+    private final Counter rejectedCounter;
+
+    public JudgeScheduler(JudgeConfig judgeConfig, MeterRegistry meterRegistry) {
+        this.judgeConfig = judgeConfig;
+        this.concurrency = resolveConcurrency(judgeConfig);
+
+        this.executor = new ThreadPoolExecutor(
+            concurrency,
+            concurrency,
+            0L,
+            TimeUnit.MILLISECONDS,
+            new PriorityBlockingQueue<>(),
+            workerThreadFactory(judgeConfig)
+        );
+        
+        for (JudgePriority priority : JudgePriority.values()) {
+            AtomicInteger depth = new AtomicInteger();
+            queuedByLane[priority.ordinal()] = depth;
+            Gauge.builder("judge.queue.depth", depth, AtomicInteger::get)
+                .tag("lane", priority.name().toLowerCase())
+                .description("Jobs waiting for a judge worker")
+                .register(meterRegistry);
+        }
+        Gauge.builder("judge.active", executor, ThreadPoolExecutor::getActiveCount)
+            .description("Jobs currently running on judge workers")
+            .register(meterRegistry);
+        this.waitTimer = Timer.builder("judge.queue.wait")
+            .description("Time jobs spend queued before a worker picks them up")
+            .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("judge.rejected")
+            .description("Jobs rejected because the judge queue was full")
+            .register(meterRegistry);
+
+        logger.info("Judge scheduler started with {} workers and queue capacity {}",
+            concurrency, judgeConfig.getQueueCapacity());
+    }
+
+    /**
+     * Queue a job on the given lane.
+     *
+     * @param priority the lane to queue on
+     * @param task the job
+     * @return future completed with the job's result
+     * @throws JudgeSaturatedException if the queue is full
+     */
+    public <T> CompletableFuture<T> submit(JudgePriority priority, Callable<T> task) {
+        return reserve(priority).submit(task);
+    }
+
+    /**
+     * Reserve a queue slot without submitting yet.
+     * Lets callers check capacity before doing work that must not be left
+     * unscheduled (e.g. creating a submission row).
+     *
+     * @param priority the lane to queue on
+     * @return reservation that must be submitted or cancelled
+     * @throws JudgeSaturatedException if the queue is full
+     */
+    public Reservation reserve(JudgePriority priority) {
+        while (true) {
+            int current = queuedTotal.get();
+            if (current >= judgeConfig.getQueueCapacity()) {
+                rejectedCounter.increment();
+                long retryAfter = estimateRetryAfterSeconds();
+                logger.warn("Judge queue full ({} queued), rejecting {} job, retry after {}s",
+                    current, priority, retryAfter);
+                throw new JudgeSaturatedException(
+                    "The judge is busy right now. Please try again in " + retryAfter + " seconds.", retryAfter);
+            }
+            if (queuedTotal.compareAndSet(current, current + 1)) {
+                queuedByLane[priority.ordinal()].incrementAndGet();
+                return new Reservation(priority);
+            }
+        }
+    }
+
+    /**
+     * Get the number of jobs waiting on a lane.
+     *
+     * @param priority the lane
+     * @return queued job count
+     */
+    public int getQueueDepth(JudgePriority priority) {
+        return queuedByLane[priority.ordinal()].get();
+    }
+
+    /**
+     * Get the number of jobs waiting across all lanes.
+     *
+     * @return queued job count
+     */
+    public int getQueueDepth() {
+        return queuedTotal.get();
+    }
+
+    /**
+     * Get the number of jobs currently running.
+     *
+     * @return running job count
+     */
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    /**
+     * Get the number of judge workers.
+     *
+     * @return worker count
+     */
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    /**
+     * Get the recent average queue wait.
+     *
+     * @return average wait in milliseconds
+     */
+    public double getAverageWaitMs() {
+        return Double.longBitsToDouble(averageWaitMs.get());
+    }
+
+    /**
+     * Get the recent average job run time.
+     *
+     * @return average run time in milliseconds
+     */
+    public double getAverageRunMs() {
+        return Double.longBitsToDouble(averageRunMs.get());
+    }
+
+    /**
+     * Get the number of jobs that would be picked before a new job on a lane.
+     *
+     * @param priority the lane
+     * @return queued jobs on this lane and all higher lanes
+     */
+    public int getQueueDepthAhead(JudgePriority priority) {
+        int depth = 0;
+        for (int lane = 0; lane <= priority.ordinal(); lane++) {
+            depth += queuedByLane[lane].get();
+        }
+        return depth;
+    }
+    
+    /**
+     * Estimate how long a new job on a lane would wait before starting.
+     * Only jobs on the same or higher lanes are picked first.
+     *
+     * @param priority the lane
+     * @return estimated wait in milliseconds
+     */
+    public long estimateWaitMs(JudgePriority priority) {
+        int busy = Math.max(0, executor.getActiveCount() - concurrency + 1);
+        return (long) ((getQueueDepthAhead(priority) + busy) * getAverageRunMs() / concurrency);
+    }
+    
+    /**
+     * Estimate how long until a newly queued job would start.
+     *
+     * @return seconds, never below the configured minimum
+     */
+    public long estimateRetryAfterSeconds() {
+        double drainMs = (queuedTotal.get() + 1) * getAverageRunMs() / concurrency;
+        long seconds = (long) Math.ceil(drainMs / 1000.0);
+        return Math.max(judgeConfig.getMinRetryAfterSeconds(), seconds);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Derive worker count from configuration, host cores and host memory.
+     */
+    private static int resolveConcurrency(JudgeConfig judgeConfig) {
+        if (judgeConfig.getConcurrency() != null && judgeConfig.getConcurrency() > 0) {
+            return judgeConfig.getConcurrency();
+        }
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        int byMemory = cores;
+
+        if (ManagementFactory.getOperatingSystemMXBean() instanceof com.sun.management.OperatingSystemMXBean os) {
+            long totalMemoryMb = os.getTotalMemorySize() / (1024L * 1024L);
+            byMemory = (int) (totalMemoryMb / judgeConfig.getMemoryPerSlotMb());
+        }
+
+        return Math.max(1, Math.min(cores, byMemory));
+    }
+
+    /**
+     * Virtual threads when enabled and supported, since workers mostly block on Docker calls;
+     * otherwise daemon platform threads. The worker count is bounded either way.
+     */
+    private static ThreadFactory workerThreadFactory(JudgeConfig judgeConfig) {
+        if (Boolean.TRUE.equals(judgeConfig.getVirtualThreads())) {
+            ThreadFactory virtual = VirtualThreads.factory("judge-worker-");
+            if (virtual != null) {
+                logger.info("Judge workers use virtual threads");
+                return virtual;
+            }
+            logger.warn("judge.virtual-threads is set but this JVM has no virtual threads, using platform threads");
+        }
+        
+        return new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+            
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "judge-worker-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+    }
+    
+    /**
+     * Fold a sample into an average, atomically so concurrent workers don't drop each other's samples.
+     */
+    private static void recordSample(AtomicLong average, long sample) {
+        average.updateAndGet(bits -> {
+            double current = Double.longBitsToDouble(bits);
+            return Double.doubleToLongBits(current == 0 ? sample : current * 0.8 + sample * 0.2);
+        });
+    }
+
+    /**
+     * A reserved queue slot on one lane.
+     */
+    public class Reservation {
+        private final JudgePriority priority;
+        private boolean used;
+
+        private Reservation(JudgePriority priority) {
+            this.priority = priority;
+        }
+
+        /**
+         * Queue the job in the reserved slot.
+         *
+         * @param task the job
+         * @return future completed with the job's result
+         */
+        public synchronized <T> CompletableFuture<T> submit(Callable<T> task) {
+            if (used) {
+                throw new IllegalStateException("Reservation already used");
+            }
+            used = true;
+
+            CompletableFuture<T> future = new CompletableFuture<>();
+            executor.execute(new PrioritizedTask(priority, sequence.incrementAndGet(), () -> {
+                if (future.isCancelled()) {
+                    return;
+                }
+                long start = System.currentTimeMillis();
+                try {
+                    future.complete(task.call());
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                } finally {
+                    recordSample(averageRunMs, System.currentTimeMillis() - start);
+                }
+            }));
+            return future;
+        }
+
+        /**
+         * Give the slot back without queueing anything.
+         */
+        public synchronized void cancel() {
+            if (!used) {
+                used = true;
+                dequeued(priority);
+            }
+        }
+    }
+
+    private void dequeued(JudgePriority priority) {
+        queuedByLane[priority.ordinal()].decrementAndGet();
+        queuedTotal.decrementAndGet();
+    }
+
+    /**
+     * Queue entry ordered by lane, then by arrival.
+     */
+    private class PrioritizedTask implements Runnable, Comparable<PrioritizedTask> {
+        private final JudgePriority priority;
+        private final long sequenceNumber;
+        private final long enqueuedAt = System.currentTimeMillis();
+        private final Runnable job;
+
+        PrioritizedTask(JudgePriority priority, long sequenceNumber, Runnable job) {
+            this.priority = priority;
+            this.sequenceNumber = sequenceNumber;
+            this.job = job;
+        }
+
+        @Override
+        public void run() {
+            long waitMs = System.currentTimeMillis() - enqueuedAt;
+            dequeued(priority);
+            waitTimer.record(waitMs, TimeUnit.MILLISECONDS);
+            recordSample(averageWaitMs, waitMs);
+            job.run();
+        }
+
+        @Override
+        public int compareTo(PrioritizedTask other) {
+            int byPriority = Integer.compare(priority.ordinal(), other.priority.ordinal());
+            return byPriority != 0 ? byPriority : Long.compare(sequenceNumber, other.sequenceNumber);
+        }
+    }
+}
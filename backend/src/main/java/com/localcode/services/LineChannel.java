@@ -0,0 +1,117 @@
+package com.localcode.services;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Line-based pipe between the server and a worker process.
+ * Output of the process is split into lines as it arrives; requests are queued
+ * for an {@link InputStream} that backends can hand over as the process's stdin.
+ */
+class LineChannel {
+
+    // Sentinels, compared by identity
+    private static final String END_OF_OUTPUT = new String("EOF");
+    private static final byte[] END_OF_INPUT = new byte[0];
+
+    private final BlockingQueue<String> lines = new LinkedBlockingQueue<>();
+    private final ByteArrayOutputStream partialLine = new ByteArrayOutputStream();
+    private final BlockingQueue<byte[]> requests = new LinkedBlockingQueue<>();
+
+    /**
+     * Add output of the process.
+     */
+    synchronized void append(byte[] bytes, int offset, int length) {
+        for (int i = offset; i < offset + length; i++) {
+            if (bytes[i] == '\n') {
+                lines.add(partialLine.toString(StandardCharsets.UTF_8));
+                partialLine.reset();
+            } else {
+                partialLine.write(bytes[i]);
+            }
+        }
+    }
+
+    /**
+     * Mark the output as finished, the process has exited.
+     */
+    void finish() {
+        lines.add(END_OF_OUTPUT);
+    }
+
+    /**
+     * Wait for the next line of output.
+     *
+     * @param timeoutMs how long to wait
+     * @return the line, or null if none arrived in time
+     * @throws EOFException if the process has exited
+     */
+    String receive(long timeoutMs) throws EOFException, InterruptedException {
+        String line = lines.poll(timeoutMs, TimeUnit.MILLISECONDS);
+        if (line == END_OF_OUTPUT) {
+            lines.add(END_OF_OUTPUT);
+            throw new EOFException("Worker process exited");
+        }
+        return line;
+    }
+
+    /**
+     * Queue a request line for the process's stdin.
+     */
+    void send(String line) {
+        requests.add((line + "\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Close the process's stdin after the queued requests.
+     */
+    void closeInput() {
+        requests.add(END_OF_INPUT);
+    }
+
+    /**
+     * Stdin for the process, fed by {@link #send(String)}.
+     */
+    InputStream input() {
+        return new InputStream() {
+            private byte[] current = new byte[0];
+            private int position = 0;
+
+            @Override
+            public int read() throws IOException {
+                byte[] single = new byte[1];
+                return read(single, 0, 1) < 0 ? -1 : single[0] & 0xff;
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                if (current == END_OF_INPUT) {
+                    return -1;
+                }
+                try {
+                    while (position >= current.length) {
+                        current = requests.take();
+                        position = 0;
+                        if (current == END_OF_INPUT) {
+                            return -1;
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException();
+                }
+                int count = Math.min(length, current.length - position);
+                System.arraycopy(current, position, buffer, offset, count);
+                position += count;
+                return count;
+            }
+        };
+    }
+}
@@ -0,0 +1,453 @@
+package com.localcode.services;
+
+import com.localcode.config.LocalSandboxConfig;
+import com.localcode.config.ResourceLimits;
+import com.localcode.dto.ExecutionRequest;
+import com.localcode.exception.ExecutionException;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Execution backend running code as plain child processes of the server (Linux only).
+ *
+ * Every sandbox is a fresh directory under a tmpfs scratch directory. Commands run
+ * with rlimits (prlimit), in their own cgroup with memory, CPU and process limits, and
+ * in new user, network, mount and PID namespaces (unshare) whose root is a tmpfs holding
+ * only read-only mounts of the language runtimes, the sandbox's working directory at
+ * /work, a private /tmp, /proc and a few devices, so code sees nothing else of the host.
+ * Starting a sandbox costs a mkdir instead of a container, which suits CI and load tests
+ * that have no Docker daemon. The language toolchains, GNU time and coreutils timeout
+ * must be installed on the host, under one of the configured runtime paths.
+ *
+ * The server refuses to start without namespaces or a cgroup unless
+ * execution.local.allow-unconfined is set, which only the test profile does.
+ */
+@Service
+@ConditionalOnProperty(name = "execution.backend", havingValue = "local")
+public class LocalProcessExecutionBackend implements ExecutionBackend {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocalProcessExecutionBackend.class);
+
+    private static final List<String> UNSHARE_COMMAND = List.of(
+        "unshare", "--user", "--map-root-user", "--net", "--mount", "--pid", "--fork", "--mount-proc"
+    );
+
+    // Moves the shell into the cgroup given as $1, then runs the rest of the arguments
+    private static final String JOIN_CGROUP_SCRIPT = "echo $$ > \"$1\" && shift && exec \"$@\"";
+
+    // Working directory of commands inside the sandbox root
+    private static final String SANDBOX_WORK_DIR = "/work";
+
+    /*
+     * Run inside the new namespaces: mounts a tmpfs on $1 with the working directory $2
+     * read-write at /work, a private /tmp, /proc and /dev/{null,zero,random,urandom}, binds
+     * the runtime paths (the arguments up to "--") read-only into it, pivots into it, detaches
+     * the host's root and makes the new root read-only. The rest of the arguments run in a
+     * nested user namespace, which has no privileges over these mounts, so code can't remount
+     * them writable or unmount them. Symlinked runtime paths (e.g. /bin -> usr/bin) are
+     * recreated as symlinks.
+     */
+    private static final String MINIMAL_ROOT_SCRIPT = """
+        set -e
+        root=$1 work=$2
+        shift 2
+        mount -t tmpfs -o mode=755,size=1m,nosuid,nodev sandbox "$root"
+        mkdir "$root/work" "$root/tmp" "$root/proc" "$root/dev" "$root/.old"
+        mount --bind "$work" "$root/work"
+        mount -t tmpfs -o size=64m,nosuid,nodev tmp "$root/tmp"
+        mount -t proc proc "$root/proc"
+        for device in null zero random urandom; do
+            touch "$root/dev/$device" && mount --bind "/dev/$device" "$root/dev/$device"
+        done
+        ln -s /proc/self/fd "$root/dev/fd"
+        while [ "$1" != -- ]; do
+            if [ -L "$1" ]; then
+                mkdir -p "$root${1%/*}" && ln -s "$(readlink "$1")" "$root$1"
+            elif [ -d "$1" ]; then
+                mkdir -p "$root$1" && mount --rbind "$1" "$root$1" && mount -o remount,bind,ro "$root$1"
+            elif [ -f "$1" ]; then
+                mkdir -p "$root${1%/*}" && touch "$root$1"
+                mount --bind "$1" "$root$1" && mount -o remount,bind,ro "$root$1"
+            fi
+            shift
+        done
+        shift
+        cd "$root"
+        PATH="$PATH:/usr/sbin:/sbin" pivot_root . .old
+        umount -l /.old
+        rmdir /.old
+        mount -o remount,bind,ro,nosuid,nodev /
+        cd /work
+        exec unshare --user --map-root-user "$@"
+        """;
+
+    private final LocalSandboxConfig sandboxConfig;
+    private final ResourceLimits resourceLimits;
+    private final Path scratchRoot;
+    private final Path cgroupRoot;
+
+    public LocalProcessExecutionBackend(LocalSandboxConfig sandboxConfig, ResourceLimits resourceLimits) {
+        this.sandboxConfig = sandboxConfig;
+        this.resourceLimits = resourceLimits;
+        this.scratchRoot = Paths.get(sandboxConfig.getScratchDir());
+        this.cgroupRoot = sandboxConfig.getCgroupRoot() == null || sandboxConfig.getCgroupRoot().isBlank()
+            ? null
+            : Paths.get(sandboxConfig.getCgroupRoot());
+    }
+
+    /**
+     * Check at startup that sandboxes can be created, so a misconfigured host fails fast.
+     */
+    @PostConstruct
+    public void start() throws IOException, InterruptedException {
+        Files.createDirectories(scratchRoot);
+
+        boolean confined = Boolean.TRUE.equals(sandboxConfig.getNamespaces()) && cgroupRoot != null;
+        if (!confined && !Boolean.TRUE.equals(sandboxConfig.getAllowUnconfined())) {
+            throw new IllegalStateException("The local execution backend needs execution.local.namespaces=true and a "
+                + "delegated cgroup in execution.local.cgroup-root; execution.local.allow-unconfined is for tests only");
+        }
+
+        if (cgroupRoot != null) {
+            if (!Files.isWritable(cgroupRoot)) {
+                throw new IllegalStateException("Cgroup directory " + cgroupRoot + " is not writable");
+            }
+            try {
+                // Let the per-sandbox cgroups use these controllers (may already be enabled)
+                Files.writeString(cgroupRoot.resolve("cgroup.subtree_control"), "+memory +pids +cpu");
+            } catch (IOException e) {
+                logger.warn("Could not enable cgroup controllers in {}: {}", cgroupRoot, e.getMessage());
+            }
+        } else {
+            logger.warn("No execution.local.cgroup-root configured, memory limits are only checked after the run");
+        }
+
+        // Run a command the way every submission will run, without a cgroup
+        ProcessSandbox probe = createSandbox(null, 0);
+        try {
+            ExecOutput output = probe.exec(new String[]{"true"}, 10_000);
+            if (output == null || output.exitCode != 0) {
+                throw new IllegalStateException("Could not start a local sandbox ("
+                    + (output != null ? output.stderr.trim() : "timed out") + "). Install util-linux and "
+                    + "allow unprivileged user namespaces");
+            }
+        } finally {
+            probe.release(false);
+        }
+
+        logger.info("Using local process execution backend in {} (namespaces={}, cgroups={})",
+            scratchRoot, sandboxConfig.getNamespaces(), cgroupRoot != null ? cgroupRoot : "off");
+    }
+
+    @Override
+    public String runtimeId(String language) {
+        // Class files compiled by the host toolchain, never mixed with those of a runtime image
+        return "local-" + language;
+    }
+
+    @Override
+    public Sandbox acquire(String language, ExecutionRequest request, int inputCount) {
+        try {
+            return createSandbox(request, request.getMemoryLimitMb());
+        } catch (IOException e) {
+            throw new ExecutionException("Failed to create sandbox: " + e.getMessage(), "sandbox_creation", e);
+        }
+    }
+
+    /**
+     * Create a sandbox directory, and its cgroup when cgroups are configured and a request is given.
+     */
+    private ProcessSandbox createSandbox(ExecutionRequest request, int memoryLimitMb) throws IOException {
+        Path sandboxDir = Files.createTempDirectory(scratchRoot, "sandbox-");
+        try {
+            Path workDir = Files.createDirectory(sandboxDir.resolve("work"));
+            Files.createDirectory(sandboxDir.resolve("root"));
+            Path cgroup = cgroupRoot != null && request != null
+                ? createCgroup(sandboxDir.getFileName().toString(), request)
+                : null;
+            // JVMs reserve far more address space than they touch, the cgroup limits what they use
+            long addressSpace = (memoryLimitMb + (long) sandboxConfig.getAddressSpaceHeadroomMb()) * 1024L * 1024L;
+            return new ProcessSandbox(sandboxDir, workDir, cgroup, addressSpace);
+        } catch (IOException e) {
+            deleteRecursively(sandboxDir);
+            throw e;
+        }
+    }
+
+    /**
+     * Create the sandbox's cgroup with the request's memory limit and the configured CPU and process limits.
+     */
+    private Path createCgroup(String name, ExecutionRequest request) throws IOException {
+        Path cgroup = Files.createDirectory(cgroupRoot.resolve(name));
+        Files.writeString(cgroup.resolve("memory.max"), String.valueOf(request.getMemoryLimitMb() * 1024L * 1024L));
+        Files.writeString(cgroup.resolve("pids.max"), String.valueOf(sandboxConfig.getMaxProcesses()));
+        Files.writeString(cgroup.resolve("cpu.max"), resourceLimits.getCpuQuota() + " " + resourceLimits.getCpuPeriod());
+        try {
+            Files.writeString(cgroup.resolve("memory.swap.max"), "0");
+        } catch (IOException e) {
+            // No swap accounting on this host
+        }
+        return cgroup;
+    }
+
+    private static void deleteRecursively(Path path) {
+        try (Stream<Path> paths = Files.walk(path)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        } catch (IOException e) {
+            logger.warn("Could not delete sandbox directory {}: {}", path, e.getMessage());
+        }
+    }
+
+    /**
+     * Scratch directory (and optional cgroup) that commands run in.
+     */
+    private class ProcessSandbox implements Sandbox {
+        private final Path sandboxDir;
+        private final Path workDir;
+        private final Path cgroup;
+        private final long addressSpace;
+        private final Set<Process> running = ConcurrentHashMap.newKeySet();
+
+        ProcessSandbox(Path sandboxDir, Path workDir, Path cgroup, long addressSpace) {
+            this.sandboxDir = sandboxDir;
+            this.workDir = workDir;
+            this.cgroup = cgroup;
+            this.addressSpace = addressSpace;
+        }
+
+        @Override
+        public String getId() {
+            return sandboxDir.getFileName().toString();
+        }
+
+        @Override
+        public void writeFiles(Map<String, byte[]> files) throws IOException {
+            for (Map.Entry<String, byte[]> file : files.entrySet()) {
+                Files.write(workDir.resolve(file.getKey()), file.getValue());
+            }
+        }
+
+        @Override
+        public Map<String, byte[]> readFiles(String suffix) throws IOException {
+            Map<String, byte[]> files = new HashMap<>();
+            try (DirectoryStream<Path> entries = Files.newDirectoryStream(workDir, "*" + suffix)) {
+                for (Path entry : entries) {
+                    if (Files.isRegularFile(entry)) {
+                        files.put(entry.getFileName().toString(), Files.readAllBytes(entry));
+                    }
+                }
+            }
+            return files;
+        }
+
+        @Override
+        public ExecOutput exec(String[] command, long timeoutMs) throws InterruptedException {
+            Path stdoutFile = sandboxDir.resolve("stdout");
+            Path stderrFile = sandboxDir.resolve("stderr");
+
+            ProcessBuilder builder = processBuilder(command, timeoutMs)
+                .redirectInput(ProcessBuilder.Redirect.from(new File("/dev/null")))
+                .redirectOutput(stdoutFile.toFile())
+                .redirectError(stderrFile.toFile());
+
+            Process process;
+            try {
+                process = builder.start();
+            } catch (IOException e) {
+                throw new ExecutionException("Failed to start process: " + e.getMessage(), "execution", e);
+            }
+
+            running.add(process);
+            try {
+                if (!process.waitFor(timeoutMs, TimeUnit.MILLISECONDS)) {
+                    return null;
+                }
+                return new ExecOutput(readOutput(stdoutFile), readOutput(stderrFile), process.exitValue());
+            } finally {
+                // A timed out process stays tracked until killProcesses()
+                if (!process.isAlive()) {
+                    running.remove(process);
+                }
+            }
+        }
+
+        @Override
+        public WorkerProcess startWorker(String[] command, long lifetimeMs) throws IOException {
+            Process process = processBuilder(command, lifetimeMs)
+                .redirectError(ProcessBuilder.Redirect.DISCARD)
+                .start();
+            running.add(process);
+
+            LineChannel channel = new LineChannel();
+            Thread reader = new Thread(() -> {
+                byte[] buffer = new byte[8192];
+                try (InputStream stdout = process.getInputStream()) {
+                    int read;
+                    while ((read = stdout.read(buffer)) >= 0) {
+                        channel.append(buffer, 0, read);
+                    }
+                } catch (IOException e) {
+                    logger.debug("Worker output of sandbox {} closed: {}", getId(), e.getMessage());
+                } finally {
+                    channel.finish();
+                }
+            }, "sandbox-worker-reader");
+            reader.setDaemon(true);
+            reader.start();
+
+            OutputStream stdin = process.getOutputStream();
+            return new WorkerProcess() {
+                @Override
+                public void send(String line) throws IOException {
+                    stdin.write((line + "\n").getBytes(StandardCharsets.UTF_8));
+                    stdin.flush();
+                }
+
+                @Override
+                public String receive(long timeoutMs) throws IOException, InterruptedException {
+                    return channel.receive(timeoutMs);
+                }
+
+                @Override
+                public void close() {
+                    try {
+                        stdin.close();
+                    } catch (IOException e) {
+                        // Already exited
+                    }
+                    running.remove(process);
+                }
+            };
+        }
+
+        /**
+         * Process builder for a command in the working directory, with a clean environment.
+         */
+        private ProcessBuilder processBuilder(String[] command, long timeoutMs) {
+            ProcessBuilder builder = new ProcessBuilder(buildCommand(command, timeoutMs))
+                .directory(workDir.toFile());
+
+            // Don't leak the server's environment to user code
+            Map<String, String> environment = builder.environment();
+            String path = environment.get("PATH");
+            environment.clear();
+            environment.put("PATH", path != null ? path : "/usr/local/bin:/usr/bin:/bin");
+            boolean namespaces = Boolean.TRUE.equals(sandboxConfig.getNamespaces());
+            environment.put("HOME", namespaces ? SANDBOX_WORK_DIR : workDir.toString());
+            environment.put("TMPDIR", namespaces ? "/tmp" : workDir.toString());
+            environment.put("LANG", "C.UTF-8");
+            // Fewer malloc arenas keep JVMs, which start many threads, well inside the address space limit
+            environment.put("MALLOC_ARENA_MAX", "2");
+            return builder;
+        }
+
+        /**
+         * Wrap a command in the cgroup join, namespaces with the minimal root, and rlimits.
+         */
+        private List<String> buildCommand(String[] command, long timeoutMs) {
+            List<String> argv = new ArrayList<>();
+            if (cgroup != null) {
+                argv.addAll(List.of("sh", "-c", JOIN_CGROUP_SCRIPT, "sh", cgroup.resolve("cgroup.procs").toString()));
+            }
+            if (Boolean.TRUE.equals(sandboxConfig.getNamespaces())) {
+                argv.addAll(UNSHARE_COMMAND);
+                argv.addAll(List.of("sh", "-c", MINIMAL_ROOT_SCRIPT, "sh",
+                    sandboxDir.resolve("root").toString(), workDir.toString()));
+                argv.addAll(sandboxConfig.getRuntimePaths());
+                argv.add("--");
+            }
+            // RLIMIT_NPROC counts every process of the user (per user namespace since Linux 5.14)
+            argv.addAll(List.of(
+                "prlimit",
+                "--core=0",
+                "--cpu=" + (timeoutMs / 1000 + 1),
+                "--as=" + addressSpace,
+                "--nproc=" + sandboxConfig.getMaxProcesses(),
+                "--fsize=" + sandboxConfig.getMaxOutputKb() * 1024L,
+                "--nofile=" + sandboxConfig.getMaxOpenFiles(),
+                "--"
+            ));
+            argv.addAll(Arrays.asList(command));
+            return argv;
+        }
+
+        private String readOutput(Path file) {
+            try {
+                return Files.exists(file) ? new String(Files.readAllBytes(file), StandardCharsets.UTF_8) : "";
+            } catch (IOException e) {
+                logger.warn("Could not read output {}: {}", file, e.getMessage());
+                return "";
+            }
+        }
+
+        @Override
+        public void killProcesses() {
+            if (cgroup != null) {
+                try {
+                    // Kills everything in the cgroup at once (kernel 5.14+)
+                    Files.writeString(cgroup.resolve("cgroup.kill"), "1");
+                } catch (IOException e) {
+                    logger.debug("Could not kill cgroup {}: {}", cgroup, e.getMessage());
+                }
+            }
+            for (Process process : running) {
+                process.descendants().forEach(ProcessHandle::destroyForcibly);
+                process.destroyForcibly();
+                running.remove(process);
+            }
+        }
+
+        /**
+         * Sandboxes are never reused: kill leftovers and delete the directory and cgroup.
+         */
+        @Override
+        public void release(boolean reusable) {
+            killProcesses();
+            deleteRecursively(sandboxDir);
+            if (cgroup != null) {
+                removeCgroup();
+            }
+        }
+
+        private void removeCgroup() {
+            // rmdir fails while killed processes are still exiting, give them a moment
+            for (int attempt = 0; attempt < 5; attempt++) {
+                try {
+                    Files.deleteIfExists(cgroup);
+                    return;
+                } catch (IOException e) {
+                    try {
+                        Thread.sleep(20);
+                    } catch (InterruptedException interrupted) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                }
+            }
+            logger.warn("Could not remove cgroup: {}", cgroup);
+        }
+    }
+}
@@ -11,7 +11,6 @@ import com.localcode.persistence.entity.Problem;
 import com.localcode.persistence.entity.SubmissionStatus;
 import com.localcode.persistence.entity.TestCase;
 import com.localcode.persistence.repository.ProblemRepository;
-import com.localcode.persistence.repository.SubmissionRepository;
 import com.localcode.persistence.repository.TestCaseRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -26,15 +25,15 @@ import java.util.stream.Collectors;
 public class ProblemService {
     
     private final ProblemRepository problemRepository;
-    private final SubmissionRepository submissionRepository;
     private final TestCaseRepository testCaseRepository;
+    private final UserProgressService userProgressService;
     
     public ProblemService(ProblemRepository problemRepository,
-                         SubmissionRepository submissionRepository,
-                         TestCaseRepository testCaseRepository) {
+                         TestCaseRepository testCaseRepository,
+                         UserProgressService userProgressService) {
         this.problemRepository = problemRepository;
-        this.submissionRepository = submissionRepository;
         this.testCaseRepository = testCaseRepository;
+        this.userProgressService = userProgressService;
     }
     
     /**
@@ -47,17 +46,17 @@ public class ProblemService {
     public List<ProblemDTO> getAllProblems(Long userId) {
         List<Problem> problems = problemRepository.findAllByOrderByCreatedAtDesc();
         
-        // Get user's solved and attempted problem IDs
-        List<Long> solvedProblemIds = submissionRepository.findSolvedProblemIdsByUserId(userId);
-        List<Long> attemptedProblemIds = submissionRepository.findAttemptedProblemIdsByUserId(userId);
+        // Get user's solved problems and attempt counts from the progress read model
+        UserProgressService.UserProgress progress = userProgressService.getProgress(userId);
+        Map<Long, Integer> attemptCounts = progress.getAttemptCounts();
         
-        Set<Long> solvedSet = new HashSet<>(solvedProblemIds);
-        Set<Long> attemptedSet = new HashSet<>(attemptedProblemIds);
+        Set<Long> solvedSet = progress.getSolvedProblemIds();
+        Set<Long> attemptedSet = progress.getAttemptedProblemIds();
         
         return problems.stream()
             .map(problem -> {
                 String userStatus = calculateUserStatus(problem.getId(), solvedSet, attemptedSet);
-                Integer attemptCount = calculateAttemptCount(problem.getId(), userId);
+                Integer attemptCount = attemptCounts.getOrDefault(problem.getId(), 0);
                 
                 return new ProblemDTO(
                     problem.getId(),
@@ -85,17 +84,17 @@ public class ProblemService {
                                                    String[] tags, String searchTerm) {
         List<Problem> problems = problemRepository.findWithFilters(difficulty, tags, searchTerm);
         
-        // Get user's solved and attempted problem IDs
-        List<Long> solvedProblemIds = submissionRepository.findSolvedProblemIdsByUserId(userId);
-        List<Long> attemptedProblemIds = submissionRepository.findAttemptedProblemIdsByUserId(userId);
+        // Get user's solved problems and attempt counts from the progress read model
+        UserProgressService.UserProgress progress = userProgressService.getProgress(userId);
+        Map<Long, Integer> attemptCounts = progress.getAttemptCounts();
         
-        Set<Long> solvedSet = new HashSet<>(solvedProblemIds);
-        Set<Long> attemptedSet = new HashSet<>(attemptedProblemIds);
+        Set<Long> solvedSet = progress.getSolvedProblemIds();
+        Set<Long> attemptedSet = progress.getAttemptedProblemIds();
         
         return problems.stream()
             .map(problem -> {
                 String userStatus = calculateUserStatus(problem.getId(), solvedSet, attemptedSet);
-                Integer attemptCount = calculateAttemptCount(problem.getId(), userId);
+                Integer attemptCount = attemptCounts.getOrDefault(problem.getId(), 0);
                 
                 return new ProblemDTO(
                     problem.getId(),
@@ -121,16 +120,17 @@ public class ProblemService {
         Difficulty difficultyEnum = Difficulty.valueOf(difficulty.toUpperCase());
         List<Problem> problems = problemRepository.findByDifficultyOrderByCreatedAtDesc(difficultyEnum);
         
-        List<Long> solvedProblemIds = submissionRepository.findSolvedProblemIdsByUserId(userId);
-        List<Long> attemptedProblemIds = submissionRepository.findAttemptedProblemIdsByUserId(userId);
+        // Get user's solved problems and attempt counts from the progress read model
+        UserProgressService.UserProgress progress = userProgressService.getProgress(userId);
+        Map<Long, Integer> attemptCounts = progress.getAttemptCounts();
         
-        Set<Long> solvedSet = new HashSet<>(solvedProblemIds);
-        Set<Long> attemptedSet = new HashSet<>(attemptedProblemIds);
+        Set<Long> solvedSet = progress.getSolvedProblemIds();
+        Set<Long> attemptedSet = progress.getAttemptedProblemIds();
         
         return problems.stream()
             .map(problem -> {
                 String userStatus = calculateUserStatus(problem.getId(), solvedSet, attemptedSet);
-                Integer attemptCount = calculateAttemptCount(problem.getId(), userId);
+                Integer attemptCount = attemptCounts.getOrDefault(problem.getId(), 0);
                 
                 return new ProblemDTO(
                     problem.getId(),
@@ -157,15 +157,11 @@ public class ProblemService {
         Problem problem = problemRepository.findById(problemId)
             .orElseThrow(() -> new ResourceNotFoundException("Problem", "id", problemId));
         
-        // Get user's solved and attempted problem IDs
-        List<Long> solvedProblemIds = submissionRepository.findSolvedProblemIdsByUserId(userId);
-        List<Long> attemptedProblemIds = submissionRepository.findAttemptedProblemIdsByUserId(userId);
+        // Get user's progress from the read model
+        UserProgressService.UserProgress progress = userProgressService.getProgress(userId);
         
-        Set<Long> solvedSet = new HashSet<>(solvedProblemIds);
-        Set<Long> attemptedSet = new HashSet<>(attemptedProblemIds);
-        
-        String userStatus = calculateUserStatus(problemId, solvedSet, attemptedSet);
-        Integer attemptCount = calculateAttemptCount(problemId, userId);
+        String userStatus = calculateUserStatus(problemId, progress.getSolvedProblemIds(), progress.getAttemptedProblemIds());
+        Integer attemptCount = progress.getAttemptCount(problemId);
         
         // Build starter code map
         Map<String, String> starterCode = new HashMap<>();
@@ -296,15 +292,4 @@ public class ProblemService {
             return "not_attempted";
         }
     }
-    
-    /**
-     * Calculate attempt count for a problem and user.
-     *
-     * @param problemId the problem ID
-     * @param userId the user ID
-     * @return number of attempts
-     */
-    private Integer calculateAttemptCount(Long problemId, Long userId) {
-        return (int) submissionRepository.findByUserIdAndProblemIdOrderBySubmittedAtDesc(userId, problemId).size();
-    }
 }
@@ -0,0 +1,134 @@
+package com.localcode.services;
+
+import com.localcode.dto.RunJobDTO;
+import com.localcode.dto.RunResult;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory store of asynchronous run jobs.
+ *
+ * A job holds the future of a sample run queued on the judge scheduler. Finished
+ * jobs are kept for a short time so the client can fetch the result, then dropped;
+ * expired jobs are swept whenever a new job is created.
+ */
+@Service
+public class RunJobStore {
+
+    private static final long SWEEP_INTERVAL_MS = 1000;
+
+    private final Map<String, RunJob> jobs = new ConcurrentHashMap<>();
+    private final long ttlMs;
+    private volatile long lastSweep = 0;
+
+    public RunJobStore(@Value("${run.jobs.ttl-seconds:300}") long ttlSeconds) {
+        this.ttlMs = ttlSeconds * 1000;
+    }
+
+    /**
+     * Register a queued run.
+     *
+     * @param userId the owner
+     * @param future the run's future
+     * @return the new job
+     */
+    public RunJob create(Long userId, CompletableFuture<RunResult> future) {
+        sweepExpired();
+
+        RunJob job = new RunJob(UUID.randomUUID().toString(), userId, future);
+        jobs.put(job.getId(), job);
+        future.whenComplete((result, error) -> job.completedAt = System.currentTimeMillis());
+        return job;
+    }
+
+    /**
+     * Look up a job owned by a user.
+     *
+     * @param jobId the job ID
+     * @param userId the requesting user
+     * @return the job, or null if unknown, expired or owned by someone else
+     */
+    public RunJob get(String jobId, Long userId) {
+        RunJob job = jobs.get(jobId);
+        if (job == null || !job.getUserId().equals(userId)) {
+            return null;
+        }
+        if (job.isExpired(System.currentTimeMillis(), ttlMs)) {
+            jobs.remove(jobId);
+            return null;
+        }
+        return job;
+    }
+
+    /**
+     * Get the number of jobs currently held.
+     *
+     * @return job count
+     */
+    public int size() {
+        return jobs.size();
+    }
+
+    private void sweepExpired() {
+        long now = System.currentTimeMillis();
+        if (now - lastSweep < SWEEP_INTERVAL_MS) {
+            return;
+        }
+        lastSweep = now;
+        jobs.values().removeIf(job -> job.isExpired(now, ttlMs));
+    }
+
+    /**
+     * A run queued on the judge scheduler.
+     */
+    public static class RunJob {
+        private final String id;
+        private final Long userId;
+        private final CompletableFuture<RunResult> future;
+        private volatile long completedAt = 0;
+
+        RunJob(String id, Long userId, CompletableFuture<RunResult> future) {
+            this.id = id;
+            this.userId = userId;
+            this.future = future;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public Long getUserId() {
+            return userId;
+        }
+
+        public CompletableFuture<RunResult> getFuture() {
+            return future;
+        }
+
+        /**
+         * Current state of the job as a DTO.
+         */
+        public RunJobDTO toDTO() {
+            if (!future.isDone()) {
+                return new RunJobDTO(id, RunJobDTO.PENDING, null, null);
+            }
+            try {
+                return new RunJobDTO(id, RunJobDTO.COMPLETED, future.join(), null);
+            } catch (CompletionException | CancellationException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                return new RunJobDTO(id, RunJobDTO.FAILED, null, cause.getMessage());
+            }
+        }
+
+        private boolean isExpired(long now, long ttlMs) {
+            return completedAt > 0 && now - completedAt > ttlMs;
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.localcode.services;
+
+import com.localcode.dto.RunResult;
+import com.localcode.dto.TestResultDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Short-lived cache of sample runs, so clicking Run again with unchanged code
+ * returns the previous result without queueing or executing anything.
+ *
+ * Keyed by (problem, sample-set version, language, normalized code hash). The
+ * sample-set version is a hash of the problem's sample cases and limits, computed
+ * by the caller from the samples it has just run against. The cache remembers the
+ * latest version stored for each problem and looks entries up under it, so a lookup
+ * needs no database query. Samples and limits only change outside the application;
+ * an edit takes effect with the next executed run of the problem, or once older
+ * entries expire. Entries expire after a short TTL and the cache is bounded by entry
+ * count and by an estimate of the bytes it holds.
+ */
+@Service
+public class RunResultCache {
+
+    // Rough per-object overhead added to string sizes when estimating an entry's footprint
+    private static final long ENTRY_OVERHEAD_BYTES = 256;
+    private static final long CASE_OVERHEAD_BYTES = 128;
+
+    private final boolean enabled;
+    private final long ttlMs;
+    private final BoundedCache<String, CachedRun> entries;
+    private final BoundedCache<Long, String> sampleSetVersions;
+
+    private final Counter hitCounter;
+    private final Counter missCounter;
+
+    public RunResultCache(MeterRegistry meterRegistry,
+                          @Value("${execution.run-cache.enabled:true}") boolean enabled,
+                          @Value("${execution.run-cache.max-entries:2000}") int maxEntries,
+                          @Value("${execution.run-cache.max-size-mb:32}") long maxSizeMb,
+                          @Value("${execution.run-cache.ttl-seconds:120}") long ttlSeconds) {
+        this.enabled = enabled;
+        this.ttlMs = ttlSeconds * 1000L;
+        this.entries = new BoundedCache<>(maxEntries, maxSizeMb * 1024L * 1024L, cached -> cached.bytes);
+        this.sampleSetVersions = new BoundedCache<>(maxEntries);
+
+        this.hitCounter = Counter.builder("run.cache.requests")
+            .tag("result", "hit")
+            .description("Sample run lookups in the run result cache")
+            .register(meterRegistry);
+        this.missCounter = Counter.builder("run.cache.requests")
+            .tag("result", "miss")
+            .description("Sample run lookups in the run result cache")
+            .register(meterRegistry);
+        Gauge.builder("run.cache.bytes", this, RunResultCache::getTotalBytes)
+            .description("Estimated bytes held by the run result cache")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Check whether runs are cached at all, so callers can skip computing the sample-set version.
+     *
+     * @return true when the cache is enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Get a cached run made against the problem's latest known sample set.
+     *
+     * @param problemId the problem ID
+     * @param language the language
+     * @param code the code
+     * @return the cached result, or null on a miss
+     */
+    public RunResult get(Long problemId, String language, String code) {
+        if (!enabled) {
+            return null;
+        }
+
+        String sampleSetVersion = sampleSetVersions.get(problemId);
+        CachedRun cached = sampleSetVersion != null
+            ? entries.get(key(problemId, sampleSetVersion, language, code))
+            : null;
+        RunResult result = cached != null ? cached.result : null;
+        if (result != null) {
+            hitCounter.increment();
+        } else {
+            missCounter.increment();
+        }
+        return result;
+    }
+
+    /**
+     * Store a finished run and make its sample-set version the problem's current one.
+     *
+     * @param problemId the problem ID
+     * @param sampleSetVersion hash of the sample cases and limits the run used
+     * @param language the language
+     * @param code the code
+     * @param result the run result
+     */
+    public void put(Long problemId, String sampleSetVersion, String language, String code, RunResult result) {
+        if (!enabled) {
+            return;
+        }
+
+        // Entries of an older version are unreachable and age out by TTL/LRU
+        String key = key(problemId, sampleSetVersion, language, code);
+        entries.put(key, new CachedRun(result, estimateBytes(result)), ttlMs);
+        sampleSetVersions.put(problemId, sampleSetVersion, ttlMs);
+    }
+
+    /**
+     * Compute the sample-set version of a problem.
+     *
+     * @param sampleCases the sample cases as (id, input, expected output) triples, in run order
+     * @param timeLimitMs the problem's time limit
+     * @param memoryLimitMb the problem's memory limit
+     * @return hex digest identifying the samples and limits
+     */
+    public static String sampleSetVersion(List<String[]> sampleCases, Integer timeLimitMs, Integer memoryLimitMb) {
+        List<String[]> parts = new ArrayList<>(sampleCases);
+        parts.add(new String[] { String.valueOf(timeLimitMs), String.valueOf(memoryLimitMb) });
+        return VerdictCache.testSetHash(parts);
+    }
+
+    public long getTotalBytes() {
+        return entries.weight();
+    }
+
+    private static String key(Long problemId, String sampleSetVersion, String language, String code) {
+        return problemId + ":" + sampleSetVersion + ":" + language + ":" + VerdictCache.normalizedCodeHash(code);
+    }
+
+    private static long estimateBytes(RunResult result) {
+        long bytes = ENTRY_OVERHEAD_BYTES;
+        if (result.getTestResults() != null) {
+            for (TestResultDTO testResult : result.getTestResults()) {
+                bytes += CASE_OVERHEAD_BYTES
+                    + chars(testResult.getInput())
+                    + chars(testResult.getExpectedOutput())
+                    + chars(testResult.getActualOutput())
+                    + chars(testResult.getErrorMessage());
+            }
+        }
+        return bytes;
+    }
+
+    private static long chars(String value) {
+        return value == null ? 0 : 2L * value.length();
+    }
+
+    private static class CachedRun {
+        private final RunResult result;
+        private final long bytes;
+
+        CachedRun(RunResult result, long bytes) {
+            this.result = result;
+            this.bytes = bytes;
+        }
+    }
+}
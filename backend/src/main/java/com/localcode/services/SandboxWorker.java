@@ -0,0 +1,145 @@
+package com.localcode.services;
+
+import com.localcode.dto.ResourceMetrics;
+import com.localcode.services.ExecutionBackend.ExecOutput;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Client for a persistent worker process in a sandbox that compiles and runs submissions
+ * without starting a new runtime per test case:
+ * <ul>
+ *   <li>Java: a JVM (runtimes/worker/JudgeWorker.java) that runs each test case in a fresh class loader</li>
+ *   <li>Python: a zygote (runtimes/worker/zygote.py) that forks a child per test case</li>
+ * </ul>
+ * Both speak the same line protocol on stdin and stdout. One worker serves one sandbox;
+ * it is started lazily and closed when the sandbox is released or the worker asks
+ * to be recycled.
+ */
+class SandboxWorker {
+
+    // How long a new worker may take to report READY
+    private static final long START_TIMEOUT_MS = 10000;
+
+    private final ExecutionBackend.WorkerProcess process;
+
+    private SandboxWorker(ExecutionBackend.WorkerProcess process) {
+        this.process = process;
+    }
+
+    /**
+     * Start a worker in the sandbox's working directory and wait until it is ready.
+     *
+     * @param sandbox the sandbox holding the code
+     * @param command the worker command
+     * @param lifetimeMs the worker is killed after this long
+     * @return the ready worker
+     * @throws java.io.EOFException if the worker exited before it was ready, e.g. it is not installed
+     * @throws IOException if the worker could not be started or did not get ready in time
+     */
+    static SandboxWorker start(ExecutionBackend.Sandbox sandbox, String[] command, long lifetimeMs)
+            throws IOException, InterruptedException {
+        List<String> timed = new ArrayList<>(List.of("timeout", "-s", "KILL", String.valueOf(lifetimeMs / 1000 + 1)));
+        timed.addAll(Arrays.asList(command));
+        ExecutionBackend.WorkerProcess process = sandbox.startWorker(timed.toArray(new String[0]), lifetimeMs);
+
+        String ready;
+        try {
+            ready = process.receive(START_TIMEOUT_MS);
+        } catch (IOException e) {
+            process.close();
+            throw e;
+        }
+        if (!"READY".equals(ready)) {
+            process.close();
+            throw new IOException(ready != null
+                ? "Unexpected reply from worker: " + ready
+                : "Worker did not start in time");
+        }
+        return new SandboxWorker(process);
+    }
+
+    /**
+     * Compile a source file in the working directory.
+     *
+     * @return the compiler output, or null if it did not finish in time
+     * @throws IOException if the worker died or its runtime has no compiler
+     */
+    ExecOutput compile(String fileName, long timeoutMs) throws IOException, InterruptedException {
+        process.send("COMPILE " + fileName);
+        String[] fields = receive("COMPILED", 4, timeoutMs);
+        if (fields == null) {
+            return null;
+        }
+
+        int exitCode = Integer.parseInt(fields[1]);
+        if (exitCode < 0) {
+            throw new IOException("No compiler in the worker's runtime");
+        }
+        return new ExecOutput(decode(fields[2]), decode(fields[3]), exitCode);
+    }
+
+    /**
+     * Run the program (a Java class or a Python file) against one input file.
+     * The memory limit caps the Python child's address space; the Java worker's JVM is capped by its sandbox.
+     *
+     * @return the run, or null if the worker did not answer in time
+     * @throws IOException if the worker died
+     */
+    Run run(String program, String inputFile, long wallLimitMs, int memoryLimitMb, long timeoutMs)
+            throws IOException, InterruptedException {
+        process.send("RUN " + program + " " + inputFile + " " + wallLimitMs + " " + memoryLimitMb);
+        String[] fields = receive("RESULT", 8, timeoutMs);
+        if (fields == null) {
+            return null;
+        }
+
+        ResourceMetrics metrics = new ResourceMetrics(Long.parseLong(fields[2]), Long.parseLong(fields[3]));
+        ExecOutput output = new ExecOutput(decode(fields[6]), decode(fields[7]), Integer.parseInt(fields[1]), metrics);
+        return new Run(output, "1".equals(fields[4]), "1".equals(fields[5]));
+    }
+
+    /**
+     * Let the worker exit.
+     */
+    void close() {
+        process.close();
+    }
+
+    private String[] receive(String type, int fieldCount, long timeoutMs) throws IOException, InterruptedException {
+        String line = process.receive(timeoutMs);
+        if (line == null) {
+            return null;
+        }
+
+        String[] fields = line.split(" ");
+        if (!fields[0].equals(type) || fields.length != fieldCount) {
+            throw new IOException("Unexpected reply from worker: " + line);
+        }
+        return fields;
+    }
+
+    private static String decode(String field) {
+        return field.equals("-") ? "" : new String(Base64.getDecoder().decode(field), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Outcome of one test case run by the worker.
+     */
+    static class Run {
+        final ExecOutput output;
+        final boolean timedOut;  // Killed at the wall-clock limit
+        final boolean recycle;   // The worker should not be used for another run
+
+        Run(ExecOutput output, boolean timedOut, boolean recycle) {
+            this.output = output;
+            this.timedOut = timedOut;
+            this.recycle = recycle;
+        }
+    }
+}
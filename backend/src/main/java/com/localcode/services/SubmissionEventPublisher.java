@@ -0,0 +1,125 @@
+package com.localcode.services;
+
+import com.localcode.dto.SubmissionDetailDTO;
+import com.localcode.dto.SubmissionProgressEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Pushes submission progress to clients over Server-Sent Events.
+ *
+ * Clients subscribe per submission. Evaluation publishes a "progress" event for
+ * every finished test case and a final "verdict" event (or "error" if evaluation
+ * failed), after which the streams for that submission are completed.
+ */
+@Service
+public class SubmissionEventPublisher {
+    
+    private static final Logger logger = LoggerFactory.getLogger(SubmissionEventPublisher.class);
+    
+    public static final String PROGRESS_EVENT = "progress";
+    public static final String VERDICT_EVENT = "verdict";
+    public static final String ERROR_EVENT = "error";
+    
+    private final long timeoutMs;
+    private final Map<Long, List<SseEmitter>> emitters = new ConcurrentHashMap<>();
+    
+    public SubmissionEventPublisher(@Value("${submission.events.timeout-ms:120000}") long timeoutMs) {
+        this.timeoutMs = timeoutMs;
+    }
+    
+    /**
+     * Open a stream for a submission.
+     *
+     * @param submissionId the submission ID
+     * @return emitter that receives the submission's events
+     */
+    public SseEmitter subscribe(Long submissionId) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        emitters.computeIfAbsent(submissionId, k -> new CopyOnWriteArrayList<>()).add(emitter);
+        
+        emitter.onCompletion(() -> remove(submissionId, emitter));
+        emitter.onTimeout(() -> remove(submissionId, emitter));
+        emitter.onError(e -> remove(submissionId, emitter));
+        
+        return emitter;
+    }
+    
+    /**
+     * Check whether anyone is listening to a submission.
+     *
+     * @param submissionId the submission ID
+     * @return true if at least one stream is open
+     */
+    public boolean hasSubscribers(Long submissionId) {
+        List<SseEmitter> subscribers = emitters.get(submissionId);
+        return subscribers != null && !subscribers.isEmpty();
+    }
+    
+    /**
+     * Send the result of one finished test case.
+     *
+     * @param submissionId the submission ID
+     * @param event the progress event
+     */
+    public void publishProgress(Long submissionId, SubmissionProgressEvent event) {
+        send(submissionId, PROGRESS_EVENT, event, false);
+    }
+    
+    /**
+     * Send the final state of a submission and close its streams.
+     *
+     * @param submissionId the submission ID
+     * @param submission the evaluated submission
+     */
+    public void publishVerdict(Long submissionId, SubmissionDetailDTO submission) {
+        send(submissionId, VERDICT_EVENT, submission, true);
+    }
+    
+    /**
+     * Report a failed evaluation and close the submission's streams.
+     *
+     * @param submissionId the submission ID
+     * @param message the error message
+     */
+    public void publishError(Long submissionId, String message) {
+        send(submissionId, ERROR_EVENT, Map.of("message", message != null ? message : "Evaluation failed"), true);
+    }
+    
+    private void send(Long submissionId, String eventName, Object data, boolean last) {
+        List<SseEmitter> subscribers = last ? emitters.remove(submissionId) : emitters.get(submissionId);
+        if (subscribers == null) {
+            return;
+        }
+        
+        for (SseEmitter emitter : subscribers) {
+            try {
+                emitter.send(SseEmitter.event().name(eventName).data(data));
+                if (last) {
+                    emitter.complete();
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Client went away, drop the stream
+                logger.debug("Dropping event stream for submission {}: {}", submissionId, e.getMessage());
+                remove(submissionId, emitter);
+                emitter.completeWithError(e);
+            }
+        }
+    }
+    
+    private void remove(Long submissionId, SseEmitter emitter) {
+        emitters.computeIfPresent(submissionId, (id, subscribers) -> {
+            subscribers.remove(emitter);
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+    }
+}
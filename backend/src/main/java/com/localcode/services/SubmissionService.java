@@ -7,6 +7,7 @@ import com.localcode.persistence.entity.*;
 import com.localcode.persistence.repository.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -27,17 +28,20 @@ public class SubmissionService {
     private final UserRepository userRepository;
     private final TestResultRepository testResultRepository;
     private final UserProblemStatusService userProblemStatusService;
+    private final UserProgressService userProgressService;
     
     public SubmissionService(SubmissionRepository submissionRepository,
                            ProblemRepository problemRepository,
                            UserRepository userRepository,
                            TestResultRepository testResultRepository,
-                           UserProblemStatusService userProblemStatusService) {
+                           UserProblemStatusService userProblemStatusService,
+                           UserProgressService userProgressService) {
         this.submissionRepository = submissionRepository;
         this.problemRepository = problemRepository;
         this.userRepository = userRepository;
         this.testResultRepository = testResultRepository;
         this.userProblemStatusService = userProblemStatusService;
+        this.userProgressService = userProgressService;
     }
     
     /**
@@ -51,9 +55,8 @@ public class SubmissionService {
     public SubmissionDTO createSubmission(SubmissionRequest request, Long userId) {
         logger.info("Creating submission for user {} and problem {}", userId, request.getProblemId());
         
-        // Validate user exists
-        User user = userRepository.findById(userId)
-            .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
+        // The user ID comes from a verified token, so a reference is enough for the foreign key
+        User user = userRepository.getReferenceById(userId);
         
         // Validate problem exists
         Problem problem = problemRepository.findById(request.getProblemId())
@@ -63,8 +66,15 @@ public class SubmissionService {
         Submission submission = new Submission(user, problem, request.getCode(), request.getLanguage());
         submission.setStatus(SubmissionStatus.PENDING);
         
-        // Save submission
-        submission = submissionRepository.save(submission);
+        // Save submission; the insert runs right away (IDENTITY id), so a user deleted since the
+        // token was issued fails the foreign key here
+        try {
+            submission = submissionRepository.save(submission);
+        } catch (DataIntegrityViolationException e) {
+            logger.warn("Rejecting submission of user {} that no longer exists", userId);
+            throw new ResourceNotFoundException("User", "id", userId);
+        }
+        userProgressService.recordSubmission(userId, problem.getId());
         
         logger.info("Created submission with ID: {}", submission.getId());
         
@@ -117,6 +127,22 @@ public class SubmissionService {
         return convertToDetailDTO(submission, testResults);
     }
     
+    /**
+     * Get the current status of a submission with authorization check.
+     * Cheaper than {@link #getSubmissionById} as no test results are loaded.
+     *
+     * @param submissionId the submission ID
+     * @param userId the user ID
+     * @return the submission status
+     */
+    @Transactional(readOnly = true)
+    public SubmissionStatus getSubmissionStatus(Long submissionId, Long userId) {
+        return submissionRepository.findByIdAndUserId(submissionId, userId)
+            .map(Submission::getStatus)
+            .orElseThrow(() -> new UnauthorizedException(
+                "Submission not found or access denied: " + submissionId));
+    }
+    
     /**
      * Get user statistics including solved and attempted problems.
      *
@@ -130,19 +156,12 @@ public class SubmissionService {
         // Get total problems count
         long totalProblems = problemRepository.count();
         
-        // Get solved problems (distinct problems with ACCEPTED status)
-        List<Long> solvedProblemIds = submissionRepository.findSolvedProblemIdsByUserId(userId);
-        int solvedCount = solvedProblemIds.size();
-        
-        // Get attempted problems (distinct problems with any submission)
-        List<Long> attemptedProblemIds = submissionRepository.findAttemptedProblemIdsByUserId(userId);
-        int attemptedCount = attemptedProblemIds.size();
-        
-        // Get total submissions count
-        long totalSubmissions = submissionRepository.countByUserId(userId);
-        
-        // Get accepted submissions count
-        long acceptedSubmissions = submissionRepository.countByUserIdAndStatus(userId, SubmissionStatus.ACCEPTED);
+        // Get solved/attempted problems and submission counts from the progress read model
+        UserProgressService.UserProgress progress = userProgressService.getProgress(userId);
+        int solvedCount = progress.getSolvedProblemIds().size();
+        int attemptedCount = progress.getAttemptedProblemIds().size();
+        long totalSubmissions = progress.getTotalSubmissions();
+        long acceptedSubmissions = progress.getAcceptedSubmissions();
         
         // Calculate accuracy
         double accuracy = totalSubmissions > 0 
@@ -202,6 +221,7 @@ public class SubmissionService {
         // Update user problem status based on submission result
         Long userId = submission.getUser().getId();
         Long problemId = submission.getProblem().getId();
+        userProgressService.recordVerdict(userId, problemId, status);
         
         if (status == SubmissionStatus.ACCEPTED) {
             // Mark as SOLVED if accepted
@@ -214,6 +234,31 @@ public class SubmissionService {
         logger.info("Updated submission {} successfully", submissionId);
     }
     
+    /**
+     * Persist the test results of an evaluation together with the final verdict.
+     * Called once per evaluation after all code has run, so the transaction only
+     * covers the writes.
+     *
+     * @param submissionId the submission ID
+     * @param testResults the test results, not yet attached to the submission
+     * @param status the final status
+     * @param runtimeMs the maximum runtime
+     * @param memoryKb the maximum memory usage
+     * @return the saved test results, in the same order
+     */
+    @Transactional
+    public List<TestResult> recordEvaluationResults(Long submissionId, List<TestResult> testResults,
+                                                    SubmissionStatus status, Integer runtimeMs, Integer memoryKb) {
+        Submission submission = submissionRepository.getReferenceById(submissionId);
+        testResults.forEach(testResult -> testResult.setSubmission(submission));
+        
+        List<TestResult> savedResults = testResultRepository.saveAll(testResults);
+        
+        updateSubmissionResults(submissionId, status, runtimeMs, memoryKb);
+        
+        return savedResults;
+    }
+    
     /**
      * Convert Submission entity to SubmissionDTO.
      */
@@ -50,9 +50,8 @@ public class TestCaseService {
         Problem problem = problemRepository.findById(problemId)
             .orElseThrow(() -> new ResourceNotFoundException("Problem", "id", problemId));
         
-        // Validate user exists
-        User user = userRepository.findById(userId)
-            .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
+        // The user ID comes from a verified token, so a reference is enough for the foreign key
+        User user = userRepository.getReferenceById(userId);
         
         // Validate input and output are not empty
         if (request.getInput() == null || request.getInput().trim().isEmpty()) {
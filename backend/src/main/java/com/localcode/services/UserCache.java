@@ -0,0 +1,67 @@
+package com.localcode.services;
+
+import com.localcode.persistence.entity.User;
+import com.localcode.persistence.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+
+/**
+ * Bounded cache of user entities by ID.
+ *
+ * Entries expire after a fixed time to live so changes made outside this
+ * instance are picked up eventually. The number of cached users is bounded and
+ * least recently used users are evicted. Cached entities are detached, so only
+ * their own columns (not lazy collections) may be read.
+ */
+@Service
+public class UserCache {
+
+    private final UserRepository userRepository;
+    private final long ttlMs;
+    private final BoundedCache<Long, User> entries;
+
+    public UserCache(UserRepository userRepository,
+                     @Value("${auth.user-cache.max-size:10000}") int maxSize,
+                     @Value("${auth.user-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.userRepository = userRepository;
+        this.ttlMs = ttlSeconds * 1000;
+        this.entries = new BoundedCache<>(maxSize);
+    }
+
+    /**
+     * Get a user by ID, loading it from the database on a miss or after expiry.
+     *
+     * @param userId the user ID
+     * @return the user, or empty if it doesn't exist
+     */
+    public Optional<User> get(Long userId) {
+        User cached = entries.get(userId);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        Optional<User> user = userRepository.findById(userId);
+        user.ifPresent(this::put);
+        return user;
+    }
+
+    /**
+     * Store a user that was just loaded or saved elsewhere.
+     *
+     * @param user the user entity
+     */
+    public void put(User user) {
+        entries.put(user.getId(), user, ttlMs);
+    }
+
+    /**
+     * Drop a cached user so the next read reloads it.
+     *
+     * @param userId the user ID
+     */
+    public void invalidate(Long userId) {
+        entries.remove(userId);
+    }
+}
@@ -54,8 +54,7 @@ public class UserProblemStatusService {
             }
         } else {
             // Create new status record
-            User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+            User user = userRepository.getReferenceById(userId);
             Problem problem = problemRepository.findById(problemId)
                 .orElseThrow(() -> new RuntimeException("Problem not found"));
             
@@ -0,0 +1,217 @@
+package com.localcode.services;
+
+import com.localcode.persistence.entity.SubmissionStatus;
+import com.localcode.persistence.repository.SubmissionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * In-memory read model of each user's progress.
+ *
+ * Holds solved problems, per-problem attempt counts and total/accepted submission
+ * counts so problem listings and stats don't scan the submissions table. A user's
+ * entry is loaded from the database on first use and then kept up to date as
+ * submissions are created and judged. The number of cached users is bounded and
+ * least recently used users are evicted.
+ */
+@Service
+public class UserProgressService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserProgressService.class);
+
+    private final SubmissionRepository submissionRepository;
+    private final BoundedCache<Long, UserProgress> entries;
+
+    // Token of the latest load in flight per user; removed when the user changes meanwhile
+    private final Map<Long, Object> loading = new ConcurrentHashMap<>();
+
+    public UserProgressService(SubmissionRepository submissionRepository,
+                               @Value("${progress.cache.max-users:10000}") int maxUsers) {
+        this.submissionRepository = submissionRepository;
+        this.entries = new BoundedCache<>(maxUsers);
+    }
+
+    /**
+     * Get a user's progress, loading it from the database on a miss.
+     *
+     * @param userId the user ID
+     * @return snapshot of the user's progress
+     */
+    public UserProgress getProgress(Long userId) {
+        UserProgress progress = entries.get(userId);
+        if (progress != null) {
+            return progress.snapshot();
+        }
+
+        Object token = new Object();
+        loading.put(userId, token);
+        try {
+            UserProgress loaded = load(userId);
+
+            // Only cache if no submission for this user changed and no newer load started while we
+            // were reading; checked and stored under the map's lock for this user, so a change
+            // either drops the token first or finds the entry and updates it
+            loading.computeIfPresent(userId, (id, current) -> {
+                if (current != token) {
+                    return current;
+                }
+                entries.putIfAbsent(userId, loaded, BoundedCache.NO_EXPIRY);
+                return null;
+            });
+            return loaded.snapshot();
+        } finally {
+            loading.remove(userId, token);
+        }
+    }
+
+    /**
+     * Record a newly created submission once its transaction commits.
+     *
+     * @param userId the user ID
+     * @param problemId the problem ID
+     */
+    public void recordSubmission(Long userId, Long problemId) {
+        afterCommit(userId, progress -> progress.addSubmission(problemId));
+    }
+
+    /**
+     * Record the verdict of a judged submission once its transaction commits.
+     *
+     * @param userId the user ID
+     * @param problemId the problem ID
+     * @param status the final status
+     */
+    public void recordVerdict(Long userId, Long problemId, SubmissionStatus status) {
+        if (status == SubmissionStatus.ACCEPTED) {
+            afterCommit(userId, progress -> progress.addAccepted(problemId));
+        }
+    }
+
+    /**
+     * Drop a user's cached progress so the next read reloads it.
+     *
+     * @param userId the user ID
+     */
+    public void invalidate(Long userId) {
+        loading.remove(userId);
+        entries.remove(userId);
+    }
+
+    /**
+     * Build a user's progress from the database.
+     * Total submissions is the sum of the per-problem counts, so no separate count query is needed.
+     */
+    private UserProgress load(Long userId) {
+        Map<Long, Integer> attemptCounts = new HashMap<>();
+        long totalSubmissions = 0;
+        for (Object[] row : submissionRepository.countSubmissionsPerProblemByUserId(userId)) {
+            int count = ((Long) row[1]).intValue();
+            attemptCounts.put((Long) row[0], count);
+            totalSubmissions += count;
+        }
+
+        Set<Long> solved = new HashSet<>(submissionRepository.findSolvedProblemIdsByUserId(userId));
+        long acceptedSubmissions = submissionRepository.countByUserIdAndStatus(userId, SubmissionStatus.ACCEPTED);
+
+        logger.debug("Loaded progress for user {}: {} attempted, {} solved", userId, attemptCounts.size(), solved.size());
+        return new UserProgress(solved, attemptCounts, totalSubmissions, acceptedSubmissions);
+    }
+
+    /**
+     * Apply an update to the cached entry after the current transaction commits,
+     * or right away when there is no transaction.
+     */
+    private void afterCommit(Long userId, Consumer<UserProgress> update) {
+        Runnable apply = () -> {
+            // A load in flight may have read the database before this change
+            loading.remove(userId);
+            UserProgress progress = entries.get(userId);
+            if (progress != null) {
+                update.accept(progress);
+            }
+        };
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+
+    /**
+     * Progress of one user: solved problems, attempts per problem and submission counts.
+     */
+    public static class UserProgress {
+        private final Set<Long> solvedProblemIds;
+        private final Map<Long, Integer> attemptCounts;
+        private long totalSubmissions;
+        private long acceptedSubmissions;
+
+        UserProgress(Set<Long> solvedProblemIds, Map<Long, Integer> attemptCounts,
+                     long totalSubmissions, long acceptedSubmissions) {
+            this.solvedProblemIds = solvedProblemIds;
+            this.attemptCounts = attemptCounts;
+            this.totalSubmissions = totalSubmissions;
+            this.acceptedSubmissions = acceptedSubmissions;
+        }
+
+        synchronized void addSubmission(Long problemId) {
+            attemptCounts.merge(problemId, 1, Integer::sum);
+            totalSubmissions++;
+        }
+
+        synchronized void addAccepted(Long problemId) {
+            solvedProblemIds.add(problemId);
+            acceptedSubmissions++;
+        }
+
+        synchronized UserProgress snapshot() {
+            return new UserProgress(
+                Collections.unmodifiableSet(new HashSet<>(solvedProblemIds)),
+                Collections.unmodifiableMap(new HashMap<>(attemptCounts)),
+                totalSubmissions,
+                acceptedSubmissions
+            );
+        }
+
+        public Set<Long> getSolvedProblemIds() {
+            return solvedProblemIds;
+        }
+
+        /**
+         * Problem IDs the user has submitted to at least once.
+         */
+        public Set<Long> getAttemptedProblemIds() {
+            return attemptCounts.keySet();
+        }
+
+        public Map<Long, Integer> getAttemptCounts() {
+            return attemptCounts;
+        }
+
+        public int getAttemptCount(Long problemId) {
+            return attemptCounts.getOrDefault(problemId, 0);
+        }
+
+        public long getTotalSubmissions() {
+            return totalSubmissions;
+        }
+
+        public long getAcceptedSubmissions() {
+            return acceptedSubmissions;
+        }
+    }
+}
@@ -3,7 +3,6 @@ package com.localcode.services;
 import com.localcode.dto.SubmissionDTO;
 import com.localcode.dto.UserStatsDTO;
 import com.localcode.persistence.entity.Submission;
-import com.localcode.persistence.entity.SubmissionStatus;
 import com.localcode.persistence.repository.ProblemRepository;
 import com.localcode.persistence.repository.SubmissionRepository;
 import org.springframework.stereotype.Service;
@@ -20,11 +19,14 @@ public class UserStatsService {
     
     private final SubmissionRepository submissionRepository;
     private final ProblemRepository problemRepository;
+    private final UserProgressService userProgressService;
     
     public UserStatsService(SubmissionRepository submissionRepository,
-                           ProblemRepository problemRepository) {
+                           ProblemRepository problemRepository,
+                           UserProgressService userProgressService) {
         this.submissionRepository = submissionRepository;
         this.problemRepository = problemRepository;
+        this.userProgressService = userProgressService;
     }
     
     /**
@@ -38,19 +40,12 @@ public class UserStatsService {
         // Get total problems count
         long totalProblems = problemRepository.count();
         
-        // Get solved problems count (distinct problems with ACCEPTED status)
-        List<Long> solvedProblemIds = submissionRepository.findSolvedProblemIdsByUserId(userId);
-        int solvedProblems = solvedProblemIds.size();
-        
-        // Get attempted problems count (distinct problems with any submission)
-        List<Long> attemptedProblemIds = submissionRepository.findAttemptedProblemIdsByUserId(userId);
-        int attemptedProblems = attemptedProblemIds.size();
-        
-        // Get total submissions count
-        long totalSubmissions = submissionRepository.countByUserId(userId);
-        
-        // Get accepted submissions count
-        long acceptedSubmissions = submissionRepository.countByUserIdAndStatus(userId, SubmissionStatus.ACCEPTED);
+        // Get solved/attempted problems and submission counts from the progress read model
+        UserProgressService.UserProgress progress = userProgressService.getProgress(userId);
+        int solvedProblems = progress.getSolvedProblemIds().size();
+        int attemptedProblems = progress.getAttemptedProblemIds().size();
+        long totalSubmissions = progress.getTotalSubmissions();
+        long acceptedSubmissions = progress.getAcceptedSubmissions();
         
         // Calculate accuracy
         double accuracy = totalSubmissions > 0 
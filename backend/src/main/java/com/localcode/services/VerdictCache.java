@@ -0,0 +1,221 @@
+package com.localcode.services;
+
+import com.localcode.persistence.entity.SubmissionStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Cache of finished evaluations, so resubmitting identical code skips Docker.
+ *
+ * Keyed by (problem, test-set hash, language, normalized code hash, harness hash,
+ * time and memory limits). The test-set hash covers every test case's ID, input
+ * and expected output and is computed from the current test cases on every
+ * evaluation, so any change to them makes older entries miss. Entries expire
+ * after a TTL and least recently used entries are evicted once full.
+ */
+@Service
+public class VerdictCache {
+
+    private final boolean enabled;
+    private final long ttlMs;
+    private final BoundedCache<String, CachedVerdict> entries;
+
+    public VerdictCache(@Value("${execution.verdict-cache.enabled:true}") boolean enabled,
+                        @Value("${execution.verdict-cache.max-entries:10000}") int maxEntries,
+                        @Value("${execution.verdict-cache.ttl-minutes:60}") long ttlMinutes) {
+        this.enabled = enabled;
+        this.ttlMs = ttlMinutes * 60_000L;
+        this.entries = new BoundedCache<>(maxEntries);
+    }
+
+    /**
+     * Build the cache key for an evaluation.
+     *
+     * @param problemId the problem ID
+     * @param testSet the test cases as (id, input, expected output) triples, in evaluation order
+     * @param language the language
+     * @param code the submitted code
+     * @param harness the method signature / starter code the harness is built from
+     * @param timeLimitMs the time limit
+     * @param memoryLimitMb the memory limit
+     * @return the key, or null when the cache is disabled
+     */
+    public String key(Long problemId, List<String[]> testSet, String language, String code,
+                      String harness, Integer timeLimitMs, Integer memoryLimitMb) {
+        if (!enabled) {
+            return null;
+        }
+
+        MessageDigest harnessDigest = sha256();
+        update(harnessDigest, harness);
+
+        return problemId + ":" + testSetHash(testSet) + ":" + language + ":" + normalizedCodeHash(code) + ":"
+            + hex(harnessDigest) + ":" + timeLimitMs + ":" + memoryLimitMb;
+    }
+
+    /**
+     * Get a cached evaluation.
+     *
+     * @param key the cache key (may be null)
+     * @return the cached verdict, or null on a miss
+     */
+    public CachedVerdict get(String key) {
+        return key != null ? entries.get(key) : null;
+    }
+
+    /**
+     * Store a finished evaluation.
+     *
+     * @param key the cache key (may be null)
+     * @param verdict the evaluation outcome
+     */
+    public void put(String key, CachedVerdict verdict) {
+        if (key == null) {
+            return;
+        }
+        entries.put(key, verdict, ttlMs);
+    }
+
+    /**
+     * Hash of a test set, shared with the run result cache.
+     *
+     * @param testSet the test cases as string tuples, in evaluation order
+     * @return hex SHA-256 digest
+     */
+    static String testSetHash(List<String[]> testSet) {
+        MessageDigest digest = sha256();
+        for (String[] testCase : testSet) {
+            for (String part : testCase) {
+                update(digest, part);
+            }
+        }
+        return hex(digest);
+    }
+
+    /**
+     * Hash of the code after {@link #normalizeCode(String)}, shared with the run result cache.
+     *
+     * @param code the submitted code
+     * @return hex SHA-256 digest
+     */
+    static String normalizedCodeHash(String code) {
+        MessageDigest digest = sha256();
+        update(digest, normalizeCode(code));
+        return hex(digest);
+    }
+
+    /**
+     * Normalize CRLF line endings to LF; Java, Python and JavaScript all read them as one line
+     * break, even inside text blocks and multi-line strings. Whitespace is otherwise kept as is:
+     * trailing spaces can matter, e.g. inside a Python triple-quoted string or after a backslash.
+     */
+    private static String normalizeCode(String code) {
+        return code == null ? "" : code.replace("\r\n", "\n");
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        // Length prefix keeps ("ab", "c") and ("a", "bc") apart
+        byte[] bytes = value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+        digest.update(Integer.toString(value == null ? -1 : bytes.length).getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) ':');
+        digest.update(bytes);
+    }
+
+    private static String hex(MessageDigest digest) {
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Outcome of one evaluation: the final status, aggregate metrics and each judged case.
+     */
+    public static class CachedVerdict {
+        private final SubmissionStatus status;
+        private final int passedCount;
+        private final int maxRuntimeMs;
+        private final int maxMemoryKb;
+        private final List<CachedCase> cases;
+
+        public CachedVerdict(SubmissionStatus status, int passedCount, int maxRuntimeMs, int maxMemoryKb,
+                             List<CachedCase> cases) {
+            this.status = status;
+            this.passedCount = passedCount;
+            this.maxRuntimeMs = maxRuntimeMs;
+            this.maxMemoryKb = maxMemoryKb;
+            this.cases = Collections.unmodifiableList(cases);
+        }
+
+        public SubmissionStatus getStatus() {
+            return status;
+        }
+
+        public int getPassedCount() {
+            return passedCount;
+        }
+
+        public int getMaxRuntimeMs() {
+            return maxRuntimeMs;
+        }
+
+        public int getMaxMemoryKb() {
+            return maxMemoryKb;
+        }
+
+        public List<CachedCase> getCases() {
+            return cases;
+        }
+    }
+
+    /**
+     * Judged result of one test case.
+     */
+    public static class CachedCase {
+        private final boolean passed;
+        private final String actualOutput;
+        private final String errorMessage;
+        private final int runtimeMs;
+        private final int memoryKb;
+
+        public CachedCase(boolean passed, String actualOutput, String errorMessage, int runtimeMs, int memoryKb) {
+            this.passed = passed;
+            this.actualOutput = actualOutput;
+            this.errorMessage = errorMessage;
+            this.runtimeMs = runtimeMs;
+            this.memoryKb = memoryKb;
+        }
+
+        public boolean isPassed() {
+            return passed;
+        }
+
+        public String getActualOutput() {
+            return actualOutput;
+        }
+
+        public String getErrorMessage() {
+            return errorMessage;
+        }
+
+        public int getRuntimeMs() {
+            return runtimeMs;
+        }
+
+        public int getMemoryKb() {
+            return memoryKb;
+        }
+    }
+}
@@ -0,0 +1,9 @@
+-- Move test_results ids from IDENTITY to a pooled sequence
+-- Run this once on databases created before test results were batch inserted
+-- Until it has run, SequenceCheck stops the backend at startup instead of letting new ids collide
+
+-- Create the sequence Hibernate allocates test result ids from (50 per fetch)
+CREATE SEQUENCE IF NOT EXISTS test_results_seq START WITH 1 INCREMENT BY 50;
+
+-- Start past every existing id so new blocks never collide with old rows
+SELECT setval('test_results_seq', COALESCE((SELECT MAX(id) FROM test_results), 0) + 50);
@@ -0,0 +1,102 @@
+package com.localcode.config;
+
+import com.localcode.exception.JudgeSaturatedException;
+import com.localcode.services.JudgePriority;
+import com.localcode.services.JudgeScheduler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class AdmissionControlInterceptorTest {
+
+    private JudgeScheduler judgeScheduler;
+    private JudgeConfig judgeConfig;
+    private AdmissionControlInterceptor interceptor;
+
+    @BeforeEach
+    void setUp() {
+        judgeScheduler = mock(JudgeScheduler.class);
+        judgeConfig = new JudgeConfig();
+        judgeConfig.setAdmissionMaxQueueDepth(10);
+        judgeConfig.setAdmissionMaxWaitMs(5000L);
+        judgeConfig.setAdmissionResumeRatio(0.5);
+        judgeConfig.setMinRetryAfterSeconds(1L);
+        interceptor = new AdmissionControlInterceptor(judgeScheduler, judgeConfig, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void admitsWhileBelowBothThresholds() {
+        backlog(JudgePriority.SUBMISSION, 9, 4999);
+
+        assertTrue(interceptor.preHandle(post("/api/submissions"), new MockHttpServletResponse(), null));
+        assertFalse(interceptor.isShedding(JudgePriority.SUBMISSION));
+    }
+
+    @Test
+    void shedsOnceTheQueueDepthThresholdIsReached() {
+        backlog(JudgePriority.SUBMISSION, 10, 0);
+
+        assertThrows(JudgeSaturatedException.class,
+            () -> interceptor.preHandle(post("/api/submissions"), new MockHttpServletResponse(), null));
+        assertTrue(interceptor.isShedding(JudgePriority.SUBMISSION));
+        assertFalse(interceptor.isShedding(JudgePriority.INTERACTIVE));
+    }
+
+    @Test
+    void shedsOnceTheWaitThresholdIsReachedWithRetryAfterFromTheWait() {
+        backlog(JudgePriority.INTERACTIVE, 0, 7200);
+
+        JudgeSaturatedException rejected = assertThrows(JudgeSaturatedException.class,
+            () -> interceptor.preHandle(post("/api/submissions/run"), new MockHttpServletResponse(), null));
+        assertEquals(8, rejected.getRetryAfterSeconds());
+        assertTrue(interceptor.isShedding(JudgePriority.INTERACTIVE));
+    }
+
+    @Test
+    void keepsSheddingUntilTheBacklogDrainsBelowTheResumeRatio() {
+        backlog(JudgePriority.SUBMISSION, 10, 0);
+        assertThrows(JudgeSaturatedException.class,
+            () -> interceptor.preHandle(post("/api/submissions"), new MockHttpServletResponse(), null));
+
+        // Below the thresholds but above half of them: still shedding
+        backlog(JudgePriority.SUBMISSION, 6, 0);
+        assertThrows(JudgeSaturatedException.class,
+            () -> interceptor.preHandle(post("/api/submissions"), new MockHttpServletResponse(), null));
+        backlog(JudgePriority.SUBMISSION, 5, 2600);
+        assertThrows(JudgeSaturatedException.class,
+            () -> interceptor.preHandle(post("/api/submissions"), new MockHttpServletResponse(), null));
+
+        backlog(JudgePriority.SUBMISSION, 5, 2500);
+        assertTrue(interceptor.preHandle(post("/api/submissions"), new MockHttpServletResponse(), null));
+        assertFalse(interceptor.isShedding(JudgePriority.SUBMISSION));
+    }
+
+    @Test
+    void ignoresReadsAndDisabledAdmissionControl() {
+        MockHttpServletRequest get = new MockHttpServletRequest("GET", "/api/submissions");
+        assertTrue(interceptor.preHandle(get, new MockHttpServletResponse(), null));
+
+        judgeConfig.setAdmissionEnabled(false);
+        assertTrue(interceptor.preHandle(post("/api/submissions"), new MockHttpServletResponse(), null));
+        verifyNoInteractions(judgeScheduler);
+    }
+
+    private void backlog(JudgePriority priority, int depthAhead, long waitMs) {
+        when(judgeScheduler.getQueueDepthAhead(priority)).thenReturn(depthAhead);
+        when(judgeScheduler.estimateWaitMs(priority)).thenReturn(waitMs);
+    }
+
+    private static MockHttpServletRequest post(String uri) {
+        return new MockHttpServletRequest("POST", uri);
+    }
+}
@@ -0,0 +1,69 @@
+package com.localcode.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BoundedCacheTest {
+
+    @Test
+    void expiredValuesMiss() {
+        BoundedCache<String, String> cache = new BoundedCache<>(10);
+        cache.put("live", "a", BoundedCache.NO_EXPIRY);
+        cache.putUntil("expired", "b", System.currentTimeMillis() - 1);
+
+        assertEquals("a", cache.get("live"));
+        assertNull(cache.get("expired"));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void evictsLeastRecentlyReadEntriesOnceFull() throws InterruptedException {
+        BoundedCache<Integer, String> cache = new BoundedCache<>(16);
+        for (int i = 0; i < 16; i++) {
+            cache.put(i, "value " + i, BoundedCache.NO_EXPIRY);
+        }
+        Thread.sleep(1);
+        cache.get(0);
+
+        cache.put(16, "value 16", BoundedCache.NO_EXPIRY);
+        assertEquals(15, cache.size());
+        assertEquals("value 0", cache.get(0));
+        assertEquals("value 16", cache.get(16));
+        assertNull(cache.get(1));
+        assertNull(cache.get(2));
+    }
+
+    @Test
+    void boundsTotalWeightAndSkipsValuesHeavierThanTheBound() {
+        BoundedCache<String, String> cache = new BoundedCache<>(100, 160, String::length);
+        cache.put("too heavy", "x".repeat(161), BoundedCache.NO_EXPIRY);
+        assertNull(cache.get("too heavy"));
+
+        for (int i = 0; i < 5; i++) {
+            cache.put("key " + i, "x".repeat(40), BoundedCache.NO_EXPIRY);
+        }
+        assertTrue(cache.weight() <= 150);
+        cache.remove("key 4");
+        assertEquals(40L * (cache.size()), cache.weight());
+    }
+
+    @Test
+    void getOrCreateCreatesOnceAndRemoveIfDropsMatchingKeys() {
+        BoundedCache<String, Integer> cache = new BoundedCache<>(10);
+        AtomicInteger created = new AtomicInteger();
+        assertEquals(1, cache.getOrCreate("user:1", created::incrementAndGet, 60_000));
+        assertEquals(1, cache.getOrCreate("user:1", created::incrementAndGet, 60_000));
+        assertEquals(1, created.get());
+
+        cache.put("user:2", 2, BoundedCache.NO_EXPIRY);
+        cache.put("other", 3, BoundedCache.NO_EXPIRY);
+        assertEquals(2, cache.removeIf(key -> key.startsWith("user:")));
+        assertEquals(3, cache.putIfAbsent("other", 4, BoundedCache.NO_EXPIRY));
+        assertEquals(1, cache.size());
+    }
+}
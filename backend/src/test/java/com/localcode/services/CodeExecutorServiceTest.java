@@ -0,0 +1,260 @@
+package com.localcode.services;
+
+import com.localcode.config.DockerSecurityConfig;
+import com.localcode.config.JudgeConfig;
+import com.localcode.config.ResourceLimits;
+import com.localcode.dto.BatchExecutionResult;
+import com.localcode.dto.ExecutionRequest;
+import com.localcode.dto.ExecutionResult;
+import com.localcode.dto.ExecutionStatus;
+import com.localcode.services.ExecutionBackend.ExecOutput;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SuppressWarnings("unchecked")
+class CodeExecutorServiceTest {
+
+    private static final int TIME_LIMIT_MS = 200;
+    private static final int MEMORY_LIMIT_MB = 64;
+
+    private final ExecutionBackend backend = mock(ExecutionBackend.class);
+    private final ExecutionBackend.Sandbox sandbox = mock(ExecutionBackend.Sandbox.class);
+    private CodeExecutorService executor;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        when(backend.acquire(anyString(), any(), anyInt())).thenReturn(sandbox);
+        when(backend.runtimeId(anyString())).thenAnswer(invocation -> "local-" + invocation.getArgument(0));
+        when(sandbox.getId()).thenReturn("sandbox-1");
+
+        executor = new CodeExecutorService(backend, limitsWithoutGrace(), new DockerSecurityConfig(limitsWithoutGrace()),
+            harness(), new CompilationCache(true, 16), new JudgeConfig(), false, "", false, "");
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void reportsCpuTimeAndPeakMemoryOfACleanRun() throws Exception {
+        whenRun(0, "3\n", "warning\n" + metrics("0.10 0.02 2048 0.35"), 0);
+
+        ExecutionResult result = executor.runInContainer(request("python"));
+
+        assertEquals(ExecutionStatus.SUCCESS, result.getStatus());
+        assertEquals("3\n", result.getOutput());
+        assertEquals("warning\n", result.getStderr());
+        assertEquals(120, result.getMetrics().getRuntimeMs());
+        assertEquals(2048, result.getMetrics().getMemoryKb());
+    }
+
+    @Test
+    void reportsElapsedTimeForJava() throws Exception {
+        when(sandbox.exec(any(), anyLong())).thenAnswer(invocation -> {
+            String[] command = invocation.getArgument(0);
+            return "javac".equals(command[0])
+                ? new ExecOutput("", "", 0)
+                : new ExecOutput("3\n", metrics("0.90 0.30 30000 0.15"), 0);
+        });
+
+        ExecutionResult result = executor.runInContainer(
+            new ExecutionRequest("public class Main {}", "java", "", "1", TIME_LIMIT_MS, MEMORY_LIMIT_MB));
+
+        // CPU time adds up every JVM thread (JIT, GC) and would exceed the limit here
+        assertEquals(ExecutionStatus.SUCCESS, result.getStatus());
+        assertEquals(150, result.getMetrics().getRuntimeMs());
+    }
+
+    @Test
+    void cpuTimeOverTheLimitIsTle() throws Exception {
+        whenRun(0, "", metrics("0.25 0.00 2048 0.26"), 0);
+
+        ExecutionResult result = executor.runInContainer(request("python"));
+
+        assertEquals(ExecutionStatus.TLE, result.getStatus());
+        assertEquals(250, result.getMetrics().getRuntimeMs());
+    }
+
+    @Test
+    void killedAtTheWallClockLimitIsTleWithTheWallClockTime() throws Exception {
+        // A sleeping program: killed by the watchdog after using 10 ms of CPU time
+        whenRun(137, "partial", metrics("0.01 0.00 2048 0.20"), TIME_LIMIT_MS + 50);
+
+        ExecutionResult result = executor.runInContainer(request("python"));
+
+        assertEquals(ExecutionStatus.TLE, result.getStatus());
+        assertEquals("partial", result.getOutput());
+        assertTrue(result.getMetrics().getRuntimeMs() >= TIME_LIMIT_MS);
+        assertEquals(2048, result.getMetrics().getMemoryKb());
+    }
+
+    @Test
+    void unansweredRunIsKilledFromTheHostAsTle() throws Exception {
+        when(sandbox.exec(any(), anyLong())).thenReturn(null);
+
+        ExecutionResult result = executor.runInContainer(request("python"));
+
+        assertEquals(ExecutionStatus.TLE, result.getStatus());
+        verify(sandbox).killProcesses();
+    }
+
+    @Test
+    void killedNearTheMemoryLimitIsMle() throws Exception {
+        whenRun(137, "", metrics("0.05 0.00 " + (MEMORY_LIMIT_MB * 1024 - 100) + " 0.06"), 0);
+
+        ExecutionResult result = executor.runInContainer(request("python"));
+
+        assertEquals(ExecutionStatus.MLE, result.getStatus());
+    }
+
+    @Test
+    void nonZeroExitIsRuntimeError() throws Exception {
+        whenRun(1, "", "Traceback\nZeroDivisionError\n" + metrics("0.01 0.00 2048 0.02"), 0);
+
+        ExecutionResult result = executor.runInContainer(request("python"));
+
+        assertEquals(ExecutionStatus.RUNTIME_ERROR, result.getStatus());
+        assertEquals("Traceback\nZeroDivisionError\n", result.getErrorMessage());
+    }
+
+    @Test
+    void timedOutWorkerRunIsTleWithTheWallClockTime() throws Exception {
+        CodeExecutorService withWorker = new CodeExecutorService(backend, limitsWithoutGrace(),
+            new DockerSecurityConfig(limitsWithoutGrace()), harness(), new CompilationCache(true, 16),
+            new JudgeConfig(), false, "", true, "zygote.py");
+        when(sandbox.startWorker(any(), anyLong())).thenReturn(new ExecutionBackend.WorkerProcess() {
+            private boolean ready;
+
+            @Override
+            public void send(String line) {
+            }
+
+            @Override
+            public String receive(long timeoutMs) throws InterruptedException {
+                if (!ready) {
+                    ready = true;
+                    return "READY";
+                }
+                Thread.sleep(TIME_LIMIT_MS + 50);
+                return "RESULT 137 10 2048 1 0 - -";
+            }
+
+            @Override
+            public void close() {
+            }
+        });
+
+        try {
+            ExecutionResult result = withWorker.runInContainer(request("python"));
+
+            assertEquals(ExecutionStatus.TLE, result.getStatus());
+            assertTrue(result.getMetrics().getRuntimeMs() >= TIME_LIMIT_MS);
+        } finally {
+            withWorker.shutdown();
+        }
+    }
+
+    @Test
+    void batchCompilesOnceAndRunsEveryInputInOneSandbox() throws Exception {
+        List<String[]> commands = new ArrayList<>();
+        when(sandbox.exec(any(), anyLong())).thenAnswer(invocation -> {
+            String[] command = invocation.getArgument(0);
+            commands.add(command);
+            return "javac".equals(command[0])
+                ? new ExecOutput("", "", 0)
+                : new ExecOutput("ok\n", metrics("0.01 0.00 2048 0.02"), 0);
+        });
+
+        BatchExecutionResult batch = executor.runBatchInContainer(
+            new ExecutionRequest("public class Main {}", "java", "", null, TIME_LIMIT_MS, MEMORY_LIMIT_MB),
+            List.of("1", "2", "3"), result -> false);
+
+        assertEquals(3, batch.getResults().size());
+        verify(backend).acquire(eq("java"), any(), eq(3));
+        assertEquals(1, commands.stream().filter(command -> "javac".equals(command[0])).count());
+        assertEquals(4, commands.size());
+
+        ArgumentCaptor<Map<String, byte[]>> files = ArgumentCaptor.forClass(Map.class);
+        verify(sandbox).writeFiles(files.capture());
+        assertTrue(files.getValue().keySet().containsAll(List.of("input_0.txt", "input_1.txt", "input_2.txt")));
+        verify(sandbox).release(true);
+    }
+
+    @Test
+    void batchSkipsTheInputsAfterTheStopCondition() throws Exception {
+        AtomicInteger runs = new AtomicInteger();
+        when(sandbox.exec(any(), anyLong())).thenAnswer(invocation -> runs.incrementAndGet() == 2
+            ? new ExecOutput("", "Traceback\n" + metrics("0.01 0.00 2048 0.02"), 1)
+            : new ExecOutput("ok\n", metrics("0.01 0.00 2048 0.02"), 0));
+
+        BatchExecutionResult batch = executor.runBatchInContainer(request("python"), List.of("1", "2", "3", "4"),
+            result -> result.getStatus() == ExecutionStatus.RUNTIME_ERROR);
+
+        assertEquals(2, batch.getResults().size());
+        assertEquals(ExecutionStatus.SUCCESS, batch.getResults().get(0).getStatus());
+        assertEquals(ExecutionStatus.RUNTIME_ERROR, batch.getResults().get(1).getStatus());
+        assertEquals(2, runs.get());
+    }
+
+    @Test
+    void batchWithACompilationErrorRunsNothing() throws Exception {
+        when(sandbox.exec(any(), anyLong())).thenReturn(new ExecOutput("", "Main.java:1: error", 1));
+
+        BatchExecutionResult batch = executor.runBatchInContainer(
+            new ExecutionRequest("public class Main {", "java", "", null, TIME_LIMIT_MS, MEMORY_LIMIT_MB),
+            List.of("1", "2"), result -> false);
+
+        assertEquals(1, batch.getResults().size());
+        assertEquals(ExecutionStatus.COMPILATION_ERROR, batch.getResults().get(0).getStatus());
+        verify(sandbox, times(1)).exec(any(), anyLong());
+    }
+
+    private void whenRun(int exitCode, String stdout, String stderr, long durationMs) throws InterruptedException {
+        when(sandbox.exec(any(), anyLong())).thenAnswer(invocation -> {
+            Thread.sleep(durationMs);
+            return new ExecOutput(stdout, stderr, exitCode);
+        });
+    }
+
+    private static ExecutionRequest request(String language) {
+        return new ExecutionRequest("print(3)", language, "", "1", TIME_LIMIT_MS, MEMORY_LIMIT_MB);
+    }
+
+    private static ResourceLimits limitsWithoutGrace() {
+        ResourceLimits resourceLimits = new ResourceLimits();
+        resourceLimits.setWallTimeGraceMs(0);
+        return resourceLimits;
+    }
+
+    private static CodeHarness harness() {
+        CodeHarness codeHarness = mock(CodeHarness.class);
+        when(codeHarness.generate(any())).thenReturn("");
+        return codeHarness;
+    }
+
+    // The line /usr/bin/time appends to stderr: user and system CPU seconds, peak KB, elapsed seconds
+    private static String metrics(String fields) {
+        return "__LOCALCODE_METRICS__ " + fields + "\n";
+    }
+}
@@ -0,0 +1,166 @@
+package com.localcode.services;
+
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.command.CreateContainerCmd;
+import com.github.dockerjava.api.command.CreateContainerResponse;
+import com.github.dockerjava.api.command.ExecCreateCmd;
+import com.github.dockerjava.api.command.ExecCreateCmdResponse;
+import com.github.dockerjava.api.command.ExecStartCmd;
+import com.github.dockerjava.api.command.InspectExecCmd;
+import com.github.dockerjava.api.command.InspectExecResponse;
+import com.github.dockerjava.api.command.StartContainerCmd;
+import com.github.dockerjava.api.command.UpdateContainerCmd;
+import com.github.dockerjava.core.command.ExecStartResultCallback;
+import com.localcode.config.ContainerPoolConfig;
+import com.localcode.config.DockerSecurityConfig;
+import com.localcode.config.ResourceLimits;
+import com.localcode.exception.ExecutionException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.RETURNS_SELF;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ContainerPoolTest {
+
+    private static final String IMAGE = "localcode-python:latest";
+
+    private final DockerClient dockerClient = mock(DockerClient.class);
+    private final ContainerReaper containerReaper = mock(ContainerReaper.class);
+    private final ImageRegistry imageRegistry = mock(ImageRegistry.class);
+    private final ContainerPoolConfig poolConfig = new ContainerPoolConfig();
+    private final ResourceLimits resourceLimits = new ResourceLimits();
+    private final AtomicInteger created = new AtomicInteger();
+    private final InspectExecResponse scrubResult = mock(InspectExecResponse.class);
+    private ContainerPool pool;
+
+    @BeforeEach
+    void setUp() throws InterruptedException {
+        poolConfig.setMinIdle(0);
+        poolConfig.setMaxSize(1);
+        poolConfig.setAcquireTimeoutMs(50L);
+        when(imageRegistry.resolve(anyString())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        CreateContainerCmd createCmd = mock(CreateContainerCmd.class, RETURNS_SELF);
+        when(dockerClient.createContainerCmd(anyString())).thenReturn(createCmd);
+        when(createCmd.exec()).thenAnswer(invocation -> {
+            CreateContainerResponse response = new CreateContainerResponse();
+            response.setId("container-" + created.incrementAndGet());
+            return response;
+        });
+        when(dockerClient.startContainerCmd(anyString())).thenReturn(mock(StartContainerCmd.class));
+
+        ExecCreateCmd execCreateCmd = mock(ExecCreateCmd.class, RETURNS_SELF);
+        ExecCreateCmdResponse execCreated = mock(ExecCreateCmdResponse.class);
+        when(execCreated.getId()).thenReturn("scrub");
+        when(execCreateCmd.exec()).thenReturn(execCreated);
+        when(dockerClient.execCreateCmd(anyString())).thenReturn(execCreateCmd);
+        ExecStartCmd execStartCmd = mock(ExecStartCmd.class);
+        ExecStartResultCallback callback = mock(ExecStartResultCallback.class);
+        when(callback.awaitCompletion(anyLong(), any(TimeUnit.class))).thenReturn(true);
+        when(execStartCmd.exec(any())).thenReturn(callback);
+        when(dockerClient.execStartCmd("scrub")).thenReturn(execStartCmd);
+        InspectExecCmd inspectExecCmd = mock(InspectExecCmd.class);
+        when(inspectExecCmd.exec()).thenReturn(scrubResult);
+        when(dockerClient.inspectExecCmd("scrub")).thenReturn(inspectExecCmd);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    void destroyPolicyReapsTheContainerAndFreesItsSlot() {
+        pool = newPool(ContainerPoolConfig.ReusePolicy.DESTROY);
+
+        ContainerPool.PooledContainer first = pool.acquire(IMAGE, null);
+        pool.release(first, true);
+        ContainerPool.PooledContainer second = pool.acquire(IMAGE, null);
+
+        verify(containerReaper).reap(first.getContainerId());
+        assertNotEquals(first.getContainerId(), second.getContainerId());
+    }
+
+    @Test
+    void scrubbedContainerIsHandedOutAgain() {
+        pool = newPool(ContainerPoolConfig.ReusePolicy.SCRUB);
+        when(scrubResult.getExitCodeLong()).thenReturn(0L);
+
+        ContainerPool.PooledContainer first = pool.acquire(IMAGE, null);
+        pool.release(first, true);
+        ContainerPool.PooledContainer second = pool.acquire(IMAGE, null);
+
+        assertEquals(first.getContainerId(), second.getContainerId());
+        assertEquals(2, second.getUses());
+        verify(containerReaper, never()).reap(anyString());
+    }
+
+    @Test
+    void containerThatFailsTheScrubIsDestroyed() {
+        pool = newPool(ContainerPoolConfig.ReusePolicy.SCRUB);
+        when(scrubResult.getExitCodeLong()).thenReturn(1L);
+
+        ContainerPool.PooledContainer first = pool.acquire(IMAGE, null);
+        pool.release(first, true);
+
+        verify(containerReaper).reap(first.getContainerId());
+        assertNotEquals(first.getContainerId(), pool.acquire(IMAGE, null).getContainerId());
+    }
+
+    @Test
+    void abnormalRunIsNeverScrubbed() {
+        pool = newPool(ContainerPoolConfig.ReusePolicy.SCRUB);
+
+        ContainerPool.PooledContainer first = pool.acquire(IMAGE, null);
+        pool.release(first, false);
+
+        verify(dockerClient, never()).execCreateCmd(anyString());
+        verify(containerReaper).reap(first.getContainerId());
+    }
+
+    @Test
+    void acquireFailsOnceThePoolIsExhausted() {
+        pool = newPool(ContainerPoolConfig.ReusePolicy.DESTROY);
+
+        pool.acquire(IMAGE, null);
+
+        assertThrows(ExecutionException.class, () -> pool.acquire(IMAGE, null));
+    }
+
+    @Test
+    void containerWhoseMemoryLimitCannotBeAppliedIsDestroyed() {
+        pool = newPool(ContainerPoolConfig.ReusePolicy.DESTROY);
+        UpdateContainerCmd updateCmd = mock(UpdateContainerCmd.class, RETURNS_SELF);
+        when(updateCmd.exec()).thenThrow(new RuntimeException("daemon unavailable"));
+        when(dockerClient.updateContainerCmd(anyString())).thenReturn(updateCmd);
+        int otherLimitMb = resourceLimits.getDefaultMemoryLimitMb() + 64;
+
+        assertThrows(ExecutionException.class, () -> pool.acquire(IMAGE, otherLimitMb));
+
+        verify(containerReaper).reap("container-1");
+        // The slot was given back, so the next acquire can create a container
+        assertEquals("container-2", pool.acquire(IMAGE, null).getContainerId());
+        verify(dockerClient, times(2)).createContainerCmd(anyString());
+    }
+
+    private ContainerPool newPool(ContainerPoolConfig.ReusePolicy reusePolicy) {
+        poolConfig.setReusePolicy(reusePolicy);
+        return new ContainerPool(dockerClient, poolConfig, new DockerSecurityConfig(resourceLimits),
+            resourceLimits, containerReaper, imageRegistry);
+    }
+}
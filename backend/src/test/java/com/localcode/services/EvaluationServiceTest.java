@@ -0,0 +1,296 @@
+package com.localcode.services;
+
+import com.localcode.dto.BatchExecutionResult;
+import com.localcode.dto.EvaluationResult;
+import com.localcode.dto.ExecutionRequest;
+import com.localcode.dto.ExecutionResult;
+import com.localcode.dto.ExecutionStatus;
+import com.localcode.dto.ResourceMetrics;
+import com.localcode.dto.RunResult;
+import com.localcode.persistence.entity.Problem;
+import com.localcode.persistence.entity.Submission;
+import com.localcode.persistence.entity.SubmissionStatus;
+import com.localcode.persistence.entity.TestCase;
+import com.localcode.persistence.entity.User;
+import com.localcode.persistence.repository.CustomTestCaseRepository;
+import com.localcode.persistence.repository.ProblemRepository;
+import com.localcode.persistence.repository.SubmissionRepository;
+import com.localcode.persistence.repository.TestCaseRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SuppressWarnings("unchecked")
+class EvaluationServiceTest {
+
+    private static final long SUBMISSION_ID = 10L;
+    private static final long PROBLEM_ID = 1L;
+
+    private final SubmissionRepository submissionRepository = mock(SubmissionRepository.class);
+    private final TestCaseRepository testCaseRepository = mock(TestCaseRepository.class);
+    private final CustomTestCaseRepository customTestCaseRepository = mock(CustomTestCaseRepository.class);
+    private final CodeExecutorService codeExecutorService = mock(CodeExecutorService.class);
+    private final SubmissionService submissionService = mock(SubmissionService.class);
+    private final ProblemRepository problemRepository = mock(ProblemRepository.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final VerdictCache verdictCache = new VerdictCache(true, 100, 60);
+
+    private EvaluationService evaluationService;
+
+    @BeforeEach
+    void setUp() {
+        evaluationService = new EvaluationService(
+            submissionRepository,
+            problemRepository,
+            testCaseRepository,
+            customTestCaseRepository,
+            codeExecutorService,
+            submissionService,
+            mock(SubmissionEventPublisher.class),
+            verdictCache,
+            new RunResultCache(new SimpleMeterRegistry(), true, 100, 1, 120),
+            transactionManager);
+
+        Problem problem = new Problem();
+        problem.setId(PROBLEM_ID);
+        problem.setTimeLimitMs(1000);
+        problem.setMemoryLimitMb(256);
+        problem.setStarterCodePython("def solve(x):");
+        User user = new User();
+        user.setId(5L);
+        Submission submission = new Submission();
+        submission.setId(SUBMISSION_ID);
+        submission.setProblem(problem);
+        submission.setUser(user);
+        submission.setCode("import time\ntime.sleep(5)\n");
+        submission.setLanguage("python");
+        when(submissionRepository.findById(SUBMISSION_ID)).thenReturn(Optional.of(submission));
+        when(problemRepository.findById(PROBLEM_ID)).thenReturn(Optional.of(problem));
+
+        when(testCaseRepository.findByProblemIdOrderByOrderIndexAsc(PROBLEM_ID))
+            .thenReturn(List.of(testCase(1L, "1", "1"), testCase(2L, "2", "2")));
+        when(customTestCaseRepository.findByProblemIdAndUserId(anyLong(), anyLong())).thenReturn(List.of());
+        when(submissionService.recordEvaluationResults(eq(SUBMISSION_ID), anyList(), any(), any(), any()))
+            .thenAnswer(invocation -> new ArrayList<>(invocation.<List<?>>getArgument(1)));
+    }
+
+    @Test
+    void programKilledAtTheWallClockLimitIsNotAccepted() {
+        // Sleeping uses next to no CPU time, so only the executor's status shows the limit was hit
+        when(codeExecutorService.runInContainer(any(ExecutionRequest.class))).thenReturn(
+            result(ExecutionStatus.SUCCESS, "1", 20),
+            result(ExecutionStatus.TLE, "", 15));
+
+        EvaluationResult evaluation = evaluationService.evaluate(SUBMISSION_ID);
+
+        assertEquals(SubmissionStatus.TIME_LIMIT_EXCEEDED, evaluation.getStatus());
+        assertEquals(1, evaluation.getPassedTests());
+    }
+
+    @Test
+    void memoryLimitReportedByTheExecutorIsNotAccepted() {
+        when(codeExecutorService.runInContainer(any(ExecutionRequest.class))).thenReturn(
+            result(ExecutionStatus.MLE, "", 20),
+            result(ExecutionStatus.SUCCESS, "2", 20));
+
+        EvaluationResult evaluation = evaluationService.evaluate(SUBMISSION_ID);
+
+        assertEquals(SubmissionStatus.MEMORY_LIMIT_EXCEEDED, evaluation.getStatus());
+        assertEquals(1, evaluation.getPassedTests());
+    }
+
+    @Test
+    void batchModeRunsAllCasesInOneCallAndStopsOnlyOnFatalResults() {
+        ReflectionTestUtils.setField(evaluationService, "batchEnabled", true);
+        when(codeExecutorService.runBatchInContainer(any(), anyList(), any(), any())).thenReturn(
+            new BatchExecutionResult(List.of(result(ExecutionStatus.SUCCESS, "1", 20),
+                result(ExecutionStatus.SUCCESS, "2", 20)), 40L));
+
+        EvaluationResult evaluation = evaluationService.evaluate(SUBMISSION_ID);
+
+        ArgumentCaptor<List<String>> inputs = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<Predicate<ExecutionResult>> stopCondition = ArgumentCaptor.forClass(Predicate.class);
+        verify(codeExecutorService).runBatchInContainer(any(), inputs.capture(), stopCondition.capture(), any());
+        verify(codeExecutorService, never()).runInContainer(any());
+        assertEquals(List.of("1", "2"), inputs.getValue());
+        assertEquals(SubmissionStatus.ACCEPTED, evaluation.getStatus());
+        assertEquals(2, evaluation.getPassedTests());
+
+        assertTrue(stopCondition.getValue().test(result(ExecutionStatus.RUNTIME_ERROR, "", 20)));
+        assertTrue(stopCondition.getValue().test(result(ExecutionStatus.COMPILATION_ERROR, "", 0)));
+        assertFalse(stopCondition.getValue().test(result(ExecutionStatus.SUCCESS, "wrong", 20)));
+        assertFalse(stopCondition.getValue().test(result(ExecutionStatus.TLE, "", 1500)));
+    }
+
+    @Test
+    void batchStoppedEarlyJudgesOnlyTheCasesThatRan() {
+        ReflectionTestUtils.setField(evaluationService, "batchEnabled", true);
+        when(codeExecutorService.runBatchInContainer(any(), anyList(), any(), any())).thenReturn(
+            new BatchExecutionResult(List.of(result(ExecutionStatus.RUNTIME_ERROR, "", 20)), 20L));
+
+        EvaluationResult evaluation = evaluationService.evaluate(SUBMISSION_ID);
+
+        assertEquals(SubmissionStatus.RUNTIME_ERROR, evaluation.getStatus());
+        assertEquals(0, evaluation.getPassedTests());
+        assertEquals(1, evaluation.getTestResults().size());
+    }
+
+    @Test
+    void executionRunsAfterTheReadTransactionAndResultsAreWrittenOnce() {
+        when(codeExecutorService.runInContainer(any(ExecutionRequest.class))).thenReturn(
+            result(ExecutionStatus.SUCCESS, "1", 20),
+            result(ExecutionStatus.SUCCESS, "2", 20));
+
+        evaluationService.evaluate(SUBMISSION_ID);
+
+        InOrder inOrder = inOrder(transactionManager, submissionRepository, codeExecutorService, submissionService);
+        inOrder.verify(transactionManager).getTransaction(any());
+        inOrder.verify(submissionRepository).findById(SUBMISSION_ID);
+        inOrder.verify(transactionManager).commit(any());
+        inOrder.verify(codeExecutorService, times(2)).runInContainer(any());
+        inOrder.verify(submissionService).recordEvaluationResults(eq(SUBMISSION_ID), argThat(results -> results.size() == 2),
+            eq(SubmissionStatus.ACCEPTED), eq(20), eq(1024));
+        // The write transaction belongs to SubmissionService, evaluate() itself only opens the read one
+        verify(transactionManager).getTransaction(any());
+    }
+
+    @Test
+    void runtimeErrorStopsTheEvaluation() {
+        when(codeExecutorService.runInContainer(any(ExecutionRequest.class))).thenReturn(
+            result(ExecutionStatus.RUNTIME_ERROR, "", 20));
+
+        EvaluationResult evaluation = evaluationService.evaluate(SUBMISSION_ID);
+
+        assertEquals(SubmissionStatus.RUNTIME_ERROR, evaluation.getStatus());
+        verify(codeExecutorService, times(1)).runInContainer(any());
+        verify(submissionService).recordEvaluationResults(eq(SUBMISSION_ID), argThat(results -> results.size() == 1),
+            eq(SubmissionStatus.RUNTIME_ERROR), any(), any());
+    }
+
+    @Test
+    void compilationErrorStopsTheEvaluation() {
+        when(codeExecutorService.runInContainer(any(ExecutionRequest.class))).thenReturn(
+            result(ExecutionStatus.COMPILATION_ERROR, "", 0));
+
+        EvaluationResult evaluation = evaluationService.evaluate(SUBMISSION_ID);
+
+        assertEquals(SubmissionStatus.COMPILATION_ERROR, evaluation.getStatus());
+        verify(codeExecutorService, times(1)).runInContainer(any());
+    }
+
+    @Test
+    void wrongAnswerDoesNotStopTheEvaluation() {
+        when(codeExecutorService.runInContainer(any(ExecutionRequest.class))).thenReturn(
+            result(ExecutionStatus.SUCCESS, "7", 20),
+            result(ExecutionStatus.SUCCESS, "2", 20));
+
+        EvaluationResult evaluation = evaluationService.evaluate(SUBMISSION_ID);
+
+        assertEquals(SubmissionStatus.WRONG_ANSWER, evaluation.getStatus());
+        assertEquals(1, evaluation.getPassedTests());
+        verify(codeExecutorService, times(2)).runInContainer(any());
+    }
+
+    @Test
+    void identicalResubmissionReusesTheCachedVerdict() {
+        when(codeExecutorService.runInContainer(any(ExecutionRequest.class))).thenReturn(
+            result(ExecutionStatus.SUCCESS, "1", 20),
+            result(ExecutionStatus.SUCCESS, "7", 30));
+
+        EvaluationResult first = evaluationService.evaluate(SUBMISSION_ID);
+        EvaluationResult second = evaluationService.evaluate(SUBMISSION_ID);
+
+        verify(codeExecutorService, times(2)).runInContainer(any());
+        assertEquals(SubmissionStatus.WRONG_ANSWER, second.getStatus());
+        assertEquals(first.getPassedTests(), second.getPassedTests());
+        assertEquals(first.getRuntimeMs(), second.getRuntimeMs());
+        assertEquals("7", second.getTestResults().get(1).getActualOutput());
+        // The reused verdict is still recorded for the new submission
+        verify(submissionService, times(2)).recordEvaluationResults(eq(SUBMISSION_ID),
+            argThat(results -> results.size() == 2), eq(SubmissionStatus.WRONG_ANSWER), eq(30), any());
+    }
+
+    @Test
+    void changedCodeIsExecutedAgain() {
+        when(codeExecutorService.runInContainer(any(ExecutionRequest.class))).thenReturn(
+            result(ExecutionStatus.SUCCESS, "1", 20),
+            result(ExecutionStatus.SUCCESS, "2", 20));
+
+        evaluationService.evaluate(SUBMISSION_ID);
+        submissionRepository.findById(SUBMISSION_ID).orElseThrow().setCode("print(input())\n");
+        evaluationService.evaluate(SUBMISSION_ID);
+
+        verify(codeExecutorService, times(4)).runInContainer(any());
+    }
+
+    @Test
+    void timeLimitVerdictIsNotReused() {
+        when(codeExecutorService.runInContainer(any(ExecutionRequest.class))).thenReturn(
+            result(ExecutionStatus.SUCCESS, "1", 20),
+            result(ExecutionStatus.TLE, "", 1000),
+            result(ExecutionStatus.SUCCESS, "1", 20),
+            result(ExecutionStatus.SUCCESS, "2", 20));
+
+        evaluationService.evaluate(SUBMISSION_ID);
+        EvaluationResult second = evaluationService.evaluate(SUBMISSION_ID);
+
+        // A time limit depends on host load, so the resubmission is judged afresh
+        verify(codeExecutorService, times(4)).runInContainer(any());
+        assertEquals(SubmissionStatus.ACCEPTED, second.getStatus());
+    }
+
+    @Test
+    void repeatedRunIsAnsweredFromTheRunCacheWithoutQueries() {
+        when(testCaseRepository.findByProblemIdAndIsSampleOrderByOrderIndexAsc(PROBLEM_ID, true))
+            .thenReturn(List.of(testCase(1L, "1", "1")));
+        when(codeExecutorService.runInContainer(any(ExecutionRequest.class))).thenReturn(
+            result(ExecutionStatus.SUCCESS, "1", 20));
+
+        RunResult run = evaluationService.runAgainstSampleCases(PROBLEM_ID, "print(1)", "python", 5L);
+        RunResult cached = evaluationService.getCachedRun(PROBLEM_ID, "print(1)", "python");
+
+        assertSame(run, cached);
+        verify(problemRepository, times(1)).findById(PROBLEM_ID);
+        verify(testCaseRepository, times(1)).findByProblemIdAndIsSampleOrderByOrderIndexAsc(PROBLEM_ID, true);
+        assertNull(evaluationService.getCachedRun(PROBLEM_ID, "print(2)", "python"));
+    }
+
+    private static TestCase testCase(Long id, String input, String expectedOutput) {
+        TestCase testCase = new TestCase();
+        testCase.setId(id);
+        testCase.setInput(input);
+        testCase.setExpectedOutput(expectedOutput);
+        return testCase;
+    }
+
+    private static ExecutionResult result(ExecutionStatus status, String output, long runtimeMs) {
+        return new ExecutionResult(status, output, status == ExecutionStatus.SUCCESS ? null : "Limit exceeded",
+            new ResourceMetrics(runtimeMs, 1024L));
+    }
+}
@@ -0,0 +1,122 @@
+package com.localcode.services;
+
+import com.localcode.config.JudgeConfig;
+import com.localcode.exception.JudgeSaturatedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JudgeSchedulerTest {
+
+    private JudgeScheduler scheduler;
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() throws InterruptedException {
+        JudgeConfig config = new JudgeConfig();
+        config.setConcurrency(1);
+        config.setQueueCapacity(3);
+        scheduler = new JudgeScheduler(config, new SimpleMeterRegistry());
+
+        // Keep the only worker busy so everything submitted afterwards stays queued
+        scheduler.submit(JudgePriority.SUBMISSION, () -> {
+            started.countDown();
+            return release.await(10, TimeUnit.SECONDS);
+        });
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        scheduler.shutdown();
+    }
+
+    @Test
+    void runsEachLaneInArrivalOrder() throws Exception {
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        CompletableFuture<?> first = scheduler.submit(JudgePriority.SUBMISSION, () -> order.add("submission 1"));
+        CompletableFuture<?> second = scheduler.submit(JudgePriority.SUBMISSION, () -> order.add("submission 2"));
+        CompletableFuture<?> third = scheduler.submit(JudgePriority.SUBMISSION, () -> order.add("submission 3"));
+        assertEquals(3, scheduler.getQueueDepth(JudgePriority.SUBMISSION));
+        assertEquals(3, scheduler.getQueueDepth());
+
+        release.countDown();
+        CompletableFuture.allOf(first, second, third).get(10, TimeUnit.SECONDS);
+        assertEquals(List.of("submission 1", "submission 2", "submission 3"), order);
+        assertEquals(0, scheduler.getQueueDepth());
+    }
+
+    @Test
+    void interactiveRunsOvertakeQueuedSubmissions() throws Exception {
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        CompletableFuture<?> submission = scheduler.submit(JudgePriority.SUBMISSION, () -> order.add("submission"));
+        CompletableFuture<?> interactive = scheduler.submit(JudgePriority.INTERACTIVE, () -> order.add("interactive"));
+        assertEquals(1, scheduler.getQueueDepthAhead(JudgePriority.INTERACTIVE));
+        assertEquals(2, scheduler.getQueueDepthAhead(JudgePriority.SUBMISSION));
+
+        release.countDown();
+        CompletableFuture.allOf(submission, interactive).get(10, TimeUnit.SECONDS);
+        assertEquals(List.of("interactive", "submission"), order);
+    }
+
+    @Test
+    void rejectsWorkOnceTheQueueIsFull() {
+        for (int i = 0; i < 3; i++) {
+            scheduler.submit(JudgePriority.SUBMISSION, () -> true);
+        }
+
+        JudgeSaturatedException rejected = assertThrows(JudgeSaturatedException.class,
+            () -> scheduler.submit(JudgePriority.INTERACTIVE, () -> true));
+        assertTrue(rejected.getRetryAfterSeconds() >= 1);
+        assertEquals(3, scheduler.getQueueDepth());
+    }
+
+    @Test
+    void averagesKeepEverySampleUnderConcurrentWorkers() throws Exception {
+        JudgeConfig config = new JudgeConfig();
+        config.setConcurrency(8);
+        config.setQueueCapacity(1000);
+        JudgeScheduler busy = new JudgeScheduler(config, new SimpleMeterRegistry());
+        try {
+            List<CompletableFuture<Boolean>> jobs = new ArrayList<>();
+            for (int i = 0; i < 500; i++) {
+                jobs.add(busy.submit(JudgePriority.SUBMISSION, () -> true));
+            }
+            CompletableFuture.allOf(jobs.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+
+            // Jobs take well under a millisecond, so no lost or torn update may leave a large average behind
+            assertTrue(busy.getAverageRunMs() >= 0 && busy.getAverageRunMs() < 50);
+            assertTrue(busy.getAverageWaitMs() >= 0);
+        } finally {
+            busy.shutdown();
+        }
+    }
+
+    @Test
+    void cancelledReservationFreesItsSlot() {
+        JudgeScheduler.Reservation reservation = scheduler.reserve(JudgePriority.SUBMISSION);
+        scheduler.reserve(JudgePriority.SUBMISSION);
+        scheduler.reserve(JudgePriority.SUBMISSION);
+        assertThrows(JudgeSaturatedException.class, () -> scheduler.reserve(JudgePriority.SUBMISSION));
+
+        reservation.cancel();
+        reservation.cancel();
+        assertEquals(2, scheduler.getQueueDepth(JudgePriority.SUBMISSION));
+        scheduler.reserve(JudgePriority.SUBMISSION);
+        assertThrows(IllegalStateException.class, () -> reservation.submit(() -> true));
+    }
+}
@@ -0,0 +1,59 @@
+package com.localcode.services;
+
+import com.localcode.dto.RunJobDTO;
+import com.localcode.dto.RunResult;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class RunJobStoreTest {
+
+    @Test
+    void onlyTheOwnerSeesAJob() {
+        RunJobStore store = new RunJobStore(300);
+        RunJobStore.RunJob job = store.create(1L, new CompletableFuture<>());
+
+        assertSame(job, store.get(job.getId(), 1L));
+        assertNull(store.get(job.getId(), 2L));
+        assertNull(store.get("unknown", 1L));
+    }
+
+    @Test
+    void pendingJobsNeverExpire() throws InterruptedException {
+        RunJobStore store = new RunJobStore(0);
+        RunJobStore.RunJob job = store.create(1L, new CompletableFuture<>());
+        Thread.sleep(5);
+
+        assertSame(job, store.get(job.getId(), 1L));
+        assertEquals(RunJobDTO.PENDING, job.toDTO().getStatus());
+    }
+
+    @Test
+    void finishedJobsExpireAfterTheTtl() throws InterruptedException {
+        RunJobStore store = new RunJobStore(0);
+        CompletableFuture<RunResult> future = new CompletableFuture<>();
+        RunJobStore.RunJob job = store.create(1L, future);
+        future.complete(new RunResult());
+        Thread.sleep(5);
+
+        assertNull(store.get(job.getId(), 1L));
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void finishedJobsStayUntilTheTtl() {
+        RunJobStore store = new RunJobStore(300);
+        CompletableFuture<RunResult> future = new CompletableFuture<>();
+        RunJobStore.RunJob job = store.create(1L, future);
+        future.completeExceptionally(new IllegalStateException("Sandbox failed"));
+
+        assertSame(job, store.get(job.getId(), 1L));
+        RunJobDTO dto = job.toDTO();
+        assertEquals(RunJobDTO.FAILED, dto.getStatus());
+        assertEquals("Sandbox failed", dto.getErrorMessage());
+    }
+}
@@ -0,0 +1,92 @@
+package com.localcode.services;
+
+import com.localcode.dto.RunResult;
+import com.localcode.dto.TestResultDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RunResultCacheTest {
+
+    private static final List<String[]> SAMPLES = List.of(
+        new String[] { "1", "[1,2]", "3" },
+        new String[] { "2", "[2,2]", "4" });
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RunResultCache cache = new RunResultCache(meterRegistry, true, 100, 1, 120);
+
+    @Test
+    void unchangedCodeAndSamplesHit() {
+        String version = RunResultCache.sampleSetVersion(SAMPLES, 2000, 256);
+        RunResult result = result("3");
+        cache.put(1L, version, "python", "print(3)\r\n", result);
+
+        assertSame(result, cache.get(1L, "python", "print(3)\n"));
+        assertNull(cache.get(1L, "python", "print(4)\n"));
+        assertNull(cache.get(1L, "javascript", "print(3)\n"));
+        assertEquals(1.0, meterRegistry.get("run.cache.requests").tag("result", "hit").counter().count());
+        assertEquals(2.0, meterRegistry.get("run.cache.requests").tag("result", "miss").counter().count());
+    }
+
+    @Test
+    void runAgainstAnEditedSampleSetRetiresOlderEntries() {
+        String version = RunResultCache.sampleSetVersion(SAMPLES, 2000, 256);
+        cache.put(1L, version, "python", "print(3)", result("3"));
+
+        List<String[]> edited = List.of(SAMPLES.get(0), new String[] { "2", "[2,2]", "5" });
+        String editedVersion = RunResultCache.sampleSetVersion(edited, 2000, 256);
+        assertNotEquals(version, editedVersion);
+        cache.put(1L, editedVersion, "python", "print(5)", result("5"));
+
+        assertNull(cache.get(1L, "python", "print(3)"));
+        assertNotNull(cache.get(1L, "python", "print(5)"));
+    }
+
+    @Test
+    void problemThatNeverRanMisses() {
+        cache.put(1L, RunResultCache.sampleSetVersion(SAMPLES, 2000, 256), "python", "print(3)", result("3"));
+
+        assertNull(cache.get(2L, "python", "print(3)"));
+    }
+
+    @Test
+    void changedLimitsMiss() {
+        String version = RunResultCache.sampleSetVersion(SAMPLES, 2000, 256);
+        assertNotEquals(version, RunResultCache.sampleSetVersion(SAMPLES, 1000, 256));
+        assertNotEquals(version, RunResultCache.sampleSetVersion(SAMPLES, 2000, 512));
+    }
+
+    @Test
+    void boundedByEstimatedSize() {
+        String version = RunResultCache.sampleSetVersion(SAMPLES, 2000, 256);
+        // Each result is roughly 200 KB, six of them exceed the 1 MB bound
+        for (int i = 0; i < 6; i++) {
+            cache.put(1L, version, "python", "print(" + i + ")", result("x".repeat(100_000)));
+        }
+
+        assertTrue(cache.getTotalBytes() <= 1024 * 1024);
+        assertNull(cache.get(1L, "python", "print(0)"));
+        assertNotNull(cache.get(1L, "python", "print(5)"));
+    }
+
+    @Test
+    void disabledCacheNeverHits() {
+        RunResultCache disabled = new RunResultCache(meterRegistry, false, 100, 1, 120);
+        String version = RunResultCache.sampleSetVersion(SAMPLES, 2000, 256);
+        disabled.put(1L, version, "python", "print(3)", result("3"));
+        assertNull(disabled.get(1L, "python", "print(3)"));
+    }
+
+    private static RunResult result(String output) {
+        TestResultDTO testResult = new TestResultDTO(null, 1L, true, "[1,2]", "3", output, null, 10, 1024, false);
+        return new RunResult(1L, 1, 1, 10, 1024, List.of(testResult));
+    }
+}
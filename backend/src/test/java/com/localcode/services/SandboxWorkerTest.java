@@ -0,0 +1,143 @@
+package com.localcode.services;
+
+import com.localcode.services.ExecutionBackend.ExecOutput;
+import org.junit.jupiter.api.Test;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SandboxWorkerTest {
+
+    @Test
+    void startsUnderTimeoutAndWaitsForReady() throws Exception {
+        FakeWorkerProcess process = new FakeWorkerProcess("READY");
+        ExecutionBackend.Sandbox sandbox = sandbox(process);
+
+        SandboxWorker.start(sandbox, new String[] { "python3", "-u", "zygote.py" }, 60_000);
+        verify(sandbox).startWorker(new String[] { "timeout", "-s", "KILL", "61", "python3", "-u", "zygote.py" }, 60_000);
+    }
+
+    @Test
+    void failsToStartOnAnUnexpectedReplyOrSilence() {
+        FakeWorkerProcess garbage = new FakeWorkerProcess("Error: could not find or load main class");
+        IOException unexpected = assertThrows(IOException.class,
+            () -> SandboxWorker.start(sandbox(garbage), new String[] { "java" }, 60_000));
+        assertTrue(unexpected.getMessage().contains("Unexpected reply"));
+        assertTrue(garbage.closed);
+
+        FakeWorkerProcess silent = new FakeWorkerProcess((String) null);
+        assertThrows(IOException.class, () -> SandboxWorker.start(sandbox(silent), new String[] { "java" }, 60_000));
+        assertTrue(silent.closed);
+    }
+
+    @Test
+    void parsesRunResults() throws Exception {
+        FakeWorkerProcess process = new FakeWorkerProcess("READY",
+            "RESULT 0 12 2048 0 0 " + encode("3\n") + " -",
+            "RESULT 137 1001 4096 1 1 - " + encode("killed"));
+        SandboxWorker worker = SandboxWorker.start(sandbox(process), new String[] { "python3" }, 60_000);
+
+        SandboxWorker.Run run = worker.run("solution.py", "input_0.txt", 2000, 256, 5000);
+        assertEquals("RUN solution.py input_0.txt 2000 256", process.sent.get(0));
+        assertEquals(0, run.output.exitCode);
+        assertEquals("3\n", run.output.stdout);
+        assertEquals("", run.output.stderr);
+        assertEquals(12, run.output.metrics.getRuntimeMs());
+        assertEquals(2048, run.output.metrics.getMemoryKb());
+        assertFalse(run.timedOut);
+        assertFalse(run.recycle);
+
+        run = worker.run("solution.py", "input_1.txt", 1000, 256, 5000);
+        assertEquals(137, run.output.exitCode);
+        assertEquals("killed", run.output.stderr);
+        assertTrue(run.timedOut);
+        assertTrue(run.recycle);
+    }
+
+    @Test
+    void parsesCompileResults() throws Exception {
+        FakeWorkerProcess process = new FakeWorkerProcess("READY",
+            "COMPILED 1 - " + encode("Main.java:1: error: ';' expected"),
+            "COMPILED -1 - -");
+        SandboxWorker worker = SandboxWorker.start(sandbox(process), new String[] { "java" }, 60_000);
+
+        ExecOutput output = worker.compile("Main.java", 10_000);
+        assertEquals("COMPILE Main.java", process.sent.get(0));
+        assertEquals(1, output.exitCode);
+        assertEquals("Main.java:1: error: ';' expected", output.stderr);
+
+        assertThrows(IOException.class, () -> worker.compile("Main.java", 10_000));
+    }
+
+    @Test
+    void rejectsMalformedRepliesAndReportsTimeouts() throws Exception {
+        FakeWorkerProcess process = new FakeWorkerProcess("READY", "RESULT 0 12", "COMPILED 0 - -", null);
+        SandboxWorker worker = SandboxWorker.start(sandbox(process), new String[] { "python3" }, 60_000);
+
+        assertThrows(IOException.class, () -> worker.run("solution.py", "input_0.txt", 2000, 256, 5000));
+        assertThrows(IOException.class, () -> worker.run("solution.py", "input_0.txt", 2000, 256, 5000));
+        assertNull(worker.run("solution.py", "input_0.txt", 2000, 256, 5000));
+
+        worker.close();
+        assertTrue(process.closed);
+        assertThrows(EOFException.class, () -> worker.run("solution.py", "input_0.txt", 2000, 256, 5000));
+    }
+
+    private static ExecutionBackend.Sandbox sandbox(FakeWorkerProcess process) throws IOException {
+        ExecutionBackend.Sandbox sandbox = mock(ExecutionBackend.Sandbox.class);
+        when(sandbox.startWorker(any(), anyLong())).thenReturn(process);
+        return sandbox;
+    }
+
+    private static String encode(String text) {
+        return Base64.getEncoder().encodeToString(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Worker that answers with canned reply lines; a null reply is a receive timeout.
+     */
+    private static class FakeWorkerProcess implements ExecutionBackend.WorkerProcess {
+        private final List<String> replies;
+        private final List<String> sent = new ArrayList<>();
+        private int received;
+        private boolean closed;
+
+        FakeWorkerProcess(String... replies) {
+            this.replies = Arrays.asList(replies);
+        }
+
+        @Override
+        public void send(String line) {
+            sent.add(line);
+        }
+
+        @Override
+        public String receive(long timeoutMs) throws IOException {
+            if (received >= replies.size()) {
+                throw new EOFException("Worker exited");
+            }
+            return replies.get(received++);
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.localcode.services;
+
+import com.localcode.dto.SubmissionRequest;
+import com.localcode.exception.ResourceNotFoundException;
+import com.localcode.persistence.entity.Problem;
+import com.localcode.persistence.entity.Submission;
+import com.localcode.persistence.entity.User;
+import com.localcode.persistence.repository.ProblemRepository;
+import com.localcode.persistence.repository.SubmissionRepository;
+import com.localcode.persistence.repository.TestResultRepository;
+import com.localcode.persistence.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SubmissionServiceTest {
+
+    private final SubmissionRepository submissionRepository = mock(SubmissionRepository.class);
+    private final ProblemRepository problemRepository = mock(ProblemRepository.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final UserProgressService userProgressService = mock(UserProgressService.class);
+    private final SubmissionService submissionService = new SubmissionService(
+        submissionRepository,
+        problemRepository,
+        userRepository,
+        mock(TestResultRepository.class),
+        mock(UserProblemStatusService.class),
+        userProgressService);
+
+    @Test
+    void submissionOfADeletedUserIsNotFound() {
+        Problem problem = new Problem();
+        problem.setId(1L);
+        when(problemRepository.findById(1L)).thenReturn(Optional.of(problem));
+        when(userRepository.getReferenceById(7L)).thenReturn(new User());
+        when(submissionRepository.save(any(Submission.class)))
+            .thenThrow(new DataIntegrityViolationException("violates foreign key constraint"));
+
+        ResourceNotFoundException e = assertThrows(ResourceNotFoundException.class,
+            () -> submissionService.createSubmission(new SubmissionRequest(1L, "print(1)", "python"), 7L));
+
+        assertEquals("User", e.getResourceName());
+        verify(userProgressService, never()).recordSubmission(anyLong(), anyLong());
+    }
+}
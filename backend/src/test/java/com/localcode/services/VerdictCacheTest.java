@@ -0,0 +1,65 @@
+package com.localcode.services;
+
+import com.localcode.persistence.entity.SubmissionStatus;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class VerdictCacheTest {
+
+    private static final List<String[]> TEST_SET = List.of(
+        new String[] { "1", "[1,2]", "3" },
+        new String[] { "2", "[2,2]", "4" });
+
+    private final VerdictCache cache = new VerdictCache(true, 100, 60);
+
+    @Test
+    void identicalEvaluationsShareAKey() {
+        String code = "class Solution {\r\n}\r\n";
+        String key = cache.key(1L, TEST_SET, "java", code, "int add(int a, int b)", 2000, 256);
+        VerdictCache.CachedVerdict verdict = new VerdictCache.CachedVerdict(SubmissionStatus.ACCEPTED, 2, 10, 1024, List.of());
+        cache.put(key, verdict);
+
+        // CRLF and LF line endings are the same code
+        String sameCode = cache.key(1L, TEST_SET, "java", "class Solution {\n}\n", "int add(int a, int b)", 2000, 256);
+        assertSame(verdict, cache.get(sameCode));
+    }
+
+    @Test
+    void anyChangeToTheEvaluationChangesTheKey() {
+        String key = cache.key(1L, TEST_SET, "java", "code", "harness", 2000, 256);
+
+        List<String[]> editedExpected = List.of(TEST_SET.get(0), new String[] { "2", "[2,2]", "5" });
+        assertNotEquals(key, cache.key(1L, editedExpected, "java", "code", "harness", 2000, 256));
+        assertNotEquals(key, cache.key(1L, TEST_SET.subList(0, 1), "java", "code", "harness", 2000, 256));
+        assertNotEquals(key, cache.key(2L, TEST_SET, "java", "code", "harness", 2000, 256));
+        assertNotEquals(key, cache.key(1L, TEST_SET, "python", "code", "harness", 2000, 256));
+        assertNotEquals(key, cache.key(1L, TEST_SET, "java", "code ", "harness", 2000, 256));
+        assertNotEquals(key, cache.key(1L, TEST_SET, "java", "code", "other harness", 2000, 256));
+        assertNotEquals(key, cache.key(1L, TEST_SET, "java", "code", "harness", 1000, 256));
+        assertNotEquals(key, cache.key(1L, TEST_SET, "java", "code", "harness", 2000, 128));
+    }
+
+    @Test
+    void testSetHashKeepsFieldBoundaries() {
+        assertNotEquals(
+            VerdictCache.testSetHash(List.<String[]>of(new String[] { "ab", "c" })),
+            VerdictCache.testSetHash(List.<String[]>of(new String[] { "a", "bc" })));
+        assertEquals(
+            VerdictCache.testSetHash(TEST_SET),
+            VerdictCache.testSetHash(List.of(TEST_SET.get(0).clone(), TEST_SET.get(1).clone())));
+    }
+
+    @Test
+    void disabledCacheHasNoKeys() {
+        VerdictCache disabled = new VerdictCache(false, 100, 60);
+        assertNull(disabled.key(1L, TEST_SET, "java", "code", "harness", 2000, 256));
+        disabled.put(null, new VerdictCache.CachedVerdict(SubmissionStatus.ACCEPTED, 2, 10, 1024, List.of()));
+        assertNull(disabled.get(null));
+    }
+}
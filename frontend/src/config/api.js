@@ -16,7 +16,9 @@ export const API_ENDPOINTS = {
   // Submissions
   SUBMISSIONS: '/submissions',
   SUBMISSIONS_RUN: '/submissions/run',  // Run against sample test cases only
+  SUBMISSIONS_RUN_JOB: (jobId) => `/submissions/run/${jobId}`,  // Result of an async run (long-poll)
   SUBMISSION_DETAIL: (id) => `/submissions/${id}`,
+  SUBMISSION_EVENTS: (id) => `/submissions/${id}/events`,  // Live progress (Server-Sent Events)
   SUBMISSION_STATS: '/submissions/stats',
   
   // Test Cases
@@ -2,6 +2,7 @@ import { useState, useEffect } from 'react';
 import { useParams, useNavigate, useSearchParams } from 'react-router-dom';
 import { api } from '../contexts/AuthContext';
 import { API_ENDPOINTS } from '../config/api';
+import { streamSubmissionEvents } from '../services/submissionService';
 import ProblemLayout from '../components/problem-detail/ProblemLayout';
 import ProblemDescription from '../components/problem-detail/ProblemDescription';
 import CodeEditor from '../components/problem-detail/CodeEditor';
@@ -55,11 +56,31 @@ function ProblemDetail() {
     }
   }, [code, id, selectedLanguage, problem]);
 
-  // Polling for submission response
+  // Live submission progress, falls back to polling if the stream fails
   useEffect(()=>{
     if (!submissionId) return;
 
     let cancelled = false;
+    let closeStream = null;
+
+    const formatResults = (results) => results.map(tr => ({
+      testCaseId: tr.testCaseId,
+      passed: tr.passed,
+      input: tr.input,
+      actual: tr.actualOutput,
+      expected: tr.expectedOutput,
+      error: tr.errorMessage,
+      runtime: tr.runtimeMs,
+    }));
+
+    const showVerdict = (data) => {
+      setSubmissionResult(data);
+      if (data.testResults){
+        setTestResults(formatResults(data.testResults));
+        setToggleViewAllResults(true);
+      }
+      setSubmitting(false);
+    };
 
     const pollSubmission = async () => {
       try{
@@ -69,29 +90,12 @@ function ProblemDetail() {
 
         const data = res.data; 
 
-        setSubmissionResult(data);
-        
         if (data.status !== 'PENDING'){
-          if (data.testResults){  
-            const formattedResults = data.testResults.map(tr => ({
-              testCaseId: tr.testCaseId,
-              passed: tr.passed,
-              input: tr.input,
-              actual: tr.actualOutput,
-              expected: tr.expectedOutput,
-              error: tr.errorMessage,
-              runtime: tr.runtimeMs,
-              testCaseId: tr.testCaseId
-            }));
-            setTestResults(formattedResults);
-            setToggleViewAllResults(true);
-          }
-
-          setSubmitting(false);
+          showVerdict(data);
           return;
-
         }
 
+        setSubmissionResult(data);
         setTimeout(pollSubmission, 1500);
       } catch (e) {
           console.error('Polling Failed', e);
@@ -99,10 +103,27 @@ function ProblemDetail() {
         }
     };
 
-    pollSubmission();
+    const liveResults = [];
+    closeStream = streamSubmissionEvents(submissionId, {
+      onProgress: ({ index, testResult }) => {
+        if (cancelled) return;
+        liveResults[index] = testResult;
+        setTestResults(formatResults(liveResults.filter(Boolean)));
+      },
+      onVerdict: (data) => {
+        if (cancelled) return;
+        showVerdict(data);
+      },
+      onError: (e) => {
+        if (cancelled) return;
+        console.error('Submission stream failed, polling instead', e);
+        pollSubmission();
+      },
+    });
 
     return () => {
       cancelled = true;
+      closeStream?.();
     };
   }, [submissionId]);
 
@@ -217,19 +238,32 @@ function ProblemDetail() {
       setTestResults([]);
       setSubmissionResult(null);  // Clear any previous submission result
       
-      // Use the /run endpoint - tests against sample cases only, no submission created
-      const response = await api.post(API_ENDPOINTS.SUBMISSIONS_RUN, {
+      // Use the /run endpoint - tests against sample cases only, no submission created.
+      // The run is queued as a job and its result is long-polled, so no request stays open for the whole run.
+      const response = await api.post(`${API_ENDPOINTS.SUBMISSIONS_RUN}?async=true`, {
         problemId: parseInt(id),
         code: code,
         language: selectedLanguage
       });
 
-      console.log(response.data);
-      
+      let job = response.data;
+      while (job.status === 'PENDING') {
+        const poll = await api.get(API_ENDPOINTS.SUBMISSIONS_RUN_JOB(job.jobId), {
+          params: { waitMs: 15000 }
+        });
+        job = poll.data;
+      }
+
+      if (job.status === 'FAILED') {
+        setError(job.errorMessage || 'Failed to run code');
+        return;
+      }
+
+      const runResult = job.result;
 
       // Convert test results to TestResults component format
-      if (response.data.testResults) {
-        const formattedResults = response.data.testResults.map(tr => ({
+      if (runResult.testResults) {
+        const formattedResults = runResult.testResults.map(tr => ({
           testCaseId: tr.testCaseId,
           passed: tr.passed,
           input: tr.input,
@@ -39,6 +39,7 @@ export {
   submitSolution,
   getSubmissions,
   getSubmissionById,
+  streamSubmissionEvents,
   getStats,
   getProblemSubmissions,
 } from './submissionService';
@@ -1,4 +1,5 @@
 import apiClient from './api';
+import { API_BASE_URL, API_ENDPOINTS } from '../config/api';
 
 /**
  * Submission Service
@@ -76,6 +77,89 @@ export const getSubmissionById = async (submissionId) => {
   }
 };
 
+/**
+ * Stream live progress of a submission (Server-Sent Events)
+ * Uses fetch instead of EventSource so the JWT can be sent in the Authorization header.
+ * @param {number} submissionId - Submission ID
+ * @param {Object} handlers - Event handlers
+ * @param {Function} handlers.onProgress - Called with each finished test case ({ index, totalTests, testResult })
+ * @param {Function} handlers.onVerdict - Called once with the final submission details
+ * @param {Function} handlers.onError - Called if the stream fails or evaluation errors
+ * @returns {Function} Function that closes the stream
+ */
+export const streamSubmissionEvents = (submissionId, { onProgress, onVerdict, onError } = {}) => {
+  const controller = new AbortController();
+  let finished = false;
+
+  const dispatch = (eventName, data) => {
+    const payload = data ? JSON.parse(data) : null;
+    if (eventName === 'progress') {
+      onProgress?.(payload);
+    } else if (eventName === 'verdict') {
+      finished = true;
+      onVerdict?.(payload);
+    } else if (eventName === 'error') {
+      finished = true;
+      onError?.(new Error(payload?.message || 'Evaluation failed'));
+    }
+  };
+
+  const run = async () => {
+    const token = localStorage.getItem('token');
+    const response = await fetch(`${API_BASE_URL}${API_ENDPOINTS.SUBMISSION_EVENTS(submissionId)}`, {
+      headers: {
+        Accept: 'text/event-stream',
+        ...(token ? { Authorization: `Bearer ${token}` } : {}),
+      },
+      signal: controller.signal,
+    });
+
+    if (!response.ok || !response.body) {
+      throw new Error(`Event stream failed with status ${response.status}`);
+    }
+
+    const reader = response.body.getReader();
+    const decoder = new TextDecoder();
+    let buffer = '';
+    let eventName = 'message';
+    let data = '';
+
+    for (;;) {
+      const { value, done } = await reader.read();
+      if (done) break;
+
+      buffer += decoder.decode(value, { stream: true });
+      const lines = buffer.split(/\r?\n/);
+      buffer = lines.pop();
+
+      for (const line of lines) {
+        if (line === '') {
+          // Blank line ends an event
+          if (data) dispatch(eventName, data);
+          eventName = 'message';
+          data = '';
+        } else if (line.startsWith('event:')) {
+          eventName = line.slice(6).trim();
+        } else if (line.startsWith('data:')) {
+          data += (data ? '\n' : '') + line.slice(5).trimStart();
+        }
+      }
+    }
+
+    if (!finished) {
+      throw new Error('Event stream closed before the verdict');
+    }
+  };
+
+  run().catch((error) => {
+    if (!controller.signal.aborted) {
+      onError?.(error);
+    }
+  });
+
+  return () => controller.abort();
+};
+
 /**
  * Get user statistics
  * @returns {Promise<Object>} User statistics (solved, attempted, total problems, accuracy, recent submissions)
@@ -8,4 +8,9 @@ RUN apt-get update && apt-get install -y --no-install-recommends \
     time \
     && rm -rf /var/lib/apt/lists/*
 
+# Persistent JVM worker that compiles and runs submissions without a JVM startup per test case
+COPY runtimes/worker/JudgeWorker.java /opt/localcode-worker/
+RUN javac -d /opt/localcode-worker /opt/localcode-worker/JudgeWorker.java \
+    && chmod -R a+rX /opt/localcode-worker
+
 CMD ["java"]
\ No newline at end of file
@@ -0,0 +1,394 @@
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilePermission;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.security.CodeSource;
+import java.security.Permission;
+import java.security.PermissionCollection;
+import java.security.Policy;
+import java.security.ProtectionDomain;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.PropertyPermission;
+
+/**
+ * Long-lived JVM that compiles and runs Java submissions inside the runtime container.
+ *
+ * Starting a JVM (and javac, which is a JVM too) costs far more than a typical test case,
+ * so the backend starts this worker once per sandbox and sends it one request per line on
+ * stdin; every request gets exactly one reply line on the protocol stream (see below):
+ *
+ *   COMPILE file                                   -> COMPILED exit stdout stderr
+ *   RUN className inputFile limitMs memoryLimitMb  -> RESULT exit cpuMs memoryKb timedOut recycle stdout stderr
+ *   EXIT
+ *
+ * Output fields are Base64 encoded ("-" when empty). The memory limit is enforced on the whole
+ * JVM by its sandbox, so the worker ignores it. Each run loads the class files from the working
+ * directory in a fresh class loader, so static state never leaks between test cases, and
+ * calls main on its own thread with System.in, out and err redirected to the test case.
+ * When a run times out the worker replies and halts; when it leaves threads behind, fills
+ * the heap or hits a VM error it asks to be recycled, and the backend starts a new one.
+ *
+ * Replies go to the file descriptor named by -Djudge.protocol (the backend passes fd 3 and
+ * points fd 1 at /dev/null), and submitted classes run with almost no permissions under a
+ * security manager: they can't open file descriptors, /proc or device files, start processes,
+ * load native code or reflect into the worker, so they can't reach the protocol stream or
+ * the request stream and forge or swallow a reply.
+ *
+ * Built into the Java runtime image under /opt/localcode-worker; uses only the JDK.
+ */
+public class JudgeWorker {
+
+    // Exit code reported for a run killed at the wall-clock limit, like a SIGKILLed process
+    private static final int KILLED_EXIT_CODE = 137;
+
+    // Captured stdout and stderr are cut off beyond this
+    private static final int MAX_OUTPUT_BYTES = 8 * 1024 * 1024;
+
+    // Recycle the worker when the heap is still this full after a run
+    private static final double MAX_HEAP_RATIO_AFTER_RUN = 0.75;
+
+    private static final PrintStream protocolOut = openProtocolOut();
+    private static final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private static final ExitTrap exitTrap = new ExitTrap();
+
+    public static void main(String[] args) throws Exception {
+        installSecurityManager();
+
+        BufferedReader requests = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+        reply("READY");
+
+        String line;
+        while ((line = requests.readLine()) != null) {
+            String[] fields = line.trim().split(" ");
+            switch (fields[0]) {
+                case "COMPILE":
+                    compile(fields[1]);
+                    break;
+                case "RUN":
+                    run(fields[1], fields[2], Long.parseLong(fields[3]));
+                    break;
+                case "EXIT":
+                    Runtime.getRuntime().halt(0);
+                    break;
+                default:
+                    reply("ERROR unknown request " + fields[0]);
+            }
+        }
+
+        // Server closed stdin, don't wait for threads a submission left behind
+        Runtime.getRuntime().halt(0);
+    }
+
+    /**
+     * Compile a source file into the working directory with the in-process compiler.
+     */
+    private static void compile(String fileName) {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            reply("COMPILED -1 " + encode(new byte[0]) + " " + encode(new byte[0]));
+            return;
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+        int exitCode = compiler.run(null, out, err, fileName);
+        reply("COMPILED " + exitCode + " " + encode(out.toByteArray()) + " " + encode(err.toByteArray()));
+    }
+
+    /**
+     * Run a class's main method against one input file.
+     */
+    private static void run(String className, String inputFile, long wallLimitMs) throws Exception {
+        CappedOutputStream out = new CappedOutputStream();
+        CappedOutputStream err = new CappedOutputStream();
+        PrintStream caseOut = new PrintStream(out, false, StandardCharsets.UTF_8);
+        PrintStream caseErr = new PrintStream(err, true, StandardCharsets.UTF_8);
+
+        System.gc();
+        resetPeakHeapUsage();
+
+        ThreadGroup group = new ThreadGroup("submission");
+        Submission submission = new Submission(className, caseErr);
+        Thread mainThread = new Thread(group, submission, "main");
+
+        InputStream protocolIn = System.in;
+        PrintStream workerOut = System.out;
+        PrintStream workerErr = System.err;
+        try (InputStream in = new BufferedInputStream(new FileInputStream(inputFile))) {
+            System.setIn(in);
+            System.setOut(caseOut);
+            System.setErr(caseErr);
+            exitTrap.arm(group);
+
+            mainThread.start();
+            mainThread.join(wallLimitMs);
+
+            exitTrap.disarm();
+            caseOut.flush();
+            caseErr.flush();
+        } finally {
+            System.setIn(protocolIn);
+            System.setOut(workerOut);
+            System.setErr(workerErr);
+        }
+
+        if (mainThread.isAlive()) {
+            // The thread can't be stopped safely, report and let the backend start a fresh worker
+            long cpuMs = threads.getThreadCpuTime(mainThread.getId()) / 1_000_000;
+            reply(result(KILLED_EXIT_CODE, Math.max(cpuMs, 0), peakHeapUsageKb(), true, true, out, err));
+            Runtime.getRuntime().halt(KILLED_EXIT_CODE);
+        }
+
+        int exitCode = exitTrap.exitStatus != null ? exitTrap.exitStatus : submission.exitCode;
+        boolean recycle = submission.vmError
+            || group.activeCount() > 0
+            || exitTrap.exitStatus != null && submission.exitCode != exitTrap.exitStatus;
+        long memoryKb = peakHeapUsageKb();
+        if (!recycle) {
+            System.gc();
+            Runtime runtime = Runtime.getRuntime();
+            recycle = runtime.totalMemory() - runtime.freeMemory() > runtime.maxMemory() * MAX_HEAP_RATIO_AFTER_RUN;
+        }
+
+        reply(result(exitCode, submission.cpuMs, memoryKb, false, recycle, out, err));
+    }
+
+    private static String result(int exitCode, long cpuMs, long memoryKb, boolean timedOut, boolean recycle,
+                                 CappedOutputStream out, CappedOutputStream err) {
+        return "RESULT " + exitCode + " " + cpuMs + " " + memoryKb + " " + (timedOut ? 1 : 0) + " " + (recycle ? 1 : 0)
+            + " " + encode(out.toByteArray()) + " " + encode(err.toByteArray());
+    }
+
+    private static void reply(String line) {
+        protocolOut.print(line + "\n");
+        protocolOut.flush();
+    }
+
+    private static String encode(byte[] bytes) {
+        // Empty fields would collapse when the line is split on spaces
+        return bytes.length == 0 ? "-" : Base64.getEncoder().encodeToString(bytes);
+    }
+
+    private static void resetPeakHeapUsage() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    /**
+     * Peak heap used since the last reset, the closest in-process equivalent of peak RSS.
+     */
+    private static long peakHeapUsageKb() {
+        long bytes = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                bytes += pool.getPeakUsage().getUsed();
+            }
+        }
+        return bytes / 1024;
+    }
+
+    /**
+     * Stream for replies: the descriptor the backend opened for them, or stdout when started without one.
+     */
+    private static PrintStream openProtocolOut() {
+        String path = System.getProperty("judge.protocol");
+        if (path == null) {
+            return System.out;
+        }
+        try {
+            return new PrintStream(new FileOutputStream(path), false, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot open protocol stream " + path, e);
+        }
+    }
+
+    @SuppressWarnings("removal")
+    private static void installSecurityManager() {
+        // Everything but submitted classes keeps every permission; those only get what SubmissionLoader grants
+        Policy.setPolicy(new Policy() {
+            @Override
+            public boolean implies(ProtectionDomain domain, Permission permission) {
+                return !(domain.getClassLoader() instanceof SubmissionLoader);
+            }
+        });
+        try {
+            System.setSecurityManager(exitTrap);
+        } catch (UnsupportedOperationException e) {
+            // Security manager disallowed, submissions run unrestricted and System.exit ends the worker
+            System.err.println("JudgeWorker: security manager disallowed, start with -Djava.security.manager=allow");
+        }
+    }
+
+    /**
+     * One test case: loads the class in a fresh class loader and calls its main method.
+     */
+    private static class Submission implements Runnable {
+        private final String className;
+        private final PrintStream err;
+        volatile int exitCode;
+        volatile long cpuMs;
+        volatile boolean vmError;
+
+        Submission(String className, PrintStream err) {
+            this.className = className;
+            this.err = err;
+        }
+
+        @Override
+        public void run() {
+            try (URLClassLoader loader = new SubmissionLoader(Paths.get("").toAbsolutePath().toUri().toURL())) {
+                Thread.currentThread().setContextClassLoader(loader);
+                Method main = Class.forName(className, true, loader).getMethod("main", String[].class);
+                main.invoke(null, (Object) new String[0]);
+            } catch (InvocationTargetException e) {
+                handle(e.getCause());
+            } catch (Throwable e) {
+                handle(e);
+            } finally {
+                cpuMs = threads.getCurrentThreadCpuTime() / 1_000_000;
+            }
+        }
+
+        private void handle(Throwable throwable) {
+            if (throwable instanceof ExitTrap.Exit) {
+                exitCode = ((ExitTrap.Exit) throwable).status;
+                return;
+            }
+
+            // Report it the way the java launcher does, without the worker's own frames
+            vmError = throwable instanceof VirtualMachineError;
+            trimStackTrace(throwable);
+            err.print("Exception in thread \"main\" ");
+            throwable.printStackTrace(err);
+            exitCode = 1;
+        }
+
+        private void trimStackTrace(Throwable throwable) {
+            StackTraceElement[] stackTrace = throwable.getStackTrace();
+            List<StackTraceElement> trimmed = new ArrayList<>();
+            for (StackTraceElement element : stackTrace) {
+                trimmed.add(element);
+                if (element.getClassName().equals(className) && element.getMethodName().equals("main")) {
+                    throwable.setStackTrace(trimmed.toArray(new StackTraceElement[0]));
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Class loader for one run. Classes it defines get read access to the working directory,
+     * system properties and their own members, and may manage the threads they start; every other
+     * permission check fails for them, unless JDK code performs the action on their behalf.
+     */
+    private static class SubmissionLoader extends URLClassLoader {
+
+        SubmissionLoader(URL workDir) {
+            super(new URL[]{workDir}, ClassLoader.getPlatformClassLoader());
+        }
+
+        @Override
+        protected PermissionCollection getPermissions(CodeSource codeSource) {
+            PermissionCollection permissions = super.getPermissions(codeSource);
+            permissions.add(new FilePermission(Paths.get("").toAbsolutePath() + File.separator + "-", "read"));
+            permissions.add(new FilePermission("-", "read"));
+            permissions.add(new PropertyPermission("*", "read"));
+            permissions.add(new RuntimePermission("accessDeclaredMembers"));
+            // ExecutorService.shutdown checks it
+            permissions.add(new RuntimePermission("modifyThread"));
+            return permissions;
+        }
+    }
+
+    /**
+     * Security manager that enforces the permissions of submitted classes (see {@link SubmissionLoader})
+     * and turns System.exit from a running submission into the end of its main method instead of the worker.
+     */
+    @SuppressWarnings("removal")
+    private static class ExitTrap extends SecurityManager {
+        private volatile ThreadGroup group;
+        volatile Integer exitStatus;
+
+        void arm(ThreadGroup group) {
+            this.exitStatus = null;
+            this.group = group;
+        }
+
+        void disarm() {
+            this.group = null;
+        }
+
+        @Override
+        public void checkExit(int status) {
+            ThreadGroup armed = group;
+            if (armed != null && armed.parentOf(Thread.currentThread().getThreadGroup())) {
+                exitStatus = status;
+                throw new Exit(status);
+            }
+        }
+
+
+        /**
+         * Thrown instead of exiting; an Error, so catch (Exception e) in a submission doesn't swallow it.
+         */
+        static class Exit extends Error {
+            final int status;
+
+            Exit(int status) {
+                super("System.exit(" + status + ")", null, false, false);
+                this.status = status;
+            }
+        }
+    }
+
+    /**
+     * In-memory output of one test case that silently drops everything past the cap.
+     */
+    private static class CappedOutputStream extends OutputStream {
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+        @Override
+        public synchronized void write(int b) {
+            if (buffer.size() < MAX_OUTPUT_BYTES) {
+                buffer.write(b);
+            }
+        }
+
+        @Override
+        public synchronized void write(byte[] bytes, int offset, int length) {
+            int room = MAX_OUTPUT_BYTES - buffer.size();
+            if (room > 0) {
+                buffer.write(bytes, offset, Math.min(length, room));
+            }
+        }
+
+        synchronized byte[] toByteArray() {
+            return buffer.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,258 @@
+"""Pre-warmed Python zygote that forks a child per test case inside the runtime container.
+
+Starting python3 and importing the harness's modules costs more than most test cases,
+so the backend starts this process once per sandbox and sends it one request per line
+on stdin; every request gets exactly one reply line on stdout (same protocol as
+JudgeWorker.java):
+
+    RUN file inputFile limitMs memoryLimitMb  -> RESULT exit cpuMs memoryKb timedOut recycle stdout stderr
+    EXIT
+
+Output fields are Base64 encoded ("-" when empty). The zygote imports the modules
+submissions commonly use and compiles each source file once; every run then forks,
+applies rlimits in the child (CPU time, address space, file size, no core dumps) and executes the compiled module as __main__ with stdin
+read from the input file. The zygote itself never runs submitted code, so a run can't
+leave anything behind in it. CPU time and peak memory come from the child's rusage.
+"""
+
+import base64
+import builtins
+import gc
+import io
+import os
+import resource
+import select
+import signal
+import sys
+import time
+import traceback
+import types
+
+# Modules the harness and typical solutions import, loaded once in the zygote
+import bisect  # noqa: F401
+import collections  # noqa: F401
+import functools  # noqa: F401
+import heapq  # noqa: F401
+import itertools  # noqa: F401
+import math  # noqa: F401
+import re  # noqa: F401
+import typing  # noqa: F401
+
+# Exit code reported for a run killed at the wall-clock limit, like a SIGKILLed process
+KILLED_EXIT_CODE = 137
+
+# Captured stdout and stderr are cut off beyond this
+MAX_OUTPUT_BYTES = 8 * 1024 * 1024
+
+# Source file name to (modification time, code object or formatted SyntaxError)
+compiled = {}
+
+protocol_out = os.fdopen(os.dup(1), "wb", buffering=0)
+
+
+def main():
+    # Keep submissions from writing into the protocol stream
+    devnull = os.open(os.devnull, os.O_WRONLY)
+    os.dup2(devnull, 1)
+    os.close(devnull)
+
+    # Everything loaded so far is shared with the children, keep the collector off those pages
+    gc.freeze()
+    reply("READY")
+
+    for line in sys.stdin.buffer:
+        fields = line.decode().split()
+        if not fields:
+            continue
+        if fields[0] == "RUN":
+            run(fields[1], fields[2], int(fields[3]), int(fields[4]))
+        elif fields[0] == "EXIT":
+            break
+        else:
+            reply("ERROR unknown request " + fields[0])
+
+
+def run(file_name, input_file, wall_limit_ms, memory_limit_mb):
+    path = os.path.abspath(file_name)
+    code = compile_source(path)
+    if isinstance(code, str):
+        # Report a syntax error the way the interpreter does, without running anything
+        reply(result(1, 0, 0, False, b"", code.encode()))
+        return
+
+    out = os.memfd_create("stdout")
+    err = os.memfd_create("stderr")
+    # The child inherits the zygote's mappings, it may map the memory limit on top of them
+    address_space = address_space_bytes() + memory_limit_mb * 1024 * 1024
+    start = time.monotonic()
+    pid = os.fork()
+    if pid == 0:
+        run_child(path, code, input_file, out, err, wall_limit_ms, address_space)
+
+    timed_out = not wait_for(pid, wall_limit_ms / 1000 - (time.monotonic() - start))
+    if timed_out:
+        kill_group(pid)
+        os.kill(pid, signal.SIGKILL)
+    _, status, usage = os.wait4(pid, 0)
+    # Take down whatever the child left running
+    kill_group(pid)
+
+    if timed_out:
+        exit_code = KILLED_EXIT_CODE
+    elif os.WIFSIGNALED(status):
+        exit_code = 128 + os.WTERMSIG(status)
+    else:
+        exit_code = os.WEXITSTATUS(status)
+
+    cpu_ms = round((usage.ru_utime + usage.ru_stime) * 1000)
+    reply(result(exit_code, cpu_ms, usage.ru_maxrss, timed_out, read_output(out), read_output(err)))
+
+
+def run_child(path, code, input_file, out, err, wall_limit_ms, address_space):
+    """Runs in the forked child and never returns."""
+    exit_code = 1
+    try:
+        os.setpgid(0, 0)
+        signal.signal(signal.SIGINT, signal.SIG_DFL)
+        cpu_seconds = wall_limit_ms // 1000 + 1
+        resource.setrlimit(resource.RLIMIT_CPU, (cpu_seconds, cpu_seconds + 1))
+        resource.setrlimit(resource.RLIMIT_CORE, (0, 0))
+        resource.setrlimit(resource.RLIMIT_AS, (address_space, address_space))
+        # Also caps the stdout and stderr memfds, which would otherwise grow in RAM without bound
+        resource.setrlimit(resource.RLIMIT_FSIZE, (MAX_OUTPUT_BYTES, MAX_OUTPUT_BYTES))
+
+        stdin = os.open(input_file, os.O_RDONLY)
+        os.dup2(stdin, 0)
+        os.dup2(out, 1)
+        os.dup2(err, 2)
+        for fd in (stdin, out, err, protocol_out.fileno()):
+            os.close(fd)
+
+        # Fresh streams, as the interpreter would open them for a new process
+        sys.stdin = reopen(sys.__stdin__, 0, "r")
+        sys.stdout = reopen(sys.__stdout__, 1, "w")
+        sys.stderr = reopen(sys.__stderr__, 2, "w", line_buffering=True)
+        sys.argv = [path]
+
+        module = types.ModuleType("__main__")
+        module.__file__ = path
+        module.__builtins__ = builtins
+        sys.modules["__main__"] = module
+        exit_code = execute(code, module)
+    finally:
+        for stream in (sys.stdout, sys.stderr):
+            try:
+                stream.flush()
+            except Exception:
+                pass
+        os._exit(exit_code)
+
+
+def reopen(original, fd, mode, line_buffering=False):
+    """Text stream on a file descriptor, with the encoding the interpreter picked for the original."""
+    raw = io.FileIO(fd, mode, closefd=False)
+    buffered = io.BufferedReader(raw) if mode == "r" else io.BufferedWriter(raw)
+    return io.TextIOWrapper(buffered, encoding=original.encoding, errors=original.errors,
+                            line_buffering=line_buffering)
+
+
+def execute(code, module):
+    """Execute the module, turning SystemExit and uncaught exceptions into an exit code like the interpreter."""
+    try:
+        exec(code, module.__dict__)
+        return 0
+    except SystemExit as e:
+        if e.code is None:
+            return 0
+        if isinstance(e.code, int):
+            return e.code & 0xFF
+        print(e.code, file=sys.stderr)
+        return 1
+    except BaseException as e:
+        # Leave this frame out of the traceback
+        traceback.print_exception(type(e), e, e.__traceback__.tb_next)
+        return 1
+
+
+def compile_source(path):
+    """Compile a source file once; the same file is run for every test case."""
+    mtime = os.stat(path).st_mtime_ns
+    cached = compiled.get(path)
+    if cached is None or cached[0] != mtime:
+        with open(path, "rb") as f:
+            source = f.read()
+        try:
+            code = compile(source, path, "exec", dont_inherit=True)
+        except SyntaxError as e:
+            code = "".join(traceback.format_exception_only(type(e), e))
+        compiled.clear()
+        cached = compiled[path] = (mtime, code)
+    return cached[1]
+
+
+def address_space_bytes():
+    """Current size of the zygote's address space (VmSize)."""
+    with open("/proc/self/statm") as f:
+        return int(f.read().split()[0]) * resource.getpagesize()
+
+
+def wait_for(pid, timeout_seconds):
+    """Wait until the child exits; False if it is still running after the timeout."""
+    try:
+        pidfd = os.pidfd_open(pid)
+    except (AttributeError, OSError):
+        pidfd = None
+
+    if pidfd is not None:
+        try:
+            ready, _, _ = select.select([pidfd], [], [], max(timeout_seconds, 0))
+            return bool(ready)
+        finally:
+            os.close(pidfd)
+
+    # No pidfd on this kernel, poll instead
+    deadline = time.monotonic() + timeout_seconds
+    while time.monotonic() < deadline:
+        if os.waitid(os.P_PID, pid, os.WEXITED | os.WNOHANG | os.WNOWAIT) is not None:
+            return True
+        time.sleep(0.001)
+    return False
+
+
+def kill_group(pid):
+    try:
+        os.killpg(pid, signal.SIGKILL)
+    except (ProcessLookupError, PermissionError):
+        pass
+
+
+def read_output(fd):
+    os.lseek(fd, 0, os.SEEK_SET)
+    chunks = []
+    size = 0
+    while size < MAX_OUTPUT_BYTES:
+        chunk = os.read(fd, min(1 << 20, MAX_OUTPUT_BYTES - size))
+        if not chunk:
+            break
+        chunks.append(chunk)
+        size += len(chunk)
+    os.close(fd)
+    return b"".join(chunks)
+
+
+def result(exit_code, cpu_ms, memory_kb, timed_out, out, err):
+    return "RESULT %d %d %d %d 0 %s %s" % (
+        exit_code, cpu_ms, memory_kb, 1 if timed_out else 0, encode(out), encode(err))
+
+
+def encode(data):
+    # Empty fields would collapse when the line is split on spaces
+    return base64.b64encode(data).decode() if data else "-"
+
+
+def reply(line):
+    protocol_out.write((line + "\n").encode())
+
+
+if __name__ == "__main__":
+    main()